@@ -0,0 +1,165 @@
+package benchmarks;
+
+import graph.Graph;
+import graph.GraphGenerator;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/** Synthetic inputs for the benchmarks. Every generator takes a seed, so
+ *  a given set of parameters always produces the same data and results
+ *  stay comparable across runs and releases.
+ */
+public final class Generators
+{
+    private Generators() { }
+
+    /**
+     * Random graph of a given kind.
+     *
+     * @param kind "grid" for a square grid, "geometric" for a random geometric
+     *             graph of average degree 6
+     * @param numNodes approximate number of nodes
+     * @param seed random seed
+     * @return the graph
+     */
+    public static Graph graph(String kind, int numNodes, long seed)
+    {
+        switch (kind)
+        {
+            case "grid":
+                int side = (int) Math.max(2, Math.sqrt(numNodes));
+                return GraphGenerator.grid(side, side, seed);
+            case "geometric":
+                return GraphGenerator.randomGeometric(numNodes, 6.0, seed);
+            default:
+                throw new IllegalArgumentException("unknown graph kind: " + kind);
+        }
+    }
+
+    /**
+     * Distinct random keys of lowercase letters.
+     *
+     * @param count number of keys
+     * @param length length of each key
+     * @param seed random seed
+     * @return the keys
+     */
+    public static String[] keys(int count, int length, long seed)
+    {
+        Random rnd = new Random(seed);
+        Set<String> seen = new HashSet<>();
+        String[] keys = new String[count];
+        for (int i = 0; i < count; )
+        {
+            String key = randomString(rnd, length, 26);
+            if (seen.add(key)) keys[i++] = key;
+        }
+        return keys;
+    }
+
+    /**
+     * Indices into an array of a given size, drawn from a Zipf distribution:
+     * index i is picked with probability proportional to 1 / (i + 1)^skew,
+     * so skew 0 is uniform and larger values make a few indices hot.
+     *
+     * @param count number of indices to draw
+     * @param size indices are in [0, size)
+     * @param skew Zipf exponent, not negative
+     * @param seed random seed
+     * @return the indices
+     */
+    public static int[] zipf(int count, int size, double skew, long seed)
+    {
+        double[] cumulative = new double[size];
+        double total = 0;
+        for (int i = 0; i < size; i++)
+        {
+            total += 1.0 / Math.pow(i + 1, skew);
+            cumulative[i] = total;
+        }
+
+        // shuffle ranks so hot indices are spread over the array
+        Random rnd = new Random(seed);
+        int[] rank = new int[size];
+        for (int i = 0; i < size; i++) rank[i] = i;
+        for (int i = size - 1; i > 0; i--)
+        {
+            int j = rnd.nextInt(i + 1), t = rank[i];
+            rank[i] = rank[j];
+            rank[j] = t;
+        }
+
+        int[] picks = new int[count];
+        for (int i = 0; i < count; i++)
+        {
+            int k = Arrays.binarySearch(cumulative, rnd.nextDouble() * total);
+            picks[i] = rank[Math.min(k < 0 ? -k - 1 : k, size - 1)];
+        }
+        return picks;
+    }
+
+    /**
+     * Cells of a square sparse matrix, each one set with a given probability.
+     * Row and column 0 are left out, since MySparseArray keeps its headers there.
+     *
+     * @param size number of rows and columns
+     * @param density fraction of cells that are set, between 0 and 1
+     * @param seed random seed
+     * @return rows in [0][i] and columns in [1][i] of the set cells, in random order
+     */
+    public static int[][] sparseCells(int size, double density, long seed)
+    {
+        Random rnd = new Random(seed);
+        long cells = (long) (size - 1) * (size - 1);
+        int count = (int) Math.min(Integer.MAX_VALUE - 8, Math.round(cells * density));
+        Set<Long> seen = new HashSet<>();
+        int[][] rc = new int[2][count];
+        for (int i = 0; i < count; )
+        {
+            int row = 1 + rnd.nextInt(size - 1), col = 1 + rnd.nextInt(size - 1);
+            if (!seen.add((long) row * size + col)) continue;
+            rc[0][i] = row;
+            rc[1][i] = col;
+            i++;
+        }
+        return rc;
+    }
+
+    /**
+     * Text of lowercase letters.
+     *
+     * @param kind "random" for independent letters, "repetitive" for a short
+     *             random block repeated with an occasional changed letter
+     * @param length length of the text
+     * @param alphabet number of distinct letters, 1 to 26
+     * @param seed random seed
+     * @return the text
+     */
+    public static String text(String kind, int length, int alphabet, long seed)
+    {
+        Random rnd = new Random(seed);
+        switch (kind)
+        {
+            case "random":
+                return randomString(rnd, length, alphabet);
+            case "repetitive":
+                String block = randomString(rnd, Math.max(1, Math.min(length, 16)), alphabet);
+                char[] text = new char[length];
+                for (int i = 0; i < length; i++) text[i] = block.charAt(i % block.length());
+                for (int i = 0; i < length / 100; i++) text[rnd.nextInt(length)] = (char) ('a' + rnd.nextInt(alphabet));
+                return new String(text);
+            default:
+                throw new IllegalArgumentException("unknown text kind: " + kind);
+        }
+    }
+
+    private static String randomString(Random rnd, int length, int alphabet)
+    {
+        char[] s = new char[length];
+        for (int i = 0; i < length; i++) s[i] = (char) ('a' + rnd.nextInt(alphabet));
+        return new String(s);
+    }
+}
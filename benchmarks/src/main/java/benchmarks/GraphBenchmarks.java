@@ -0,0 +1,102 @@
+package benchmarks;
+
+import graph.ContractionHierarchy;
+import graph.Dijkstra;
+import graph.EuclideanHeuristic;
+import graph.Graph;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Shortest path queries on generated graphs. Each invocation answers the
+ *  next of a fixed list of random origin and destination pairs. The
+ *  contraction hierarchy is built in its own state, so only its benchmark
+ *  pays for the build.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphBenchmarks
+{
+    private static final int PAIRS = 1024;
+
+    @Param({"grid", "geometric"})
+    public String kind;
+
+    @Param({"100000"})
+    public int nodes;
+
+    private Graph graph;
+    private Dijkstra dijkstra;
+    private EuclideanHeuristic euclidean;
+    private int[] origins, destinations;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        graph = Generators.graph(kind, nodes, 1);
+        dijkstra = new Dijkstra(graph);
+        euclidean = new EuclideanHeuristic(graph);
+        Random rnd = new Random(2);
+        origins = new int[PAIRS];
+        destinations = new int[PAIRS];
+        for (int i = 0; i < PAIRS; i++)
+        {
+            origins[i] = rnd.nextInt(graph.numNodes());
+            destinations[i] = rnd.nextInt(graph.numNodes());
+        }
+    }
+
+    /** The hierarchy of the graph of the query state */
+    @State(Scope.Benchmark)
+    public static class Hierarchy
+    {
+        private ContractionHierarchy hierarchy;
+
+        @Setup(Level.Trial)
+        public void setUp(GraphBenchmarks queries) { hierarchy = ContractionHierarchy.build(queries.graph); }
+    }
+
+    private int pair() { return next = (next + 1) & (PAIRS - 1); }
+
+    @Benchmark
+    public List<Integer> dijkstra()
+    {
+        int i = pair();
+        return dijkstra.computeShortestPath(origins[i], destinations[i], null);
+    }
+
+    @Benchmark
+    public List<Integer> bidirectional()
+    {
+        int i = pair();
+        return dijkstra.computeShortestPathBidirectional(origins[i], destinations[i], null);
+    }
+
+    @Benchmark
+    public List<Integer> aStar()
+    {
+        int i = pair();
+        return dijkstra.computeShortestPath(origins[i], destinations[i], euclidean, null);
+    }
+
+    @Benchmark
+    public List<Integer> contractionHierarchy(Hierarchy ch)
+    {
+        int i = pair();
+        return ch.hierarchy.computeShortestPath(origins[i], destinations[i], null);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int[] shortestPathTree()
+    {
+        return dijkstra.shortestPathTree(origins[pair()]).distances();
+    }
+}
@@ -0,0 +1,94 @@
+package benchmarks;
+
+import map.HashTableClosedHashingDH;
+import map.HashTableClosedHashingLP;
+import map.HashTableOpenHashing;
+import map.Map;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Operations of the map.HashTable* classes. Lookups follow a Zipf
+ *  distribution over the stored keys, so skew 0 is uniform and larger
+ *  skews keep hitting a few hot keys.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapBenchmarks
+{
+    private static final int LOOKUPS = 1 << 16;
+
+    @Param({"open", "linear", "double"})
+    public String table;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"0", "1.0"})
+    public double skew;
+
+    private String[] keys, absent;
+    private int[] lookups;
+    private Map map;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        String[] all = Generators.keys(2 * size, 12, 1);
+        keys = new String[size];
+        absent = new String[size];
+        System.arraycopy(all, 0, keys, 0, size);
+        System.arraycopy(all, size, absent, 0, size);
+        lookups = Generators.zipf(LOOKUPS, size, skew, 2);
+        map = filled();
+    }
+
+    private Map create(int capacity)
+    {
+        switch (table)
+        {
+            case "open": return new HashTableOpenHashing(capacity);
+            case "linear": return new HashTableClosedHashingLP(capacity);
+            case "double": return new HashTableClosedHashingDH(capacity);
+            default: throw new IllegalArgumentException("unknown table: " + table);
+        }
+    }
+
+    private Map filled()
+    {
+        Map m = create(11);
+        for (String key : keys) m.put(key, key);
+        return m;
+    }
+
+    private int lookup() { return lookups[next = (next + 1) & (LOOKUPS - 1)]; }
+
+    /** Fill an empty table, growing it from the smallest capacity; time per table */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Map putAll() { return filled(); }
+
+    @Benchmark
+    public Object getHit() { return map.get(keys[lookup()]); }
+
+    @Benchmark
+    public Object getMiss() { return map.get(absent[lookup()]); }
+
+    @Benchmark
+    public boolean containsKey() { return map.containsKey(keys[lookup()]); }
+
+    /** Remove a key and put it back, so the table keeps its size */
+    @Benchmark
+    public Object removeAndPut()
+    {
+        String key = keys[lookup()];
+        Object value = map.remove(key);
+        map.put(key, value);
+        return value;
+    }
+}
@@ -0,0 +1,22 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/** Entry point of the benchmark jar: runs JMH with the given options, and
+ *  writes the results as JSON to jmh-result.json unless the options choose
+ *  another result format or file.
+ */
+public final class Run
+{
+    private Run() { }
+
+    public static void main(String[] args) throws Exception
+    {
+        List<String> options = new ArrayList<>(Arrays.asList(args));
+        if (!options.contains("-rf")) options.addAll(Arrays.asList("-rf", "json"));
+        if (!options.contains("-rff")) options.addAll(Arrays.asList("-rff", "jmh-result.json"));
+        org.openjdk.jmh.Main.main(options.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,94 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import sparseArray.ElemIterator;
+import sparseArray.MySparseArray;
+import sparseArray.RowIterator;
+
+import java.util.concurrent.TimeUnit;
+
+/** Operations of MySparseArray on square matrices with a given fraction
+ *  of cells set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SparseArrayBenchmarks
+{
+    private static final int LOOKUPS = 1 << 12;
+    private static final Object DEFAULT = 0;
+
+    @Param({"1000"})
+    public int size;
+
+    @Param({"0.001", "0.01"})
+    public double density;
+
+    private int[][] cells;
+    private int[] rows, cols;
+    private MySparseArray array;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        cells = Generators.sparseCells(size, density, 1);
+        int[][] probes = Generators.sparseCells(size, (double) LOOKUPS / ((long) size * size), 2);
+        rows = new int[LOOKUPS];
+        cols = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++)
+        {
+            rows[i] = probes[0][i % probes[0].length];
+            cols[i] = probes[1][i % probes[1].length];
+        }
+        array = filled();
+    }
+
+    private MySparseArray filled()
+    {
+        MySparseArray a = new MySparseArray(DEFAULT);
+        for (int i = 0; i < cells[0].length; i++) a.setValue(cells[0][i], cells[1][i], i + 1);
+        return a;
+    }
+
+    private int probe() { return next = (next + 1) & (LOOKUPS - 1); }
+
+    /** Set every cell of the matrix, in random order; time per matrix */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public MySparseArray fill() { return filled(); }
+
+    /** Read a random cell, set or not */
+    @Benchmark
+    public Object elementAt()
+    {
+        int i = probe();
+        return array.elementAt(rows[i], cols[i]);
+    }
+
+    /** Set a random cell and clear it again */
+    @Benchmark
+    public void setAndRemove()
+    {
+        int i = probe();
+        array.setValue(rows[i], cols[i], 1);
+        array.setValue(rows[i], cols[i], DEFAULT);
+    }
+
+    /** Visit every element, row by row; time per matrix */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void iterateRows(Blackhole sink)
+    {
+        RowIterator rowIterator = array.iterateRows();
+        while (rowIterator.hasNext())
+        {
+            ElemIterator elements = rowIterator.next();
+            while (elements.hasNext()) sink.consume(elements.next().value());
+        }
+    }
+}
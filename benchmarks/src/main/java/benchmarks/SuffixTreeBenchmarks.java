@@ -0,0 +1,69 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import suffixTrees.SuffixTree;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Building a SuffixTree and searching it, on random text and on text
+ *  made of one short block repeated. Patterns are substrings of the text,
+ *  so every search finds at least one occurrence.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SuffixTreeBenchmarks
+{
+    private static final int PATTERNS = 1024;
+
+    @Param({"random", "repetitive"})
+    public String kind;
+
+    @Param({"500"})
+    public int length;
+
+    @Param({"4", "26"})
+    public int alphabet;
+
+    private String text;
+    private String[] patterns, suffixes;
+    private SuffixTree tree;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        text = Generators.text(kind, length, alphabet, 1);
+        Random rnd = new Random(2);
+        patterns = new String[PATTERNS];
+        suffixes = new String[PATTERNS];
+        for (int i = 0; i < PATTERNS; i++)
+        {
+            int start = rnd.nextInt(length), end = Math.min(length, start + 1 + rnd.nextInt(8));
+            patterns[i] = text.substring(start, end);
+            suffixes[i] = text.substring(rnd.nextInt(length));
+        }
+        tree = new SuffixTree(text);
+    }
+
+    private int pattern() { return next = (next + 1) & (PATTERNS - 1); }
+
+    /** Build the tree of the whole text; time per tree */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public SuffixTree build() { return new SuffixTree(text); }
+
+    @Benchmark
+    public List<Integer> substringIndices() { return tree.getSubstringIndices(patterns[pattern()]); }
+
+    @Benchmark
+    public int numOccurrences() { return tree.numOccurrences(patterns[pattern()]); }
+
+    @Benchmark
+    public int containsSuffix() { return tree.containsSuffix(suffixes[pattern()]); }
+}
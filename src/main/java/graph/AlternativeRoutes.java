@@ -0,0 +1,325 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/** Several routes between one origin and one destination: Yen's k shortest
+ *  loopless paths, and alternatives found by penalizing the edges of the
+ *  routes found so far and searching again.
+ *  Both start with one backward search from the destination, over the
+ *  backward workspace, which is run until the origin is settled and a
+ *  little further. Its distances are a lower bound on the remaining cost
+ *  however edges are removed or penalized, so every later search is an A*
+ *  search guided by them and only explores around the route it finds;
+ *  nodes the backward search did not settle get its final radius as the
+ *  bound, which keeps the heuristic consistent. Those searches all run in
+ *  the forward workspace, reset between them, and the nodes a Yen spur
+ *  search must avoid are simply marked settled before it starts.
+ */
+final class AlternativeRoutes
+{
+    private static final int INF = Integer.MAX_VALUE;
+
+    private final Graph graph;
+    private final QueryWorkspace ws;             //one search at a time
+    private final QueryWorkspace toDestination;  //backward search from the destination
+    private final int destination;
+    private int radius;                          //lower bound on the distance of nodes not settled in toDestination
+
+    AlternativeRoutes(Graph graph, QueryWorkspace forward, QueryWorkspace backward, int destination)
+    {
+        this.graph = graph;
+        this.ws = forward;
+        this.toDestination = backward;
+        this.destination = destination;
+    }
+
+    /** A path, origin first, with the cost from the origin to each of its nodes */
+    private static final class Candidate
+    {
+        final int[] nodes;
+        final int[] costs;
+
+        Candidate(int[] nodes, int[] costs)
+        {
+            this.nodes = nodes;
+            this.costs = costs;
+        }
+
+        int cost() { return costs[costs.length - 1]; }
+
+        Route toRoute()
+        {
+            List<Integer> path = new ArrayList<>(nodes.length);
+            for (int i = nodes.length - 1; i >= 0; i--) path.add(nodes[i]);
+            return new Route(cost(), path);
+        }
+    }
+
+    /**
+     * Yen's algorithm: each next path leaves one of the previous path's
+     * nodes (the spur node) by an edge no earlier path with the same start
+     * took there, and avoids the nodes before the spur node.
+     */
+    List<Route> kShortest(int origin, int k)
+    {
+        List<Route> routes = new ArrayList<>();
+        Candidate first = searchBackward(origin, 1.5);
+        if (first == null || k < 1) return routes;
+
+        List<Candidate> accepted = new ArrayList<>();
+        accepted.add(first);
+        TreeSet<Candidate> candidates = new TreeSet<>(Comparator.comparingInt(Candidate::cost)
+                .thenComparingInt(c -> c.nodes.length).thenComparing(c -> c.nodes, AlternativeRoutes::compare));
+        Set<List<Integer>> seen = new HashSet<>();
+        seen.add(key(first.nodes));
+
+        int[] skip = new int[k];
+        while (accepted.size() < k)
+        {
+            Candidate last = accepted.get(accepted.size() - 1);
+            for (int i = 0; i < last.nodes.length - 1; i++)
+            {
+                int spur = last.nodes[i];
+                int skipCount = 0;
+                for (Candidate c : accepted)
+                {
+                    if (c.nodes.length > i + 1 && samePrefix(c.nodes, last.nodes, i)) skip[skipCount++] = c.nodes[i + 1];
+                }
+
+                ws.reset();
+                for (int j = 0; j < i; j++) ws.settle(last.nodes[j]);
+                if (search(spur, skip, skipCount, null) == INF) continue;
+
+                Candidate c = join(last, i, pathFrom(spur));
+                if (seen.add(key(c.nodes))) candidates.add(c);
+            }
+            if (candidates.isEmpty()) break;
+            accepted.add(candidates.pollFirst());
+        }
+
+        for (Candidate c : accepted) routes.add(c.toRoute());
+        return routes;
+    }
+
+    /**
+     * Penalty method: search again and again with the edges of every route
+     * found so far made more expensive, keeping the routes that are not much
+     * longer than the shortest one and share little with the routes kept.
+     */
+    List<Route> penalized(int origin, int k, double penalty, double maxStretch, double maxShare)
+    {
+        List<Route> routes = new ArrayList<>();
+        Candidate first = searchBackward(origin, 1 + maxStretch);
+        if (first == null || k < 1) return routes;
+
+        long limit = (long) Math.floor(first.cost() * (1 + maxStretch));
+        List<Candidate> accepted = new ArrayList<>();
+        List<Set<Long>> acceptedEdges = new ArrayList<>();
+        Map<Integer, Integer> extra = new HashMap<>();  //edge index -> added cost
+        Set<List<Integer>> seen = new HashSet<>();
+
+        Candidate c = first;
+        for (int round = 0; round < 4 * k && accepted.size() < k; round++)
+        {
+            if (round > 0)
+            {
+                ws.reset();
+                if (search(origin, null, 0, extra) == INF) break;
+                c = pathFrom(origin);
+                if (c.cost() > limit) break;  //penalties only grow, so later routes get longer still
+            }
+            for (int i = 0; i + 1 < c.nodes.length; i++)
+            {
+                int e = cheapestEdge(c.nodes[i], c.nodes[i + 1]);
+                extra.merge(e, Math.max(1, (int) (graph.edgeCost(e) * penalty)), Integer::sum);
+            }
+            if (!seen.add(key(c.nodes))) continue;
+
+            Set<Long> edges = edgeSet(c.nodes);
+            boolean distinct = true;
+            for (int j = 0; j < accepted.size() && distinct; j++)
+            {
+                distinct = sharedCost(c, acceptedEdges.get(j)) <= maxShare * c.cost();
+            }
+            if (!distinct) continue;
+            accepted.add(c);
+            acceptedEdges.add(edges);
+        }
+
+        for (Candidate r : accepted) routes.add(r.toRoute());
+        return routes;
+    }
+
+    /**
+     * Search backwards from the destination until the origin is settled, and
+     * on until a factor of its distance, to bound the remaining cost of the
+     * later searches.
+     * @return the shortest path from the origin, read off the backward search; null if there is none
+     */
+    private Candidate searchBackward(int origin, double slack)
+    {
+        Graph reverse = graph.reverse();
+        IndexedPriorityQueue pq = toDestination.queue();
+        toDestination.reach(destination, 0, -1);
+        pq.insert(destination, 0);
+        long limit = Long.MAX_VALUE;
+        while (!pq.isEmpty() && pq.minKey() <= limit)
+        {
+            int v = pq.removeMin();
+            toDestination.settle(v);
+            if (v == origin) limit = (long) Math.ceil(toDestination.dist(v) * slack);
+
+            int d = toDestination.dist(v);
+            for (int e = reverse.edgeBegin(v), end = reverse.edgeEnd(v); e < end; e++)
+            {
+                int t = reverse.edgeTarget(e);
+                int cost = d + reverse.edgeCost(e);
+                if (toDestination.isSettled(t) || cost >= toDestination.dist(t)) continue;
+                toDestination.reach(t, cost, v);
+                pq.insertOrDecrease(t, cost);
+            }
+        }
+        radius = pq.isEmpty() ? INF : pq.minKey();  //with the queue empty, unsettled nodes can not reach the destination
+        if (!toDestination.isSettled(origin)) return null;
+
+        List<Integer> nodes = new ArrayList<>();
+        for (int v = origin; v >= 0; v = toDestination.parent(v)) nodes.add(v);
+        int[] path = new int[nodes.size()], costs = new int[nodes.size()];
+        int total = toDestination.dist(origin);
+        for (int i = 0; i < path.length; i++)
+        {
+            path[i] = nodes.get(i);
+            costs[i] = total - toDestination.dist(path[i]);
+        }
+        return new Candidate(path, costs);
+    }
+
+    /** Lower bound on the cost from v to the destination */
+    private int remaining(int v) { return toDestination.isSettled(v) ? toDestination.dist(v) : radius; }
+
+    /**
+     * A* search from source to the destination in ws, which the caller has
+     * reset; nodes already settled in it are avoided. Edges from source to
+     * skip[0 .. skipCount) are left out, and extra, if not null, adds to the
+     * cost of the edges it lists.
+     * @return cost of the path found; INF if there is none
+     */
+    private int search(int source, int[] skip, int skipCount, Map<Integer, Integer> extra)
+    {
+        if (ws.isSettled(source)) return INF;
+        IndexedPriorityQueue pq = ws.queue();
+        ws.reach(source, 0, -1);
+        pq.insert(source, remaining(source));
+        while (!pq.isEmpty())
+        {
+            int v = pq.removeMin();
+            ws.settle(v);
+            if (v == destination) return ws.dist(v);
+
+            int d = ws.dist(v);
+            for (int e = graph.edgeBegin(v), end = graph.edgeEnd(v); e < end; e++)
+            {
+                int t = graph.edgeTarget(e);
+                if (ws.isSettled(t) || (v == source && contains(skip, skipCount, t))) continue;
+                int h = remaining(t);
+                if (h == INF) continue;
+                long cost = (long) d + graph.edgeCost(e);
+                if (extra != null && !extra.isEmpty()) cost += extra.getOrDefault(e, 0);
+                if (cost >= ws.dist(t) || cost + h >= INF) continue;
+                ws.reach(t, (int) cost, v);
+                pq.insertOrDecrease(t, (int) cost + h);
+            }
+        }
+        return INF;
+    }
+
+    /** Path from source to the destination found by the last search, with the true edge costs */
+    private Candidate pathFrom(int source)
+    {
+        int length = 0;
+        for (int v = destination; v != source; v = ws.parent(v)) length++;
+        int[] nodes = new int[length + 1], costs = new int[length + 1];
+        int i = length;
+        for (int v = destination; ; v = ws.parent(v))
+        {
+            nodes[i--] = v;
+            if (v == source) break;
+        }
+        for (i = 1; i <= length; i++) costs[i] = costs[i - 1] + graph.edgeCost(cheapestEdge(nodes[i - 1], nodes[i]));
+        return new Candidate(nodes, costs);
+    }
+
+    /** The first i + 1 nodes of root followed by the nodes of spur after its first */
+    private static Candidate join(Candidate root, int i, Candidate spur)
+    {
+        int length = i + spur.nodes.length;
+        int[] nodes = new int[length], costs = new int[length];
+        System.arraycopy(root.nodes, 0, nodes, 0, i + 1);
+        System.arraycopy(root.costs, 0, costs, 0, i + 1);
+        for (int j = 1; j < spur.nodes.length; j++)
+        {
+            nodes[i + j] = spur.nodes[j];
+            costs[i + j] = root.costs[i] + spur.costs[j];
+        }
+        return new Candidate(nodes, costs);
+    }
+
+    private int cheapestEdge(int from, int to)
+    {
+        int best = -1;
+        for (int e = graph.edgeBegin(from), end = graph.edgeEnd(from); e < end; e++)
+        {
+            if (graph.edgeTarget(e) == to && (best < 0 || graph.edgeCost(e) < graph.edgeCost(best))) best = e;
+        }
+        return best;
+    }
+
+    private static Set<Long> edgeSet(int[] nodes)
+    {
+        Set<Long> edges = new HashSet<>();
+        for (int i = 0; i + 1 < nodes.length; i++) edges.add(((long) nodes[i] << 32) | nodes[i + 1]);
+        return edges;
+    }
+
+    private long sharedCost(Candidate c, Set<Long> edges)
+    {
+        long shared = 0;
+        for (int i = 0; i + 1 < c.nodes.length; i++)
+        {
+            if (edges.contains(((long) c.nodes[i] << 32) | c.nodes[i + 1])) shared += c.costs[i + 1] - c.costs[i];
+        }
+        return shared;
+    }
+
+    private static boolean samePrefix(int[] a, int[] b, int last)
+    {
+        for (int j = 0; j <= last; j++) if (a[j] != b[j]) return false;
+        return true;
+    }
+
+    private static boolean contains(int[] values, int count, int v)
+    {
+        for (int i = 0; i < count; i++) if (values[i] == v) return true;
+        return false;
+    }
+
+    private static int compare(int[] a, int[] b)
+    {
+        for (int i = 0; i < Math.min(a.length, b.length); i++) if (a[i] != b[i]) return Integer.compare(a[i], b[i]);
+        return Integer.compare(a.length, b.length);
+    }
+
+    private static List<Integer> key(int[] nodes)
+    {
+        List<Integer> key = new ArrayList<>(nodes.length);
+        for (int v : nodes) key.add(v);
+        return key;
+    }
+}
@@ -0,0 +1,862 @@
+package graph;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/** Contraction Hierarchies over a Graph.
+ *  Preprocessing contracts the nodes in rounds, cheapest first, where the
+ *  cost of a node is its edge difference (shortcuts it would add minus edges
+ *  it removes) plus the number of its neighbors already contracted plus its
+ *  level, one more than the highest level of a contracted neighbor. Each
+ *  round contracts every node cheaper than all its neighbors; these are
+ *  never adjacent. A shortcut u-w through v is added only if a local witness
+ *  search finds a path from u to w that is as short and avoids v and the
+ *  other nodes of the round.
+ *  Every edge ends up stored at its lower ranked endpoint: "up" holds edges
+ *  leading to higher ranked nodes and "down" holds edges coming from higher
+ *  ranked nodes. A query runs a forward search over up from the origin and
+ *  a backward search over down from the destination; shortcuts on the best
+ *  meeting path are unpacked back into the original nodes.
+ */
+public class ContractionHierarchy
+{
+    private static final int MAGIC = 0x43483031;  // "CH01"
+    private static final int INF = Integer.MAX_VALUE;
+    // witness searches give up after settling this many nodes; a cheaper limit is used to estimate priorities
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+    private static final int PRIORITY_SETTLE_LIMIT = 50;
+
+    private final int numNodes;
+    private final int[] rank;
+    // upward edges of node x: upBegin[x] .. upBegin[x+1]-1, x -> upTarget with rank[upTarget] > rank[x]
+    private final int[] upBegin, upTarget, upCost, upMid;
+    // downward edges of node x: downBegin[x] .. downBegin[x+1]-1, downSource -> x with rank[downSource] > rank[x]
+    private final int[] downBegin, downSource, downCost, downMid;
+
+    private final ThreadLocal<Query> queries;
+
+    private ContractionHierarchy(int[] rank, int[] upBegin, int[] upTarget, int[] upCost, int[] upMid,
+                                 int[] downBegin, int[] downSource, int[] downCost, int[] downMid)
+    {
+        this.numNodes = rank.length;
+        this.rank = rank;
+        this.upBegin = upBegin;
+        this.upTarget = upTarget;
+        this.upCost = upCost;
+        this.upMid = upMid;
+        this.downBegin = downBegin;
+        this.downSource = downSource;
+        this.downCost = downCost;
+        this.downMid = downMid;
+        this.queries = ThreadLocal.withInitial(() -> new Query(numNodes));
+    }
+
+    /**
+     * Build the hierarchy using the common fork-join pool.
+     *
+     * @param graph graph to preprocess
+     * @return the hierarchy
+     */
+    public static ContractionHierarchy build(Graph graph) { return build(graph, ForkJoinPool.commonPool()); }
+
+    /**
+     * Build the hierarchy. The witness searches, which are nearly all of the
+     * work, run in parallel on the given pool: the shortcuts of the nodes of
+     * a round, then the new priorities of their neighbors. Because witness
+     * paths avoid the whole round, nodes contracted together can not remove
+     * each other's witnesses. The shortcuts are added to the remaining graph
+     * between these two steps, on the calling thread.
+     *
+     * @param graph graph to preprocess
+     * @param pool pool for the parallel part of the preprocessing
+     * @return the hierarchy
+     */
+    public static ContractionHierarchy build(Graph graph, ForkJoinPool pool)
+    {
+        return new Builder(graph).run(pool);
+    }
+
+    /**
+     * Position of a node in the contraction order; the least important node has rank 0.
+     * @param nodeId id of the node
+     * @return rank of the node
+     */
+    public int rank(int nodeId) { return rank[nodeId]; }
+
+    /**
+     * Number of edges of the hierarchy, shortcuts included.
+     * @return edge count
+     */
+    public int numEdges() { return upTarget.length + downSource.length; }
+
+    /**
+     * Point-to-point query. Uses a workspace kept per thread, so concurrent
+     * queries from different threads are safe.
+     *
+     * @param origin id of the source node
+     * @param destination id of the destination node
+     * @param stats if not null, filled with the counters of this query
+     * @return node ids on the shortest path, from destination back to origin;
+     * empty if the destination can not be reached
+     */
+    public List<Integer> computeShortestPath(int origin, int destination, SearchStats stats)
+    {
+        long start = stats != null ? System.nanoTime() : 0;
+        Query q = queries.get();
+        q.next();
+        q.relaxF(origin, 0, -1, -1);
+        q.relaxB(destination, 0, -1, -1);
+
+        long mu = INF;
+        int meet = -1;
+        int settled = 0, relaxed = 0;
+        while (!q.heapF.isEmpty() || !q.heapB.isEmpty())
+        {
+            long minF = q.heapF.isEmpty() ? INF : q.heapF.minKey();
+            long minB = q.heapB.isEmpty() ? INF : q.heapB.minKey();
+            if (Math.min(minF, minB) >= mu) break;
+
+            boolean forward = minF <= minB;
+            LongHeap heap = forward ? q.heapF : q.heapB;
+            long top = heap.poll();
+            int v = (int) top;
+            int d = (int) (top >>> 32);
+            if (d > (forward ? q.distF(v) : q.distB(v))) continue;  //stale entry
+            settled++;
+
+            int other = forward ? q.distB(v) : q.distF(v);
+            if (other != INF && (long) d + other < mu)
+            {
+                mu = (long) d + other;
+                meet = v;
+            }
+
+            relaxed += forward ? upBegin[v + 1] - upBegin[v] : downBegin[v + 1] - downBegin[v];
+            if (forward)
+                for (int e = upBegin[v]; e < upBegin[v + 1]; e++) q.relaxF(upTarget[e], d + upCost[e], v, e);
+            else
+                for (int e = downBegin[v]; e < downBegin[v + 1]; e++) q.relaxB(downSource[e], d + downCost[e], v, e);
+        }
+        if (stats != null)
+        {
+            stats.settled = settled;
+            stats.relaxed = relaxed;
+            stats.nanos = System.nanoTime() - start;
+        }
+
+        List<Integer> path = new ArrayList<>();
+        if (meet < 0) return path;
+
+        // origin .. meet over up edges, collected backwards then reversed
+        IntStack stack = q.stack;
+        List<Integer> forwardPart = new ArrayList<>();
+        for (int v = meet; q.parentF(v) >= 0; v = q.parentF(v))
+        {
+            int e = q.edgeF(v);
+            List<Integer> segment = new ArrayList<>();
+            unpack(q.parentF(v), v, upMid[e], segment, stack);
+            Collections.reverse(segment);
+            forwardPart.addAll(segment);
+        }
+        forwardPart.add(origin);
+        Collections.reverse(forwardPart);
+
+        // meet .. destination over down edges
+        for (int v = meet; q.parentB(v) >= 0; v = q.parentB(v))
+            unpack(v, q.parentB(v), downMid[q.edgeB(v)], forwardPart, stack);
+
+        for (int i = forwardPart.size() - 1; i >= 0; i--) path.add(forwardPart.get(i));
+        return path;
+    }
+
+    /**
+     * Many-to-many query using the common fork-join pool.
+     *
+     * @param sources ids of the source nodes
+     * @param targets ids of the target nodes
+     * @return costs from every source to every target
+     */
+    public DistanceMatrix distanceMatrix(int[] sources, int[] targets)
+    {
+        return distanceMatrix(sources, targets, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Many-to-many query with buckets (Knopp et al.). A backward search over
+     * down from every target leaves a (target, distance) entry in the bucket
+     * of each node it settles. A forward search over up from every source
+     * then scans the buckets of the nodes it settles: each entry is a
+     * meeting point, and the best one over all of them is the distance.
+     * The searches of each phase run in parallel on the given pool.
+     *
+     * @param sources ids of the source nodes
+     * @param targets ids of the target nodes
+     * @param pool pool the searches run on
+     * @return costs from every source to every target
+     */
+    public DistanceMatrix distanceMatrix(int[] sources, int[] targets, ForkJoinPool pool)
+    {
+        int[] from = sources.clone(), to = targets.clone();
+        int m = to.length;
+
+        // backward searches; settled[j] holds (node, distance) pairs of target j
+        int[][] settled = new int[m][];
+        run(pool, m, j -> settled[j] = upwardSearch(to[j], false));
+
+        // buckets in CSR form: entries of node v are bucketBegin[v] .. bucketBegin[v+1]-1
+        int[] bucketBegin = new int[numNodes + 1];
+        for (int[] s : settled) for (int i = 0; i < s.length; i += 2) bucketBegin[s[i] + 1]++;
+        for (int v = 0; v < numNodes; v++) bucketBegin[v + 1] += bucketBegin[v];
+        int[] bucketColumn = new int[bucketBegin[numNodes]];
+        int[] bucketDist = new int[bucketColumn.length];
+        int[] fill = Arrays.copyOf(bucketBegin, numNodes);
+        for (int j = 0; j < m; j++)
+        {
+            for (int i = 0; i < settled[j].length; i += 2)
+            {
+                int b = fill[settled[j][i]]++;
+                bucketColumn[b] = j;
+                bucketDist[b] = settled[j][i + 1];
+            }
+        }
+
+        int[] values = new int[from.length * m];
+        Arrays.fill(values, INF);
+        run(pool, from.length, i ->
+        {
+            int[] up = upwardSearch(from[i], true);
+            int row = i * m;
+            for (int k = 0; k < up.length; k += 2)
+            {
+                int v = up[k], d = up[k + 1];
+                for (int b = bucketBegin[v]; b < bucketBegin[v + 1]; b++)
+                {
+                    long total = (long) d + bucketDist[b];
+                    if (total < values[row + bucketColumn[b]]) values[row + bucketColumn[b]] = (int) total;
+                }
+            }
+        });
+        return new DistanceMatrix(from, to, values);
+    }
+
+    private static void run(ForkJoinPool pool, int count, IntConsumer task)
+    {
+        try
+        {
+            pool.submit(() -> IntStream.range(0, count).parallel().forEach(task)).get();
+        }
+        catch (InterruptedException | ExecutionException e) { throw new IllegalStateException(e); }
+    }
+
+    /**
+     * Complete search from a node over up (forward) or down (backward) edges.
+     * @return the settled nodes and their distances, as (node, distance) pairs
+     */
+    private int[] upwardSearch(int start, boolean forward)
+    {
+        Query q = queries.get();
+        q.next();
+        if (forward) q.relaxF(start, 0, -1, -1);
+        else q.relaxB(start, 0, -1, -1);
+        LongHeap heap = forward ? q.heapF : q.heapB;
+
+        int[] out = new int[32];
+        int size = 0;
+        while (!heap.isEmpty())
+        {
+            long top = heap.poll();
+            int v = (int) top;
+            int d = (int) (top >>> 32);
+            if (d > (forward ? q.distF(v) : q.distB(v))) continue;  //stale entry
+
+            if (size + 2 > out.length) out = Arrays.copyOf(out, out.length * 2);
+            out[size++] = v;
+            out[size++] = d;
+            if (forward)
+                for (int e = upBegin[v]; e < upBegin[v + 1]; e++) q.relaxF(upTarget[e], d + upCost[e], v, e);
+            else
+                for (int e = downBegin[v]; e < downBegin[v + 1]; e++) q.relaxB(downSource[e], d + downCost[e], v, e);
+        }
+        return Arrays.copyOf(out, size);
+    }
+
+    /**
+     * Append the original nodes of the edge from -> to, after from and up to
+     * and including to, replacing shortcuts by the two edges they bridge.
+     */
+    private void unpack(int from, int to, int mid, List<Integer> out, IntStack stack)
+    {
+        stack.clear();
+        stack.push(from, to, mid);
+        while (!stack.isEmpty())
+        {
+            int m = stack.pop(), b = stack.pop(), a = stack.pop();
+            if (m < 0)
+            {
+                out.add(b);
+                continue;
+            }
+            // a -> m is a down edge of m, m -> b is an up edge of m
+            stack.push(m, b, upMid[findUp(m, b)]);
+            stack.push(a, m, downMid[findDown(m, a)]);
+        }
+    }
+
+    private int findUp(int v, int target)
+    {
+        for (int e = upBegin[v]; e < upBegin[v + 1]; e++) if (upTarget[e] == target) return e;
+        throw new IllegalStateException("missing edge " + v + " -> " + target);
+    }
+
+    private int findDown(int v, int source)
+    {
+        for (int e = downBegin[v]; e < downBegin[v + 1]; e++) if (downSource[e] == source) return e;
+        throw new IllegalStateException("missing edge " + source + " -> " + v);
+    }
+
+    /**
+     * Write the hierarchy to a file.
+     *
+     * @param filename name of the file
+     * @throws IOException if the file can not be written
+     */
+    public void save(String filename) throws IOException
+    {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename))))
+        {
+            out.writeInt(MAGIC);
+            out.writeInt(numNodes);
+            out.writeInt(upTarget.length);
+            out.writeInt(downSource.length);
+            for (int[] a : new int[][] { rank, upBegin, upTarget, upCost, upMid, downBegin, downSource, downCost, downMid })
+                for (int x : a) out.writeInt(x);
+        }
+    }
+
+    /**
+     * Read a hierarchy written by save. The file must have been created for a
+     * graph with the same nodes.
+     *
+     * @param filename name of the file
+     * @param graph graph the hierarchy belongs to
+     * @return the hierarchy
+     * @throws IOException if the file can not be read or was made for another graph
+     */
+    public static ContractionHierarchy load(String filename, Graph graph) throws IOException
+    {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(filename))))
+        {
+            if (in.readInt() != MAGIC) throw new IOException(filename + " is not a contraction hierarchy file");
+            int n = in.readInt();
+            if (n != graph.numNodes()) throw new IOException(filename + " was made for a graph with " + n + " nodes");
+            int up = in.readInt();
+            int down = in.readInt();
+
+            int[][] a = { new int[n], new int[n + 1], new int[up], new int[up], new int[up],
+                          new int[n + 1], new int[down], new int[down], new int[down] };
+            for (int[] x : a) for (int i = 0; i < x.length; i++) x[i] = in.readInt();
+            return new ContractionHierarchy(a[0], a[1], a[2], a[3], a[4], a[5], a[6], a[7], a[8]);
+        }
+    }
+
+    /** Contracts the nodes of a graph and assembles the hierarchy */
+    private static class Builder
+    {
+        private final int n;
+        // remaining graph; each edge is a (node, cost, mid) triple
+        private final int[][] out, in;
+        private final int[] outCount, inCount;
+        private final boolean[] inRound;  //contracted in the current round
+        private final int[] contractedNeighbors;
+        private final int[] level;
+        private final int[] updated;
+        private final int[] rank;
+        // edges of the hierarchy, as (from, to, cost, mid) quadruples
+        private int[] upEdges = new int[64], downEdges = new int[64];
+        private int numUp, numDown;
+
+        Builder(Graph graph)
+        {
+            n = graph.numNodes();
+            out = new int[n][];
+            in = new int[n][];
+            outCount = new int[n];
+            inCount = new int[n];
+            inRound = new boolean[n];
+            contractedNeighbors = new int[n];
+            level = new int[n];
+            updated = new int[n];
+            Arrays.fill(updated, -1);
+            rank = new int[n];
+
+            for (int v = 0; v < n; v++)
+            {
+                out[v] = new int[3 * Math.max(graph.edgeEnd(v) - graph.edgeBegin(v), 1)];
+                in[v] = new int[3];
+            }
+            for (int v = 0; v < n; v++)
+            {
+                for (int e = graph.edgeBegin(v); e < graph.edgeEnd(v); e++)
+                {
+                    int w = graph.edgeTarget(e);
+                    if (w != v) addEdge(v, w, graph.edgeCost(e), -1);
+                }
+            }
+        }
+
+        ContractionHierarchy run(ForkJoinPool pool)
+        {
+            ThreadLocal<Witness> witnesses = ThreadLocal.withInitial(() -> new Witness(n));
+            long[] key = new long[n];
+            parallel(pool, n, v -> key[v] = key(v, witnesses.get()));
+
+            int[] remaining = new int[n];
+            for (int v = 0; v < n; v++) remaining[v] = v;
+            int left = n, next = 0;
+            int[] round = new int[n], touched = new int[n], touchedStamp = new int[n];
+            for (int r = 1; left > 0; r++)
+            {
+                // the nodes cheaper than all others within two hops: no two are adjacent
+                int[] candidates = remaining;
+                parallel(pool, left, i -> inRound[candidates[i]] = isLocalMinimum(candidates[i], key));
+                int size = 0, kept = 0;
+                for (int i = 0; i < left; i++)
+                {
+                    int v = remaining[i];
+                    if (inRound[v]) round[size++] = v;
+                    else remaining[kept++] = v;
+                }
+                left = kept;
+
+                int[][] added = new int[size][];
+                parallel(pool, size, i -> added[i] = shortcuts(round[i], witnesses.get()));
+                for (int i = 0; i < size; i++)
+                    for (int k = 0; k < added[i].length; k += 3) addEdge(added[i][k], added[i][k + 1], added[i][k + 2], round[i]);
+
+                int numTouched = 0;
+                for (int i = 0; i < size; i++)
+                {
+                    int v = round[i];
+                    contract(v);
+                    rank[v] = next++;
+                    for (int side = 0; side < 2; side++)
+                    {
+                        int[] list = side == 0 ? out[v] : in[v];
+                        for (int j = 0, count = side == 0 ? outCount[v] : inCount[v]; j < count; j++)
+                        {
+                            int w = list[3 * j];
+                            if (updated[w] == v) continue;  //in- and out-neighbor at once
+                            updated[w] = v;
+                            contractedNeighbors[w]++;
+                            level[w] = Math.max(level[w], level[v] + 1);
+                            if (touchedStamp[w] != r)
+                            {
+                                touchedStamp[w] = r;
+                                touched[numTouched++] = w;
+                            }
+                        }
+                    }
+                }
+                for (int i = 0; i < size; i++) inRound[round[i]] = false;
+
+                // neighbors lost an edge, may have gained shortcuts and moved up a level: their priority may go either way
+                parallel(pool, numTouched, i -> key[touched[i]] = key(touched[i], witnesses.get()));
+            }
+
+            return assemble();
+        }
+
+        private static void parallel(ForkJoinPool pool, int count, IntConsumer task)
+        {
+            if (count > 0) ContractionHierarchy.run(pool, count, task);
+        }
+
+        /** Whether v is cheaper than every node within two hops */
+        private boolean isLocalMinimum(int v, long[] key)
+        {
+            for (int side = 0; side < 2; side++)
+            {
+                int[] list = side == 0 ? out[v] : in[v];
+                for (int i = 0, count = side == 0 ? outCount[v] : inCount[v]; i < count; i++)
+                {
+                    int w = list[3 * i];
+                    if (key[w] < key[v]) return false;
+                    for (int j = 0; j < outCount[w]; j++) if (key[out[w][3 * j]] < key[v]) return false;
+                    for (int j = 0; j < inCount[w]; j++) if (key[in[w][3 * j]] < key[v]) return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Priority in the high half, a scramble of the id in the low half so
+         * that ties are broken all over the graph rather than in sweeps.
+         */
+        private long key(int v, Witness ws)
+        {
+            return (long) priority(v, ws) << 32 | (v * 0x9E3779B9L & 0xFFFFFFFFL);
+        }
+
+        /** Edge difference plus contracted neighbors plus level (depth in the hierarchy) */
+        private int priority(int v, Witness ws)
+        {
+            return count(v, ws, PRIORITY_SETTLE_LIMIT, null) - outCount[v] - inCount[v] + contractedNeighbors[v] + level[v];
+        }
+
+        /** The shortcuts needed to contract v, as (from, to, cost) triples */
+        private int[] shortcuts(int v, Witness ws)
+        {
+            int[] found = new int[3 * count(v, ws, WITNESS_SETTLE_LIMIT, ws.found)];
+            System.arraycopy(ws.found, 0, found, 0, found.length);
+            return found;
+        }
+
+        /**
+         * Count the shortcuts needed to contract v, storing them in found as
+         * (from, to, cost) triples if it is not null. Witness paths avoid the
+         * nodes of the current round as well, since they are contracted at the
+         * same time.
+         */
+        private int count(int v, Witness ws, int settleLimit, int[] found)
+        {
+            int count = 0;
+            for (int i = 0; i < inCount[v]; i++)
+            {
+                int u = in[v][3 * i];
+                int cu = in[v][3 * i + 1];
+                ws.search(this, u, v, cu, settleLimit);
+
+                for (int j = 0; j < outCount[v]; j++)
+                {
+                    int w = out[v][3 * j];
+                    if (w == u) continue;
+                    int cost = cu + out[v][3 * j + 1];
+                    if (ws.dist(w) <= cost) continue;
+
+                    if (found != null)
+                    {
+                        if (3 * count + 3 > found.length) found = ws.found = Arrays.copyOf(found, 2 * found.length);
+                        found[3 * count] = u;
+                        found[3 * count + 1] = w;
+                        found[3 * count + 2] = cost;
+                    }
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /** Move the edges of v into the hierarchy; its shortcuts must have been added */
+        private void contract(int v)
+        {
+
+            // every neighbor left in the graph ranks higher than v
+            for (int j = 0; j < outCount[v]; j++)
+            {
+                int w = out[v][3 * j];
+                upEdges = push(upEdges, numUp++, v, w, out[v][3 * j + 1], out[v][3 * j + 2]);
+                removeEdge(in, inCount, w, v);
+            }
+            for (int i = 0; i < inCount[v]; i++)
+            {
+                int u = in[v][3 * i];
+                downEdges = push(downEdges, numDown++, u, v, in[v][3 * i + 1], in[v][3 * i + 2]);
+                removeEdge(out, outCount, u, v);
+            }
+        }
+
+        /** Add the edge v -> w, or lower the cost of the existing one */
+        private void addEdge(int v, int w, int cost, int mid)
+        {
+            if (!improveEdge(out, outCount, v, w, cost, mid))
+            {
+                out[v] = append(out[v], outCount[v]++, w, cost, mid);
+                in[w] = append(in[w], inCount[w]++, v, cost, mid);
+            }
+            else improveEdge(in, inCount, w, v, cost, mid);
+        }
+
+        private static boolean improveEdge(int[][] lists, int[] counts, int v, int w, int cost, int mid)
+        {
+            int[] list = lists[v];
+            for (int i = 0; i < counts[v]; i++)
+            {
+                if (list[3 * i] != w) continue;
+                if (cost < list[3 * i + 1])
+                {
+                    list[3 * i + 1] = cost;
+                    list[3 * i + 2] = mid;
+                }
+                return true;
+            }
+            return false;
+        }
+
+        private static void removeEdge(int[][] lists, int[] counts, int v, int w)
+        {
+            int[] list = lists[v];
+            for (int i = 0; i < counts[v]; i++)
+            {
+                if (list[3 * i] != w) continue;
+                int last = --counts[v];
+                System.arraycopy(list, 3 * last, list, 3 * i, 3);
+                return;
+            }
+        }
+
+        private static int[] append(int[] list, int i, int w, int cost, int mid)
+        {
+            if (3 * i + 3 > list.length) list = Arrays.copyOf(list, list.length * 2 + 3);
+            list[3 * i] = w;
+            list[3 * i + 1] = cost;
+            list[3 * i + 2] = mid;
+            return list;
+        }
+
+        private static int[] push(int[] edges, int i, int from, int to, int cost, int mid)
+        {
+            if (4 * i + 4 > edges.length) edges = Arrays.copyOf(edges, edges.length * 2);
+            edges[4 * i] = from;
+            edges[4 * i + 1] = to;
+            edges[4 * i + 2] = cost;
+            edges[4 * i + 3] = mid;
+            return edges;
+        }
+
+        /** Counting sort of the collected edges into the CSR arrays of the hierarchy */
+        private ContractionHierarchy assemble()
+        {
+            int[] upBegin = new int[n + 1], upTarget = new int[numUp], upCost = new int[numUp], upMid = new int[numUp];
+            for (int i = 0; i < numUp; i++) upBegin[upEdges[4 * i] + 1]++;
+            for (int v = 0; v < n; v++) upBegin[v + 1] += upBegin[v];
+            int[] fill = Arrays.copyOf(upBegin, n);
+            for (int i = 0; i < numUp; i++)
+            {
+                int e = fill[upEdges[4 * i]]++;
+                upTarget[e] = upEdges[4 * i + 1];
+                upCost[e] = upEdges[4 * i + 2];
+                upMid[e] = upEdges[4 * i + 3];
+            }
+
+            int[] downBegin = new int[n + 1], downSource = new int[numDown], downCost = new int[numDown], downMid = new int[numDown];
+            for (int i = 0; i < numDown; i++) downBegin[downEdges[4 * i + 1] + 1]++;
+            for (int v = 0; v < n; v++) downBegin[v + 1] += downBegin[v];
+            fill = Arrays.copyOf(downBegin, n);
+            for (int i = 0; i < numDown; i++)
+            {
+                int e = fill[downEdges[4 * i + 1]]++;
+                downSource[e] = downEdges[4 * i];
+                downCost[e] = downEdges[4 * i + 2];
+                downMid[e] = downEdges[4 * i + 3];
+            }
+
+            return new ContractionHierarchy(rank, upBegin, upTarget, upCost, upMid, downBegin, downSource, downCost, downMid);
+        }
+    }
+
+    /** Bounded Dijkstra over the remaining graph that skips the nodes being contracted */
+    private static class Witness
+    {
+        int[] found = new int[48];  //shortcuts of the node being contracted
+        private final int[] dist;
+        private final int[] stamp;
+        private final int[] targetStamp;  //current while the target has no witness and is not settled
+        private final int[] targetCost;
+        private int current;
+        private final LongHeap heap = new LongHeap();
+
+        Witness(int n)
+        {
+            dist = new int[n];
+            stamp = new int[n];
+            targetStamp = new int[n];
+            targetCost = new int[n];
+        }
+
+        int dist(int v) { return stamp[v] == current ? dist[v] : INF; }
+
+        /**
+         * Search from source, reached from skip at sourceCost, without passing
+         * through skip or a node of the current round, until every out-neighbor
+         * w of skip is settled or reached at no more than the path source, skip,
+         * w costs, or settleLimit nodes are settled.
+         */
+        void search(Builder b, int source, int skip, int sourceCost, int settleLimit)
+        {
+            if (++current == INF)
+            {
+                // once in 2^31 searches the stamps wrap around
+                Arrays.fill(stamp, 0);
+                Arrays.fill(targetStamp, 0);
+                current = 1;
+            }
+            heap.clear();
+            dist[source] = 0;
+            stamp[source] = current;
+            heap.add(0, source);
+
+            int targets = 0, limit = 0;
+            for (int j = 0; j < b.outCount[skip]; j++)
+            {
+                int w = b.out[skip][3 * j];
+                if (w == source) continue;
+                targetStamp[w] = current;
+                targetCost[w] = sourceCost + b.out[skip][3 * j + 1];
+                limit = Math.max(limit, targetCost[w]);
+                targets++;
+            }
+
+            int settled = 0;
+            while (!heap.isEmpty() && settled < settleLimit && targets > 0)
+            {
+                long top = heap.poll();
+                int v = (int) top;
+                int d = (int) (top >>> 32);
+                if (d > dist(v)) continue;
+                if (d > limit) break;
+                settled++;
+                if (targetStamp[v] == current)  //settled above its cost: no witness
+                {
+                    targetStamp[v] = 0;
+                    targets--;
+                }
+
+                int[] list = b.out[v];
+                for (int i = 0; i < b.outCount[v]; i++)
+                {
+                    int w = list[3 * i];
+                    if (w == skip || b.inRound[w]) continue;
+                    int nd = d + list[3 * i + 1];
+                    if (nd >= dist(w)) continue;
+                    dist[w] = nd;
+                    stamp[w] = current;
+                    heap.add(nd, w);
+                    if (targetStamp[w] == current && nd <= targetCost[w])  //witness found
+                    {
+                        targetStamp[w] = 0;
+                        targets--;
+                    }
+                }
+            }
+        }
+    }
+
+    /** Per thread query state; distances are valid only if stamped with the current query */
+    private static class Query
+    {
+        private final int[] distF, distB, parF, parB, edgeF, edgeB, stampF, stampB;
+        private int current;
+        final LongHeap heapF = new LongHeap(), heapB = new LongHeap();
+        final IntStack stack = new IntStack();
+
+        Query(int n)
+        {
+            distF = new int[n]; distB = new int[n];
+            parF = new int[n]; parB = new int[n];
+            edgeF = new int[n]; edgeB = new int[n];
+            stampF = new int[n]; stampB = new int[n];
+        }
+
+        void next()
+        {
+            if (++current == INF)
+            {
+                // once in 2^31 queries the stamps wrap around
+                Arrays.fill(stampF, 0);
+                Arrays.fill(stampB, 0);
+                current = 1;
+            }
+            heapF.clear();
+            heapB.clear();
+        }
+
+        int distF(int v) { return stampF[v] == current ? distF[v] : INF; }
+        int distB(int v) { return stampB[v] == current ? distB[v] : INF; }
+        int parentF(int v) { return parF[v]; }
+        int parentB(int v) { return parB[v]; }
+        int edgeF(int v) { return edgeF[v]; }
+        int edgeB(int v) { return edgeB[v]; }
+
+        void relaxF(int v, int d, int parent, int edge)
+        {
+            if (d >= distF(v)) return;
+            distF[v] = d; parF[v] = parent; edgeF[v] = edge; stampF[v] = current;
+            heapF.add(d, v);
+        }
+
+        void relaxB(int v, int d, int parent, int edge)
+        {
+            if (d >= distB(v)) return;
+            distB[v] = d; parB[v] = parent; edgeB[v] = edge; stampB[v] = current;
+            heapB.add(d, v);
+        }
+    }
+
+    /** Binary min-heap of (key, node) pairs packed into longs; stale entries are skipped by the caller */
+    private static class LongHeap
+    {
+        private long[] heap = new long[64];
+        private int size;
+
+        boolean isEmpty() { return size == 0; }
+        void clear() { size = 0; }
+        long minKey() { return heap[0] >>> 32; }
+
+        void add(int key, int node)
+        {
+            if (size == heap.length) heap = Arrays.copyOf(heap, size * 2);
+            long x = ((long) key << 32) | node;
+            int i = size++;
+            while (i > 0 && heap[(i - 1) / 2] > x)
+            {
+                heap[i] = heap[(i - 1) / 2];
+                i = (i - 1) / 2;
+            }
+            heap[i] = x;
+        }
+
+        long poll()
+        {
+            long top = heap[0];
+            long x = heap[--size];
+            int i = 0;
+            while (true)
+            {
+                int c = 2 * i + 1;
+                if (c >= size) break;
+                if (c + 1 < size && heap[c + 1] < heap[c]) c++;
+                if (heap[c] >= x) break;
+                heap[i] = heap[c];
+                i = c;
+            }
+            heap[i] = x;
+            return top;
+        }
+    }
+
+    /** Growable stack of ints, used to unpack shortcuts without recursion */
+    private static class IntStack
+    {
+        private int[] items = new int[48];
+        private int size;
+
+        boolean isEmpty() { return size == 0; }
+        void clear() { size = 0; }
+        int pop() { return items[--size]; }
+
+        void push(int a, int b, int c)
+        {
+            if (size + 3 > items.length) items = Arrays.copyOf(items, items.length * 2);
+            items[size++] = a;
+            items[size++] = b;
+            items[size++] = c;
+        }
+    }
+}
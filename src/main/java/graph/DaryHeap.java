@@ -0,0 +1,124 @@
+package graph;
+
+import java.util.Arrays;
+
+/** Indexed min-heap in which every entry has d children instead of two.
+ *  The tree is shallower, so decreaseKey (the common operation in Dijkstra)
+ *  moves entries up fewer levels, and the children of an entry share cache
+ *  lines, at the price of more comparisons per level in removeMin.
+ */
+public class DaryHeap implements IndexedPriorityQueue
+{
+    private final int d;
+    private int size;
+    private final int[] keys;       //keys[i] = key of the entry at heap position i
+    private final int[] ids;        //ids[i] = node id of the entry at heap position i
+    private final int[] positions;  //positions[nodeId] = heap position, -1 if not in the heap
+
+    /** A 4-ary heap */
+    public DaryHeap(int capacity) { this(capacity, 4); }
+
+    public DaryHeap(int capacity, int d)
+    {
+        if (d < 2) throw new IllegalArgumentException("arity must be at least 2");
+        this.d = d;
+        keys = new int[capacity];
+        ids = new int[capacity];
+        positions = new int[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    @Override public int size() { return size; }
+    @Override public boolean contains(int nodeId) { return positions[nodeId] >= 0; }
+    @Override public int minId() { return ids[0]; }
+    @Override public int minKey() { return keys[0]; }
+
+    @Override
+    public void insert(int nodeId, int key)
+    {
+        if (size == keys.length) return;
+
+        keys[size] = key;
+        ids[size] = nodeId;
+        positions[nodeId] = size;
+        siftUp(size++);
+    }
+
+    @Override
+    public int removeMin()
+    {
+        if (size < 1) return -1;
+
+        int g = ids[0];
+        positions[g] = -1;
+
+        size--;
+        if (size > 0)
+        {
+            keys[0] = keys[size];
+            ids[0] = ids[size];
+            positions[ids[0]] = 0;
+            siftDown(0);
+        }
+        return g;
+    }
+
+    @Override
+    public void decreaseKey(int nodeId, int newKey)
+    {
+        int i = positions[nodeId];
+        if (i < 0 || keys[i] <= newKey) return;
+
+        keys[i] = newKey;
+        siftUp(i);
+    }
+
+    @Override
+    public void clear()
+    {
+        for (int i = 0; i < size; i++) positions[ids[i]] = -1;
+        size = 0;
+    }
+
+    private void siftUp(int i)
+    {
+        int key = keys[i];
+        int id = ids[i];
+        while (i > 0)
+        {
+            int t = (i - 1) / d;
+            if (keys[t] <= key) break;
+            keys[i] = keys[t];
+            ids[i] = ids[t];
+            positions[ids[i]] = i;
+            i = t;
+        }
+        keys[i] = key;
+        ids[i] = id;
+        positions[id] = i;
+    }
+
+    private void siftDown(int i)
+    {
+        int key = keys[i];
+        int id = ids[i];
+        while (true)
+        {
+            int first = i * d + 1;
+            if (first >= size) break;
+
+            int min = first;
+            int last = Math.min(first + d, size);
+            for (int c = first + 1; c < last; c++) if (keys[c] < keys[min]) min = c;
+            if (keys[min] >= key) break;
+
+            keys[i] = keys[min];
+            ids[i] = ids[min];
+            positions[ids[i]] = i;
+            i = min;
+        }
+        keys[i] = key;
+        ids[i] = id;
+        positions[id] = i;
+    }
+}
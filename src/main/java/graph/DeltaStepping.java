@@ -0,0 +1,209 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/** Parallel one-to-all search by delta-stepping (Meyer and Sanders).
+ *  Nodes are kept in buckets of width delta by tentative distance, and the
+ *  lowest nonempty bucket is emptied in phases: its nodes relax their light
+ *  edges (cost at most delta) in parallel, which may refill the bucket,
+ *  and once it stays empty the nodes it held relax their heavy edges.
+ *  Tentative distances and parents are packed into one long per node and
+ *  lowered by compare-and-set, so parallel relaxations need no locks.
+ *  Tentative distances never run more than the largest edge cost past the
+ *  current bucket, so the buckets are a cyclic array of maxCost / delta + 2
+ *  lists. Where that would be more than MAX_BUCKETS lists, delta is widened
+ *  until it is not; a bit per list marks the nonempty ones, so the search
+ *  skips straight to the next nonempty bucket.
+ */
+final class DeltaStepping
+{
+    private static final long UNREACHED = pack(Integer.MAX_VALUE, -1);
+    private static final int CHUNK = 256;  //nodes relaxed per task
+    static final int MAX_BUCKETS = 1 << 16;
+
+    private final Graph graph;
+    private final int delta;
+    private final ForkJoinPool pool;
+    private final AtomicLongArray best;  //distance in the high half, parent in the low half
+    private final IntList[] buckets;
+    private final BitSet nonempty;       //slots of buckets holding nodes
+    private final int[] seen;            //seen[v] == stamp once v is in the current frontier or settled list
+    private int stamp;
+
+    private DeltaStepping(Graph graph, int delta, ForkJoinPool pool)
+    {
+        this.graph = graph;
+        this.pool = pool;
+        int n = graph.numNodes();
+        best = new AtomicLongArray(n);
+        for (int v = 0; v < n; v++) best.set(v, UNREACHED);
+        int maxCost = 0;
+        for (int e = 0; e < graph.numEdges(); e++) maxCost = Math.max(maxCost, graph.edgeCost(e));
+        this.delta = Math.max(delta, maxCost / (MAX_BUCKETS - 2) + 1);
+        buckets = new IntList[maxCost / this.delta + 2];
+        nonempty = new BitSet(buckets.length);
+        seen = new int[n];
+    }
+
+    private static long pack(int dist, int parent) { return ((long) dist << 32) | (parent & 0xffffffffL); }
+    private int dist(int v) { return (int) (best.get(v) >>> 32); }
+
+    /**
+     * Cost from an origin to every node, and a shortest path tree.
+     *
+     * @param graph graph to search
+     * @param origin id of the source node
+     * @param delta bucket width, at least 1; widened to maxCost / (MAX_BUCKETS - 2) + 1 if smaller
+     * @param pool pool the relaxations run on
+     * @param dist filled with the cost to each node; Integer.MAX_VALUE if unreachable
+     * @param parent filled with the predecessor of each node; -1 for the origin and unreachable nodes
+     */
+    static void oneToAll(Graph graph, int origin, int delta, ForkJoinPool pool, int[] dist, int[] parent)
+    {
+        if (delta < 1) throw new IllegalArgumentException("delta must be at least 1: " + delta);
+        DeltaStepping search = new DeltaStepping(graph, delta, pool);
+        search.run(origin);
+        for (int v = 0; v < dist.length; v++)
+        {
+            long packed = search.best.get(v);
+            dist[v] = (int) (packed >>> 32);
+            parent[v] = (int) packed;
+        }
+    }
+
+    private void run(int origin)
+    {
+        best.set(origin, pack(0, -1));
+        add(0, origin);
+        int pending = 1;
+        IntList settled = new IntList();
+        long bucket = 0;
+        while (pending > 0)
+        {
+            bucket = next(bucket);
+            int slot = (int) (bucket % buckets.length);
+            IntList frontier = buckets[slot];
+            buckets[slot] = null;
+            nonempty.clear(slot);
+            pending -= frontier.size;
+
+            settled.size = 0;
+            int settledStamp = ++stamp;
+            while (frontier.size > 0)
+            {
+                // drop nodes that moved to a lower bucket and nodes listed twice
+                int phase = ++stamp;
+                IntList active = new IntList();
+                for (int i = 0; i < frontier.size; i++)
+                {
+                    int v = frontier.values[i];
+                    if (dist(v) / delta != bucket || seen[v] == phase) continue;
+                    if (seen[v] != settledStamp) settled.add(v);
+                    seen[v] = phase;
+                    active.add(v);
+                }
+                for (int i = 0; i < active.size; i++) seen[active.values[i]] = settledStamp;
+
+                frontier = new IntList();
+                for (IntList improved : relax(active, true))
+                {
+                    for (int i = 0; i < improved.size; i++)
+                    {
+                        int v = improved.values[i];
+                        long b = dist(v) / delta;
+                        if (b == bucket) frontier.add(v);
+                        else
+                        {
+                            add(b, v);
+                            pending++;
+                        }
+                    }
+                }
+            }
+
+            for (IntList improved : relax(settled, false))
+            {
+                for (int i = 0; i < improved.size; i++) add(dist(improved.values[i]) / delta, improved.values[i]);
+                pending += improved.size;
+            }
+        }
+    }
+
+    /** Lowest nonempty bucket from the given one on; there must be one */
+    private long next(long bucket)
+    {
+        int slot = (int) (bucket % buckets.length);
+        int found = nonempty.nextSetBit(slot);
+        if (found < 0) found = nonempty.nextSetBit(0);
+        return bucket + (found - slot + buckets.length) % buckets.length;
+    }
+
+    private void add(long bucket, int v)
+    {
+        int slot = (int) (bucket % buckets.length);
+        if (buckets[slot] == null)
+        {
+            buckets[slot] = new IntList();
+            nonempty.set(slot);
+        }
+        buckets[slot].add(v);
+    }
+
+    /** Relax the light or the heavy edges of some nodes in parallel; returns the targets that improved, per task */
+    private IntList[] relax(IntList nodes, boolean light)
+    {
+        int tasks = (nodes.size + CHUNK - 1) / CHUNK;
+        IntList[] improved = new IntList[tasks];
+        if (tasks == 0) return improved;
+        try
+        {
+            pool.submit(() -> IntStream.range(0, tasks).parallel().forEach(t ->
+            {
+                IntList out = new IntList();
+                for (int i = t * CHUNK, end = Math.min(nodes.size, i + CHUNK); i < end; i++)
+                {
+                    int u = nodes.values[i];
+                    int du = dist(u);
+                    for (int e = graph.edgeBegin(u), last = graph.edgeEnd(u); e < last; e++)
+                    {
+                        int cost = graph.edgeCost(e);
+                        if ((cost <= delta) != light || (long) du + cost >= Integer.MAX_VALUE) continue;
+                        if (lower(graph.edgeTarget(e), du + cost, u)) out.add(graph.edgeTarget(e));
+                    }
+                }
+                improved[t] = out;
+            })).get();
+        }
+        catch (InterruptedException | ExecutionException e) { throw new IllegalStateException(e); }
+        return improved;
+    }
+
+    /** Lower the distance of v to d through u, if that is lower */
+    private boolean lower(int v, int d, int u)
+    {
+        long packed = pack(d, u);
+        for (long current = best.get(v); d < (int) (current >>> 32); current = best.get(v))
+        {
+            if (best.compareAndSet(v, current, packed)) return true;
+        }
+        return false;
+    }
+
+    /** Growable list of ints */
+    private static final class IntList
+    {
+        int[] values = new int[16];
+        int size;
+
+        void add(int v)
+        {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = v;
+        }
+    }
+}
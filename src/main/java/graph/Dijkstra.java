@@ -2,32 +2,75 @@ package graph;
 
 /** Class Dijkstra. Implementation of Dijkstra's algorithm for finding the shortest path
  * between the source vertex and other vertices in the graph.
- *  Fill in code. You may add additional helper methods or classes.
+ *  The queries that take node ids return their result and keep no state
+ *  between calls, so one instance can serve queries from many threads at
+ *  once. A query takes its workspaces from a small pool of idle ones and
+ *  gives them back when it is done, so they live as long as the instance,
+ *  not as long as the threads that used them. Only the CityNode query,
+ *  getPath and resetPath share the path shown by the GUI.
+ *  Point-to-point queries can report their counters, per query through a
+ *  SearchStats argument or for all queries through setMetrics; when
+ *  neither is asked for, they do not even read the clock.
  */
 
 import java.awt.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
 
 public class Dijkstra
 {
-    private Graph graph;
-    private List<Integer> shortestPath = null;
+    // idle workspaces kept for the next queries; a burst of more concurrent queries leaves the rest to the collector
+    private static final int MAX_IDLE = 2 * Runtime.getRuntime().availableProcessors();
 
-    /** Constructor
+    private final Graph graph;
+    private volatile List<Integer> shortestPath = null;
+    private final IntFunction<IndexedPriorityQueue> queues;
+    private final BlockingQueue<QueryWorkspace> idle = new ArrayBlockingQueue<>(MAX_IDLE);
+    private volatile SearchMetrics metrics;
+
+    /** Constructor for a graph that is already loaded
+     *
+     * @param graph graph
+     */
+    public Dijkstra(Graph graph) { this(graph, PriorityQueue::new); }
+
+    /** Constructor for a graph that is already loaded, with a choice of priority queue,
+     *  e.g. PriorityQueue::new, DaryHeap::new or RadixHeap::new
      *
-     * @param filename name of the file that contains info about nodes and edges
      * @param graph graph
+     * @param queues creates a priority queue for a given number of nodes
      */
-    public Dijkstra(String filename, Graph graph)
+    public Dijkstra(Graph graph, IntFunction<IndexedPriorityQueue> queues)
     {
         this.graph = graph;
-        graph.loadGraph(filename);
+        this.queues = queues;
     }
 
+    /**
+     * The graph the queries run on.
+     * @return the graph
+     */
+    public Graph getGraph() { return graph; }
+
+    /**
+     * Aggregate the counters of every point-to-point query from now on.
+     * @param metrics where the counters go; null to stop recording
+     */
+    public void setMetrics(SearchMetrics metrics) { this.metrics = metrics; }
+
+    public SearchMetrics getMetrics() { return metrics; }
+
     /**
      * Returns the shortest path between the origin vertex and the destination vertex.
-     * The result is stored in shortestPathEdges.
+     * The result is stored in shortestPath.
      * This function is called from GUIApp, when the user clicks on two cities.
      * @param origin source node
      * @param destination destination node
@@ -35,46 +78,589 @@ public class Dijkstra
      */
     public List<Integer> computeShortestPath(CityNode origin, CityNode destination)
     {
-        Pair[] dijkTable = new Pair[graph.numNodes()];  //index = nodeID, k = cost, v = parentID
-        dijkTable[graph.getId(origin)] = new Pair(0, -1);
+        shortestPath = computeShortestPath(graph.getId(origin), graph.getId(destination), null);
+        return shortestPath;
+    }
 
-        PriorityQueue pq = new PriorityQueue(graph.numNodes());
-        pq.insert(graph.getId(origin), 0, -1);
-        for (int i = 0; i < graph.numNodes(); i++)
+    /**
+     * Point-to-point query. Nodes enter the priority queue only once they are
+     * discovered, and the search stops as soon as the destination is settled,
+     * so only the part of the graph closer to the origin than the destination
+     * is explored.
+     * @param origin id of the source node
+     * @param destination id of the destination node
+     * @param stats if not null, filled with the counters of this query
+     * @return node ids on the shortest path, from destination back to origin;
+     * empty if the destination can not be reached
+     */
+    public List<Integer> computeShortestPath(int origin, int destination, SearchStats stats)
+    {
+        return computeShortestPath(origin, destination, null, stats);
+    }
+
+    /**
+     * A* point-to-point query. Like computeShortestPath(int, int, SearchStats),
+     * but nodes are ordered by cost from the origin plus the heuristic's lower
+     * bound on the remaining cost to the destination, which steers the search
+     * towards the destination. The heuristic must be consistent for the
+     * result to be a shortest path.
+     * @param origin id of the source node
+     * @param destination id of the destination node
+     * @param heuristic lower bound on remaining cost; null for plain Dijkstra
+     * @param stats if not null, filled with the counters of this query
+     * @return node ids on the shortest path, from destination back to origin;
+     * empty if the destination can not be reached
+     */
+    public List<Integer> computeShortestPath(int origin, int destination, Heuristic heuristic, SearchStats stats)
+    {
+        SearchMetrics m = metrics;
+        long start = stats != null || m != null ? System.nanoTime() : 0;
+        QueryWorkspace ws = workspace();
+        try
         {
-            if (i == graph.getId(origin)) continue;
-            pq.insert(i, Integer.MAX_VALUE, -1);
+            IndexedPriorityQueue pq = ws.queue();  //key = cost + estimate
+
+            ws.reach(origin, 0, -1);
+            if (heuristic != null) ws.setEstimate(origin, heuristic.estimate(origin, destination));
+            pq.insert(origin, ws.estimate(origin));
+
+            int settled = 0, relaxed = 0, pushes = 1, decreaseKeys = 0;
+            while (!pq.isEmpty())
+            {
+                int niq = pq.removeMin();
+                ws.settle(niq);
+                settled++;
+                if (niq == destination) break;
+
+                int d = ws.dist(niq);
+                relaxed += graph.edgeEnd(niq) - graph.edgeBegin(niq);
+                for (int e = graph.edgeBegin(niq), end = graph.edgeEnd(niq); e < end; e++)
+                {
+                    int t = graph.edgeTarget(e);
+                    int cost = d + graph.edgeCost(e);
+                    if (ws.isSettled(t) || cost >= ws.dist(t)) continue;
+
+                    int h = 0;
+                    if (heuristic != null)
+                    {
+                        h = ws.isReached(t) ? ws.estimate(t) : heuristic.estimate(t, destination);
+                        if (h == Integer.MAX_VALUE)
+                        {
+                            ws.settle(t);  //destination unreachable from t
+                            continue;
+                        }
+                    }
+                    if (ws.isReached(t)) decreaseKeys++;
+                    else pushes++;
+                    ws.reach(t, cost, niq);
+                    ws.setEstimate(t, h);
+                    pq.insertOrDecrease(t, cost + h);
+                }
+            }
+            report(origin, destination, stats, m, start, settled, relaxed, pushes, decreaseKeys);
+
+            return path(ws, destination);
         }
-        pq.removeMin();
+        finally { release(ws); }
+    }
+
+    /** Path to the destination found by the search in ws, from the destination back; empty if it was not reached */
+    private static List<Integer> path(QueryWorkspace ws, int destination)
+    {
+        List<Integer> path = new ArrayList<>();
+        if (!ws.isSettled(destination) || !ws.isReached(destination)) return path;
 
-        int niq = graph.getId(origin);
-        int sumPrevCosts = 0;
-        for (int i = 0; i < graph.numNodes()-1; i++)
+        for (int niq = destination; niq >= 0; niq = ws.parent(niq)) path.add(niq);
+
+        return path;
+    }
+
+    /**
+     * Bidirectional point-to-point query. A forward search from the origin and
+     * a backward search from the destination (over graph.reverse()) are advanced
+     * alternately, always expanding the side with the smaller queue minimum.
+     * mu is the cost of the best origin-destination path seen where the two
+     * searches touched; once the sum of both queue minimums reaches mu no
+     * shorter path can exist and the search stops.
+     * @param origin id of the source node
+     * @param destination id of the destination node
+     * @param stats if not null, filled with the counters of this query (both sides)
+     * @return node ids on the shortest path, from destination back to origin;
+     * empty if the destination can not be reached
+     */
+    public List<Integer> computeShortestPathBidirectional(int origin, int destination, SearchStats stats)
+    {
+        SearchMetrics m = metrics;
+        long start = stats != null || m != null ? System.nanoTime() : 0;
+        Graph reverse = graph.reverse();
+        QueryWorkspace wsF = workspace(), wsB = workspace();
+        try
         {
-            Edge eiq = graph.getAdjacents(niq);
-            while (eiq != null)
+            IndexedPriorityQueue pqF = wsF.queue(), pqB = wsB.queue();
+            wsF.reach(origin, 0, -1); pqF.insert(origin, 0);
+            wsB.reach(destination, 0, -1); pqB.insert(destination, 0);
+
+            long mu = origin == destination ? 0 : Long.MAX_VALUE;
+            int meet = origin == destination ? origin : -1;
+            int settled = 0, relaxed = 0, pushes = 2, decreaseKeys = 0;
+            while (!pqF.isEmpty() && !pqB.isEmpty() && (long) pqF.minKey() + pqB.minKey() < mu)
             {
-                pq.reduceKey(eiq.neighbor(), eiq.cost() + sumPrevCosts, niq);
-                eiq = eiq.next();
+                boolean isForward = pqF.minKey() <= pqB.minKey();
+                Graph g = isForward ? graph : reverse;
+                QueryWorkspace ws = isForward ? wsF : wsB, other = isForward ? wsB : wsF;
+                IndexedPriorityQueue pq = ws.queue();
+
+                int niq = pq.removeMin();
+                ws.settle(niq);
+                settled++;
+
+                int d = ws.dist(niq);
+                relaxed += g.edgeEnd(niq) - g.edgeBegin(niq);
+                for (int e = g.edgeBegin(niq), end = g.edgeEnd(niq); e < end; e++)
+                {
+                    int t = g.edgeTarget(e);
+                    if (ws.isSettled(t)) continue;
+
+                    int cost = d + g.edgeCost(e);
+                    if (cost < ws.dist(t))
+                    {
+                        if (ws.isReached(t)) decreaseKeys++;
+                        else pushes++;
+                        ws.reach(t, cost, niq);
+                        pq.insertOrDecrease(t, cost);
+                    }
+                    int rest = other.dist(t);
+                    if (rest != Integer.MAX_VALUE && (long) ws.dist(t) + rest < mu)
+                    {
+                        mu = (long) ws.dist(t) + rest;
+                        meet = t;
+                    }
+                }
             }
+            report(origin, destination, stats, m, start, settled, relaxed, pushes, decreaseKeys);
+
+            List<Integer> path = new ArrayList<>();
+            if (meet < 0) return path;
 
-            int cost = pq.cost();
-            int par = pq.parent();
-            int next = pq.removeMin();
-            dijkTable[next] = new Pair(cost, par);
-            niq = next;
-            sumPrevCosts = cost;
+            for (int niq = meet; niq >= 0; niq = wsB.parent(niq)) path.add(niq);
+            Collections.reverse(path);
+            for (int niq = wsF.parent(meet); niq >= 0; niq = wsF.parent(niq)) path.add(niq);
+
+            return path;
+        }
+        finally
+        {
+            release(wsF);
+            release(wsB);
         }
+    }
 
-        shortestPath = new ArrayList<>();
-        niq = graph.getId(destination);
-        while (niq >= 0)
+    /**
+     * The k shortest loopless paths (Yen), shortest first. All searches are
+     * A* searches guided by one backward search from the destination, so
+     * the spur searches only explore around the detours they find.
+     * @param origin id of the source node
+     * @param destination id of the destination node
+     * @param k largest number of routes
+     * @return up to k routes, fewer if there are no more loopless paths;
+     * empty if the destination can not be reached
+     */
+    public List<Route> kShortestPaths(int origin, int destination, int k)
+    {
+        QueryWorkspace wsF = workspace(), wsB = workspace();
+        try
+        {
+            return new AlternativeRoutes(graph, wsF, wsB, destination).kShortest(origin, k);
+        }
+        finally
         {
-            shortestPath.add(niq);
-            niq = dijkTable[niq].v;
+            release(wsF);
+            release(wsB);
         }
+    }
 
-        return shortestPath;
+    /**
+     * Alternative routes by the penalty method, with the defaults of
+     * alternativeRoutes(origin, destination, k, 0.5, 0.25, 0.75).
+     * @param origin id of the source node
+     * @param destination id of the destination node
+     * @param k largest number of routes
+     * @return the shortest route and up to k - 1 alternatives
+     */
+    public List<Route> alternativeRoutes(int origin, int destination, int k)
+    {
+        return alternativeRoutes(origin, destination, k, 0.5, 0.25, 0.75);
+    }
+
+    /**
+     * Alternative routes by the penalty method: after each search the edges
+     * of the route found cost more, and the next search finds a route around
+     * them. A route is kept if it is not too much longer than the shortest
+     * and does not share too much with the routes kept before it. Needs far
+     * fewer searches than kShortestPaths, and gives routes that differ more.
+     * @param origin id of the source node
+     * @param destination id of the destination node
+     * @param k largest number of routes
+     * @param penalty fraction of its cost added to an edge each time a route uses it
+     * @param maxStretch how much longer than the shortest route a route may be, as a fraction
+     * @param maxShare largest fraction of a route's cost it may share with any kept route
+     * @return the shortest route and up to k - 1 alternatives;
+     * empty if the destination can not be reached
+     */
+    public List<Route> alternativeRoutes(int origin, int destination, int k, double penalty, double maxStretch, double maxShare)
+    {
+        QueryWorkspace wsF = workspace(), wsB = workspace();
+        try
+        {
+            return new AlternativeRoutes(graph, wsF, wsB, destination).penalized(origin, k, penalty, maxStretch, maxShare);
+        }
+        finally
+        {
+            release(wsF);
+            release(wsB);
+        }
+    }
+
+    /** Fill in the caller's stats and add them to the metrics, for whichever of the two is there */
+    private static void report(int origin, int destination, SearchStats stats, SearchMetrics metrics, long start,
+                               int settled, int relaxed, int pushes, int decreaseKeys)
+    {
+        if (stats == null && metrics == null) return;
+        if (stats == null) stats = new SearchStats();
+        stats.settled = settled;
+        stats.relaxed = relaxed;
+        stats.pushes = pushes;
+        stats.decreaseKeys = decreaseKeys;
+        stats.nanos = System.nanoTime() - start;
+        if (metrics != null) metrics.record(origin, destination, stats);
+    }
+
+    /**
+     * One-to-all query: the shortest paths from the origin to every node.
+     * @param origin id of the source node
+     * @return the shortest path tree of the origin
+     */
+    public ShortestPathTree shortestPathTree(int origin)
+    {
+        int n = graph.numNodes();
+        int[] dist = new int[n];
+        int[] parent = new int[n];
+        oneToAll(graph, origin, dist, parent, null);
+        return new ShortestPathTree(origin, dist, parent);
+    }
+
+    /**
+     * Nodes reachable from the origin at a cost of at most the budget. The
+     * search stops as soon as the queue minimum exceeds the budget, and
+     * edges that lead past the budget are not followed, so no node outside
+     * it is queued or settled.
+     * @param origin id of the source node
+     * @param budget largest cost, not negative
+     * @return the nodes within the budget and their costs
+     */
+    public Isochrone isochrone(int origin, int budget)
+    {
+        if (budget < 0) throw new IllegalArgumentException("negative budget: " + budget);
+        QueryWorkspace ws = workspace();
+        try
+        {
+            IndexedPriorityQueue pq = ws.queue();
+            ws.reach(origin, 0, -1);
+            pq.insert(origin, 0);
+
+            int[] nodes = new int[16];
+            int count = 0;
+            while (!pq.isEmpty() && pq.minKey() <= budget)
+            {
+                int niq = pq.removeMin();
+                ws.settle(niq);
+                if (count == nodes.length) nodes = Arrays.copyOf(nodes, 2 * count);
+                nodes[count++] = niq;
+
+                int d = ws.dist(niq);
+                for (int e = graph.edgeBegin(niq), end = graph.edgeEnd(niq); e < end; e++)
+                {
+                    int t = graph.edgeTarget(e);
+                    int cost = d + graph.edgeCost(e);
+                    if (ws.isSettled(t) || cost > budget || cost >= ws.dist(t)) continue;
+
+                    ws.reach(t, cost, niq);
+                    pq.insertOrDecrease(t, cost);
+                }
+            }
+
+            nodes = Arrays.copyOf(nodes, count);
+            int[] dist = new int[count], parent = new int[count];
+            for (int i = 0; i < count; i++)
+            {
+                dist[i] = ws.dist(nodes[i]);
+                parent[i] = ws.parent(nodes[i]);
+            }
+            return new Isochrone(origin, budget, nodes, dist, parent);
+        }
+        finally { release(ws); }
+    }
+
+    /**
+     * One-to-all query by parallel delta-stepping on the common fork-join pool.
+     * @param origin id of the source node
+     * @param delta bucket width, at least 1
+     * @return the shortest path tree of the origin
+     */
+    public ShortestPathTree deltaSteppingTree(int origin, int delta)
+    {
+        return deltaSteppingTree(origin, delta, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * One-to-all query by parallel delta-stepping. The distances are the ones
+     * shortestPathTree(origin) finds; where two paths tie, the parent may be
+     * either. A delta around the average edge cost is a good start: smaller
+     * values mean less work per phase but more phases. A delta below
+     * maxCost / 65534 + 1 is widened to that, to bound the number of buckets.
+     * @param origin id of the source node
+     * @param delta bucket width, at least 1
+     * @param pool pool the relaxations run on
+     * @return the shortest path tree of the origin
+     */
+    public ShortestPathTree deltaSteppingTree(int origin, int delta, ForkJoinPool pool)
+    {
+        int n = graph.numNodes();
+        int[] dist = new int[n];
+        int[] parent = new int[n];
+        DeltaStepping.oneToAll(graph, origin, delta, pool, dist, parent);
+        return new ShortestPathTree(origin, dist, parent);
+    }
+
+    /**
+     * Batch of point-to-point queries using the common fork-join pool.
+     * @param origins id of the source node of each query
+     * @param destinations id of the destination node of each query
+     * @return the path of each query, in the order of the queries
+     */
+    public List<List<Integer>> computeShortestPaths(int[] origins, int[] destinations)
+    {
+        return computeShortestPaths(origins, destinations, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Batch of point-to-point queries, query i going from origins[i] to
+     * destinations[i]. Queries are grouped by origin and each group shares
+     * one search, which stops once all the group's destinations are settled;
+     * the groups run in parallel on the given pool. A stream of requests
+     * with bursts from the same origins costs a search per origin instead of
+     * one per request. Batches are not recorded in the metrics.
+     * @param origins id of the source node of each query
+     * @param destinations id of the destination node of each query
+     * @param pool pool the searches run on
+     * @return the path of each query, in the order of the queries, as
+     * computeShortestPath(int, int, SearchStats) returns it
+     */
+    public List<List<Integer>> computeShortestPaths(int[] origins, int[] destinations, ForkJoinPool pool)
+    {
+        if (origins.length != destinations.length)
+            throw new IllegalArgumentException(origins.length + " origins but " + destinations.length + " destinations");
+
+        int count = origins.length;
+        long[] byOrigin = new long[count];
+        for (int i = 0; i < count; i++) byOrigin[i] = ((long) origins[i] << 32) | i;
+        Arrays.sort(byOrigin);
+        int[] queries = new int[count];   //query indices, grouped by origin
+        int[] groups = new int[count + 1];  //group g holds queries[groups[g] .. groups[g+1]-1]
+        int numGroups = 0;
+        for (int k = 0; k < count; k++)
+        {
+            queries[k] = (int) byOrigin[k];
+            if (k == 0 || origins[queries[k]] != origins[queries[k - 1]]) groups[numGroups++] = k;
+        }
+        groups[numGroups] = count;
+
+        List<List<Integer>> paths = new ArrayList<>(Collections.nCopies(count, (List<Integer>) null));
+        int last = numGroups;
+        try
+        {
+            pool.submit(() -> IntStream.range(0, last).parallel()
+                    .forEach(g -> searchGroup(origins, destinations, queries, groups[g], groups[g + 1], paths))).get();
+        }
+        catch (InterruptedException | ExecutionException e) { throw new IllegalStateException(e); }
+        return paths;
+    }
+
+    /** One search for the queries queries[from .. to-1], which share their origin */
+    private void searchGroup(int[] origins, int[] destinations, int[] queries, int from, int to, List<List<Integer>> paths)
+    {
+        QueryWorkspace ws = workspace();
+        QueryWorkspace wanted = workspace();  //only its settled marks are used: the destinations of the group
+        try
+        {
+            int remaining = 0;
+            for (int k = from; k < to; k++)
+            {
+                int d = destinations[queries[k]];
+                if (wanted.isSettled(d)) continue;
+                wanted.settle(d);
+                remaining++;
+            }
+
+            IndexedPriorityQueue pq = ws.queue();
+            int origin = origins[queries[from]];
+            ws.reach(origin, 0, -1);
+            pq.insert(origin, 0);
+            while (!pq.isEmpty() && remaining > 0)
+            {
+                int niq = pq.removeMin();
+                ws.settle(niq);
+                if (wanted.isSettled(niq)) remaining--;
+
+                int d = ws.dist(niq);
+                for (int e = graph.edgeBegin(niq), end = graph.edgeEnd(niq); e < end; e++)
+                {
+                    int t = graph.edgeTarget(e);
+                    int cost = d + graph.edgeCost(e);
+                    if (ws.isSettled(t) || cost >= ws.dist(t)) continue;
+
+                    ws.reach(t, cost, niq);
+                    pq.insertOrDecrease(t, cost);
+                }
+            }
+            for (int k = from; k < to; k++) paths.set(queries[k], path(ws, destinations[queries[k]]));
+        }
+        finally
+        {
+            release(ws);
+            release(wanted);
+        }
+    }
+
+    /**
+     * Many-to-many query using the common fork-join pool.
+     * @param sources ids of the source nodes
+     * @param targets ids of the target nodes
+     * @return costs from every source to every target
+     */
+    public DistanceMatrix distanceMatrix(int[] sources, int[] targets)
+    {
+        return distanceMatrix(sources, targets, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Many-to-many query. Runs one search per source, in parallel on the given
+     * pool; each search stops as soon as every target is settled.
+     * @param sources ids of the source nodes
+     * @param targets ids of the target nodes
+     * @param pool pool the searches run on
+     * @return costs from every source to every target
+     */
+    public DistanceMatrix distanceMatrix(int[] sources, int[] targets, ForkJoinPool pool)
+    {
+        sources = sources.clone();
+        targets = targets.clone();
+        int[] values = new int[sources.length * targets.length];
+        int[] from = sources, to = targets;
+        try
+        {
+            pool.submit(() -> IntStream.range(0, from.length).parallel()
+                    .forEach(i -> fillRow(from[i], to, values, i * to.length))).get();
+        }
+        catch (InterruptedException | ExecutionException e) { throw new IllegalStateException(e); }
+        return new DistanceMatrix(sources, targets, values);
+    }
+
+    /** Costs from origin to every target, written to values[offset ..] */
+    private void fillRow(int origin, int[] targets, int[] values, int offset)
+    {
+        QueryWorkspace ws = workspace();
+        QueryWorkspace wanted = workspace();  //only its settled marks are used: the targets
+        try
+        {
+            int remaining = 0;
+            for (int t : targets)
+            {
+                if (wanted.isSettled(t)) continue;
+                wanted.settle(t);
+                remaining++;
+            }
+
+            IndexedPriorityQueue pq = ws.queue();
+            ws.reach(origin, 0, -1);
+            pq.insert(origin, 0);
+
+            while (!pq.isEmpty() && remaining > 0)
+            {
+                int niq = pq.removeMin();
+                ws.settle(niq);
+                if (wanted.isSettled(niq)) remaining--;
+
+                int d = ws.dist(niq);
+                for (int e = graph.edgeBegin(niq), end = graph.edgeEnd(niq); e < end; e++)
+                {
+                    int t = graph.edgeTarget(e);
+                    int cost = d + graph.edgeCost(e);
+                    if (ws.isSettled(t) || cost >= ws.dist(t)) continue;
+
+                    ws.reach(t, cost, niq);
+                    pq.insertOrDecrease(t, cost);
+                }
+            }
+            for (int j = 0; j < targets.length; j++) values[offset + j] = ws.dist(targets[j]);
+        }
+        finally
+        {
+            release(ws);
+            release(wanted);
+        }
+    }
+
+    /** An idle workspace, or a new one if none is idle, reset for a new query */
+    private QueryWorkspace workspace()
+    {
+        QueryWorkspace ws = idle.poll();
+        if (ws == null) ws = new QueryWorkspace(graph.numNodes(), queues);
+        ws.reset();
+        return ws;
+    }
+
+    /** Give back a workspace the query is done with; it is dropped if MAX_IDLE are idle already */
+    private void release(QueryWorkspace ws) { idle.offer(ws); }
+
+    /**
+     * Cost of the shortest path from the origin to every node of a graph.
+     * Used by preprocessing steps that need complete distance tables.
+     * @param graph graph to search
+     * @param origin id of the source node
+     * @param dist filled with the cost to each node; Integer.MAX_VALUE if unreachable
+     * @param parent if not null, filled with the predecessor of each node; -1 for the origin and unreachable nodes
+     * @param order if not null, filled with the node ids in the order they were settled
+     * @return number of nodes reached
+     */
+    static int oneToAll(Graph graph, int origin, int[] dist, int[] parent, int[] order)
+    {
+        Arrays.fill(dist, Integer.MAX_VALUE);
+        if (parent != null) Arrays.fill(parent, -1);
+
+        PriorityQueue pq = new PriorityQueue(graph.numNodes());
+        dist[origin] = 0;
+        pq.insert(origin, 0);
+
+        int settled = 0;
+        while (!pq.isEmpty())
+        {
+            int niq = pq.removeMin();
+            if (order != null) order[settled] = niq;
+            settled++;
+
+            for (int e = graph.edgeBegin(niq), end = graph.edgeEnd(niq); e < end; e++)
+            {
+                int t = graph.edgeTarget(e);
+                int cost = dist[niq] + graph.edgeCost(e);
+                if (cost >= dist[t]) continue;  //costs are not negative, so this holds for every settled node
+
+                dist[t] = cost;
+                if (parent != null) parent[t] = niq;
+                pq.insertOrDecrease(t, cost);
+            }
+        }
+        return settled;
     }
 
     /**
@@ -85,7 +671,7 @@ public class Dijkstra
      */
     public Point[][] getPath()
     {
-        if (shortestPath == null) return null;
+        if (shortestPath == null || shortestPath.isEmpty()) return null;
 
         return graph.getPath(shortestPath);
     }
@@ -0,0 +1,40 @@
+package graph;
+
+/** Costs of the shortest paths from a list of sources to a list of targets,
+ *  stored row by row in one int array: the cost from sources[i] to
+ *  targets[j] is at index i * targets.length + j, and is Integer.MAX_VALUE
+ *  if the target can not be reached.
+ */
+public class DistanceMatrix
+{
+    private final int[] sources;
+    private final int[] targets;
+    private final int[] values;
+
+    DistanceMatrix(int[] sources, int[] targets, int[] values)
+    {
+        this.sources = sources;
+        this.targets = targets;
+        this.values = values;
+    }
+
+    public int rows() { return sources.length; }
+    public int columns() { return targets.length; }
+    public int source(int row) { return sources[row]; }
+    public int target(int column) { return targets[column]; }
+
+    /**
+     * Cost from sources[row] to targets[column].
+     * @param row index into the sources
+     * @param column index into the targets
+     * @return cost, or Integer.MAX_VALUE if the target can not be reached
+     */
+    public int get(int row, int column) { return values[row * targets.length + column]; }
+
+    /**
+     * All costs, row by row. The array is the matrix's own, not a copy, and
+     * must not be modified.
+     * @return the row-major cost array
+     */
+    public int[] values() { return values; }
+}
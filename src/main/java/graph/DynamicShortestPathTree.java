@@ -0,0 +1,215 @@
+package graph;
+
+import java.util.Arrays;
+
+/** Shortest path tree that is kept correct while edge costs change, by
+ *  repairing only the part of the tree an update affects instead of
+ *  running the one-to-all search again (Ramalingam and Reps).
+ *  When the cost of a tree edge grows, the subtree below it loses its
+ *  distances; each of its nodes restarts from its best edge coming from
+ *  outside the subtree and a Dijkstra search inside the subtree settles
+ *  them again. When an edge gets cheaper, a Dijkstra search starts at its
+ *  head and follows only the nodes whose distance drops.
+ *  Children are kept in linked lists, so finding a subtree costs its size.
+ *  A tree is not safe to repair while other threads read it.
+ */
+public class DynamicShortestPathTree extends ShortestPathTree
+{
+    private static final int INF = Integer.MAX_VALUE;
+
+    private final Graph graph;
+    private final int[] dist;
+    private final int[] parent;
+    private final int[] firstChild, nextSibling, prevSibling;  //children of each node, -1 terminated
+    private final int[] mark;      //mark[v] == stamp while v is in the affected subtree
+    private final int[] affected;  //nodes of the affected subtree, in breadth first order
+    private final PriorityQueue pq;
+    private int stamp;
+
+    /**
+     * Compute the tree of an origin.
+     *
+     * @param graph graph whose edge costs will change
+     * @param origin id of the root node
+     */
+    public DynamicShortestPathTree(Graph graph, int origin)
+    {
+        this(graph, origin, new int[graph.numNodes()], new int[graph.numNodes()]);
+    }
+
+    private DynamicShortestPathTree(Graph graph, int origin, int[] dist, int[] parent)
+    {
+        super(origin, dist, parent);
+        Dijkstra.oneToAll(graph, origin, dist, parent, null);
+        int n = graph.numNodes();
+        this.graph = graph;
+        this.dist = dist;
+        this.parent = parent;
+        firstChild = new int[n];
+        nextSibling = new int[n];
+        prevSibling = new int[n];
+        Arrays.fill(firstChild, -1);
+        for (int v = 0; v < n; v++) if (parent[v] >= 0) attach(v);
+        mark = new int[n];
+        affected = new int[n];
+        pq = new PriorityQueue(n);
+    }
+
+    /**
+     * Bring the tree up to date after Graph.setEdgeCost changed an edge.
+     * On a symmetric graph the edge back is repaired as well.
+     *
+     * @param from id of the node the edge leaves
+     * @param to id of the node the edge enters
+     * @return number of distances the repair set, a measure of its work
+     */
+    public int edgeCostChanged(int from, int to)
+    {
+        if (graph.reverse() == graph) return edgeCostsChanged(new int[] {from, to}, new int[] {to, from});
+        return edgeCostsChanged(new int[] {from}, new int[] {to});
+    }
+
+    /**
+     * Bring the tree up to date after several edges changed, in one repair.
+     * Edges listed twice, or whose cost did not change, cost nothing extra.
+     * On a symmetric graph both directions of each edge must be listed.
+     *
+     * @param from ids of the nodes the edges leave
+     * @param to ids of the nodes the edges enter, in the same order
+     * @return number of distances the repair set, a measure of its work
+     */
+    public int edgeCostsChanged(int[] from, int[] to)
+    {
+        if (++stamp == 0)
+        {
+            Arrays.fill(mark, 0);
+            stamp = 1;
+        }
+
+        // tree edges that got more expensive take their whole subtree with them
+        int count = 0;
+        for (int i = 0; i < from.length; i++)
+        {
+            int u = from[i], v = to[i];
+            if (parent[v] != u || mark[v] == stamp) continue;
+            if ((long) dist[u] + cheapest(u, v) > dist[v]) count = collectSubtree(v, count);
+        }
+
+        for (int i = 0; i < count; i++)
+        {
+            int x = affected[i];
+            if (parent[x] >= 0 && mark[parent[x]] != stamp) detach(x);
+            dist[x] = INF;
+            parent[x] = -1;
+            firstChild[x] = -1;
+        }
+
+        // affected nodes restart from their best edge into the subtree
+        Graph reverse = graph.reverse();
+        for (int i = 0; i < count; i++)
+        {
+            int x = affected[i];
+            for (int e = reverse.edgeBegin(x), end = reverse.edgeEnd(x); e < end; e++)
+            {
+                int w = reverse.edgeTarget(e);
+                if (mark[w] == stamp || dist[w] == INF) continue;
+                long d = (long) dist[w] + reverse.edgeCost(e);
+                if (d < dist[x])
+                {
+                    dist[x] = (int) d;
+                    parent[x] = w;
+                }
+            }
+            if (dist[x] != INF) pq.insert(x, dist[x]);
+        }
+
+        // edges that got cheaper may lower the distance of their heads
+        int lowered = 0;
+        for (int i = 0; i < from.length; i++)
+        {
+            int u = from[i], v = to[i];
+            if (mark[u] == stamp || dist[u] == INF) continue;
+            long d = (long) dist[u] + cheapest(u, v);
+            if (d >= dist[v]) continue;
+            if (mark[v] != stamp) lowered++;
+            relax(v, u, (int) d);
+        }
+
+        while (!pq.isEmpty())
+        {
+            int x = pq.removeMin();
+            for (int e = graph.edgeBegin(x), end = graph.edgeEnd(x); e < end; e++)
+            {
+                int y = graph.edgeTarget(e);
+                long d = (long) dist[x] + graph.edgeCost(e);
+                if (d >= dist[y]) continue;
+                if (mark[y] != stamp) lowered++;
+                relax(y, x, (int) d);
+            }
+        }
+
+        for (int i = 0; i < count; i++) if (parent[affected[i]] >= 0) attach(affected[i]);
+        return count + lowered;
+    }
+
+    /** Lower the distance of v to d through u. Affected nodes are attached once the repair is done. */
+    private void relax(int v, int u, int d)
+    {
+        if (mark[v] != stamp)
+        {
+            if (parent[v] >= 0) detach(v);
+            parent[v] = u;
+            attach(v);
+        }
+        else parent[v] = u;
+        dist[v] = d;
+        pq.insertOrDecrease(v, d);
+    }
+
+    /** Cost of the cheapest of the parallel edges from u to v */
+    private int cheapest(int u, int v)
+    {
+        int best = INF;
+        for (int e = graph.edgeBegin(u), end = graph.edgeEnd(u); e < end; e++)
+        {
+            if (graph.edgeTarget(e) == v) best = Math.min(best, graph.edgeCost(e));
+        }
+        return best;
+    }
+
+    /** Mark the subtree below root and append it to affected */
+    private int collectSubtree(int root, int count)
+    {
+        int start = count;
+        mark[root] = stamp;
+        affected[count++] = root;
+        for (int i = start; i < count; i++)
+        {
+            for (int c = firstChild[affected[i]]; c >= 0; c = nextSibling[c])
+            {
+                if (mark[c] == stamp) continue;  //collected with an earlier edge
+                mark[c] = stamp;
+                affected[count++] = c;
+            }
+        }
+        return count;
+    }
+
+    private void attach(int v)
+    {
+        int p = parent[v];
+        int first = firstChild[p];
+        nextSibling[v] = first;
+        prevSibling[v] = -1;
+        if (first >= 0) prevSibling[first] = v;
+        firstChild[p] = v;
+    }
+
+    private void detach(int v)
+    {
+        int prev = prevSibling[v], next = nextSibling[v];
+        if (prev >= 0) nextSibling[prev] = next;
+        else firstChild[parent[v]] = next;
+        if (next >= 0) prevSibling[next] = prev;
+    }
+}
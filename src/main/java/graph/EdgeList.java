@@ -0,0 +1,59 @@
+package graph;
+
+import java.awt.Point;
+
+/** A set of undirected edges between nodes of a graph, each with a cost,
+ *  kept in parallel int arrays: what the spanning tree and bridge queries
+ *  of GraphAnalytics return.
+ */
+public class EdgeList
+{
+    private final int[] from;
+    private final int[] to;
+    private final int[] costs;
+    private final int size;
+
+    EdgeList(int[] from, int[] to, int[] costs, int size)
+    {
+        this.from = from;
+        this.to = to;
+        this.costs = costs;
+        this.size = size;
+    }
+
+    public int size() { return size; }
+    public int from(int i) { return from[i]; }
+    public int to(int i) { return to[i]; }
+    public int cost(int i) { return costs[i]; }
+
+    /**
+     * Sum of the costs of the edges.
+     * @return total cost
+     */
+    public long totalCost()
+    {
+        long total = 0;
+        for (int i = 0; i < size; i++) total += costs[i];
+        return total;
+    }
+
+    /**
+     * The edges as pairs of node locations, like Graph.getPath, so GUIApp
+     * can draw them.
+     * @param graph graph the edges belong to
+     * @return for each edge, the locations of its two nodes
+     */
+    public Point[][] toPoints(Graph graph)
+    {
+        Point[][] edges2D = new Point[size][2];
+        for (int i = 0; i < size; i++)
+        {
+            edges2D[i][0] = graph.getNode(from[i]).getLocation();
+            edges2D[i][1] = graph.getNode(to[i]).getLocation();
+        }
+        return edges2D;
+    }
+
+    @Override
+    public String toString() { return size + " edges, total cost " + totalCost(); }
+}
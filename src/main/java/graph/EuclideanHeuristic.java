@@ -0,0 +1,78 @@
+package graph;
+
+import java.awt.*;
+
+/** Heuristic based on the straight-line distance between the locations of
+ *  two CityNodes, converted to edge cost units.
+ *  The conversion factor is calibrated from the loaded edges: it is the
+ *  smallest ratio of edge cost to edge length in the graph, so no edge, and
+ *  by the triangle inequality no path, costs less than its scaled length.
+ */
+public class EuclideanHeuristic implements Heuristic
+{
+    private final int[] xs;
+    private final int[] ys;
+    private final double scale;
+
+    /**
+     * Calibrate the heuristic for a graph.
+     *
+     * @param graph graph to calibrate from
+     */
+    public EuclideanHeuristic(Graph graph) { this(graph, calibrate(graph)); }
+
+    /**
+     * Heuristic with a given conversion factor. The factor must not be larger
+     * than the cost per unit of length of any edge of the graph.
+     *
+     * @param graph graph whose node locations are used
+     * @param scale edge cost per unit of distance
+     */
+    public EuclideanHeuristic(Graph graph, double scale)
+    {
+        this.scale = scale;
+        Point[] locations = graph.getNodes();  //no CityNodes or labels made for mapped and off-heap graphs
+        xs = new int[locations.length];
+        ys = new int[locations.length];
+        for (int i = 0; i < xs.length; i++)
+        {
+            xs[i] = locations[i].x;
+            ys[i] = locations[i].y;
+        }
+    }
+
+    /**
+     * Smallest cost per unit of distance over all edges of the graph.
+     * Edges between nodes at the same location do not constrain the factor.
+     *
+     * @param graph graph to calibrate from
+     * @return largest admissible conversion factor
+     */
+    public static double calibrate(Graph graph)
+    {
+        double scale = Double.MAX_VALUE;
+        Point[] locations = graph.getNodes();
+        for (int i = 0; i < locations.length; i++)
+        {
+            for (int e = graph.edgeBegin(i); e < graph.edgeEnd(i); e++)
+            {
+                double d = locations[i].distance(locations[graph.edgeTarget(e)]);
+                if (d > 0) scale = Math.min(scale, graph.edgeCost(e) / d);
+            }
+        }
+        if (scale == Double.MAX_VALUE) return 0;
+
+        // shave off a little so rounding in estimate() can not push a bound above an edge cost
+        return scale * (1 - 1e-9);
+    }
+
+    public double scale() { return scale; }
+
+    @Override
+    public int estimate(int from, int to)
+    {
+        double dx = xs[from] - xs[to];
+        double dy = ys[from] - ys[to];
+        return (int) (Math.sqrt(dx * dx + dy * dy) * scale);
+    }
+}
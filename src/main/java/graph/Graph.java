@@ -3,12 +3,21 @@ package graph;
 
 /** A class that represents a graph where nodes are cities (of type CityNode).
  * The cost of each edge connecting two cities is the distance between the cities.
+ * The nodes and edges of a graph never change once it has been loaded or
+ * built: graphs only come from the static factories, and their fields are
+ * final, so any number of threads can read a graph without locking. Only
+ * edge costs can change, through setEdgeCost, which must not be called
+ * while queries run.
  */
 
 import java.awt.*;
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -16,94 +25,599 @@ import java.util.Map;
 public class Graph
 {
     public final int EPS_DIST = 5;
-    private int numNodes;
-    private int numEdges;
-    private CityNode[] nodes;
-    private Edge[] adjacencyList;
-    private Map<String, Integer> labelsToIndices;
+    private static final int MAGIC = 0x47524632;  // "GRF2"
+    private static final int HEADER_BYTES = 20;
+
+    private final int numNodes;
+    private final int numEdges;
+    private final CityNode[] nodes;
+    private volatile Map<String, Integer> labelsToIndices;  //only for graphs of CityNodes
+
+    // Compressed sparse row adjacency: the outgoing edges of node i are
+    // the indices offsets[i] .. offsets[i+1]-1 of targets and costs.
+    private final IntArray offsets;
+    private final IntArray targets;
+    private final IntArray costs;
+    // the same arrays when they are on the heap, null otherwise: the edge accessors
+    // index these directly, so searches on heap graphs make no IntArray calls
+    private final int[] offsetArray, targetArray, costArray;
+
+    // Nodes of a graph mapped from a binary file or kept off the heap, where nodes is null:
+    // location (xs[i], ys[i]) and a UTF-8 label in labelBytes[labelStarts[i] .. labelStarts[i+1]-1]
+    private final IntArray xs, ys, labelStarts;
+    private final ByteBuffer labelBytes;
+    private final IntArray labelIndex;  //LabelIndex slots of the labels; from the file or built off the heap with the graph
+
+    // true when every edge (a, b) has a twin (b, a) of the same cost
+    private final boolean symmetric;
+    private volatile Graph reverse;
+    private volatile SpatialIndex spatialIndex;
+    private volatile long version;  //edge cost changes so far
+
+    // id of each node in the graph this one was reordered from; null if it was not
+    private final int[] originalIds;
+
+    /** Orders for reorder */
+    public enum NodeOrder
+    {
+        /** along a Hilbert curve through the node locations */
+        HILBERT,
+        /** reverse Cuthill-McKee, from the edges alone */
+        REVERSE_CUTHILL_MCKEE
+    }
 
     /**
-     * Read graph info from the given file, and create nodes and edges of
-     * the graph.
+     * Graph over CityNodes or, if nodes is null, over pixel locations and a
+     * dictionary of labels with its LabelIndex; adjacency holds the offsets,
+     * targets and costs.
+     */
+    private Graph(CityNode[] nodes, IntArray xs, IntArray ys, IntArray labelStarts, ByteBuffer labelBytes, IntArray labelIndex,
+                  IntArray[] adjacency, boolean symmetric, int[] originalIds)
+    {
+        this.numNodes = nodes != null ? nodes.length : xs.length();
+        this.nodes = nodes;
+        this.xs = xs;
+        this.ys = ys;
+        this.labelStarts = labelStarts;
+        this.labelBytes = labelBytes;
+        this.labelIndex = labelIndex;
+        this.offsets = adjacency[0];
+        this.targets = adjacency[1];
+        this.costs = adjacency[2];
+        this.offsetArray = offsets.array();
+        this.targetArray = targets.array();
+        this.costArray = costs.array();
+        this.numEdges = targets.length();
+        this.symmetric = symmetric;
+        this.originalIds = originalIds;
+    }
+
+    /** Graph that shares the nodes of g, with other edges */
+    private Graph(Graph g, IntArray[] adjacency, boolean symmetric)
+    {
+        this(g.nodes, g.xs, g.ys, g.labelStarts, g.labelBytes, g.labelIndex, adjacency, symmetric, g.originalIds);
+        this.labelsToIndices = g.labelsToIndices;
+    }
+
+    /**
+     * Read a graph from a file. Exits if the file can not be read.
      *
      * @param filename name of the file that has nodes and edges
+     * @return the loaded graph
      */
-    public void loadGraph(String filename)
+    public static Graph load(String filename)
     {
         try
         {
-            BufferedReader br = new BufferedReader(new FileReader(filename));
+            return GraphReader.read(filename, false);
+        }
+        catch (IOException e) { e.printStackTrace(); System.exit(1); return null; }
+    }
+
+    /**
+     * Write the graph in the binary format read by map. All numbers are
+     * big-endian ints: a header (magic, number of nodes, number of edges,
+     * 1 if symmetric, size of the label dictionary in bytes), the x and y
+     * pixel coordinates of the nodes, the start of every label in the
+     * dictionary plus its end, the CSR offsets, targets and costs, the
+     * slots of the LabelIndex hash table of the labels, and last the
+     * dictionary of UTF-8 labels.
+     *
+     * @param filename name of the file
+     * @throws IOException if the file can not be written
+     */
+    public void save(String filename) throws IOException
+    {
+        byte[][] labels = new byte[numNodes][];
+        int[] starts = new int[numNodes + 1];
+        for (int i = 0; i < numNodes; i++)
+        {
+            labels[i] = label(i).getBytes(StandardCharsets.UTF_8);
+            starts[i + 1] = starts[i] + labels[i].length;
+        }
+        int dictionary = starts[numNodes];
+        ByteBuffer bytes = ByteBuffer.allocate(dictionary);
+        for (byte[] label : labels) bytes.put(label);
+        IntArray index = LabelIndex.build(numNodes, IntArray.of(starts), bytes, false);
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename), 1 << 16)))
+        {
+            out.writeInt(MAGIC);
+            out.writeInt(numNodes);
+            out.writeInt(numEdges);
+            out.writeInt(symmetric ? 1 : 0);
+            out.writeInt(dictionary);
+            for (int i = 0; i < numNodes; i++) out.writeInt(location(i).x);
+            for (int i = 0; i < numNodes; i++) out.writeInt(location(i).y);
+            for (int start : starts) out.writeInt(start);
+            for (int i = 0; i <= numNodes; i++) out.writeInt(offsets.get(i));
+            for (int e = 0; e < numEdges; e++) out.writeInt(targets.get(e));
+            for (int e = 0; e < numEdges; e++) out.writeInt(costs.get(e));
+            for (int s = 0; s < index.length(); s++) out.writeInt(index.get(s));
+            out.write(bytes.array());
+        }
+    }
+
+    /**
+     * Open a graph written by save. The file is memory mapped and the graph
+     * reads its nodes and edges straight from the mapping, so opening costs
+     * no parsing or copying, and processes that map the same file share one
+     * copy of it in the page cache. CityNodes are only made when asked for,
+     * and getId looks labels up in the hash table stored in the file. The
+     * file must not be changed while the graph is in use.
+     *
+     * @param filename name of the file
+     * @return the graph
+     * @throws IOException if the file can not be read or is not a graph file
+     */
+    public static Graph map(String filename) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ))
+        {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(HEADER_BYTES, channel.size()));
+            int magic = header.limit() < HEADER_BYTES ? 0 : header.getInt(0);
+            if (magic != MAGIC) throw new IOException(filename + " is not a graph file");
+
+            long n = header.getInt(4), m = header.getInt(8);
+            boolean symmetric = header.getInt(12) == 1;
+            int dictionary = header.getInt(16);
+            long slots = LabelIndex.capacity((int) n);
+            if (channel.size() != HEADER_BYTES + 4 * (4 * n + 2 + 2 * m + slots) + dictionary)
+                throw new IOException(filename + " has the wrong size for " + n + " nodes and " + m + " edges");
+
+            long pos = HEADER_BYTES;
+            IntArray xs = ints(channel, pos, n);
+            IntArray ys = ints(channel, pos += 4 * n, n);
+            IntArray labelStarts = ints(channel, pos += 4 * n, n + 1);
+            IntArray offsets = ints(channel, pos += 4 * (n + 1), n + 1);
+            IntArray targets = ints(channel, pos += 4 * (n + 1), m);
+            IntArray costs = ints(channel, pos += 4 * m, m);
+            IntArray index = ints(channel, pos += 4 * m, slots);
+            ByteBuffer labelBytes = channel.map(FileChannel.MapMode.READ_ONLY, pos + 4 * slots, dictionary);
+            return new Graph(null, xs, ys, labelStarts, labelBytes, index, new IntArray[] { offsets, targets, costs }, symmetric, null);
+        }
+    }
+
+    private static IntArray ints(FileChannel channel, long position, long count) throws IOException
+    {
+        return IntArray.of(channel.map(FileChannel.MapMode.READ_ONLY, position, 4 * count).asIntBuffer());
+    }
+
+    /**
+     * Read a graph from a file into off-heap memory. Node locations, labels,
+     * the hash table getId looks labels up in, offsets, targets and costs
+     * all live in direct buffers, so the heap only holds a few objects
+     * however large the graph is, and the garbage collector has nothing of
+     * it to scan or copy. Searches run on it as on any graph; CityNodes are
+     * made when asked for, as for mapped graphs.
+     * Unlike a mapped graph it does not depend on the file after loading,
+     * and its edge costs can be changed.
+     * Reserve room with -XX:MaxDirectMemorySize: 8 bytes per arc, and every
+     * line of the ARCS section is two arcs, plus 20 to 28 bytes and the
+     * label per node.
+     *
+     * @param filename name of the file that has nodes and edges
+     * @return the loaded graph
+     * @throws IOException if the file can not be read or is malformed
+     */
+    public static Graph loadOffHeap(String filename) throws IOException { return GraphReader.read(filename, true); }
+
+    /**
+     * Copy of the graph in off-heap memory, like loadOffHeap makes.
+     * @return the copy
+     */
+    public Graph toOffHeap()
+    {
+        int dictionary = 0;
+        byte[][] labels = new byte[numNodes][];
+        for (int i = 0; i < numNodes; i++)
+        {
+            labels[i] = label(i).getBytes(StandardCharsets.UTF_8);
+            dictionary += labels[i].length;
+        }
+        IntArray xs = IntArray.direct(numNodes), ys = IntArray.direct(numNodes), labelStarts = IntArray.direct(numNodes + 1);
+        ByteBuffer labelBytes = ByteBuffer.allocateDirect(dictionary);
+        for (int i = 0; i < numNodes; i++)
+        {
+            Point p = location(i);
+            xs.set(i, p.x);
+            ys.set(i, p.y);
+            labelStarts.set(i, labelBytes.position());
+            labelBytes.put(labels[i]);
+        }
+        labelStarts.set(numNodes, labelBytes.position());
+        labelBytes.flip();
+
+        IntArray[] adjacency = { offsets.toDirect(numNodes + 1), targets.toDirect(numEdges), costs.toDirect(numEdges) };
+        return offHeap(xs, ys, labelStarts, labelBytes, adjacency, symmetric, originalIds);
+    }
+
+    /** Off-heap graph of pixel locations and a label dictionary, with the LabelIndex of its labels in direct memory too */
+    private static Graph offHeap(IntArray xs, IntArray ys, IntArray labelStarts, ByteBuffer labelBytes,
+                                 IntArray[] adjacency, boolean symmetric, int[] originalIds)
+    {
+        IntArray index = LabelIndex.build(xs.length(), labelStarts, labelBytes, true);
+        return new Graph(null, xs, ys, labelStarts, labelBytes, index, adjacency, symmetric, originalIds);
+    }
+
+    /**
+     * Graph of CityNodes and a ready-made CSR adjacency.
+     * Used by GraphReader.
+     */
+    static Graph of(CityNode[] nodes, IntArray offsets, IntArray targets, IntArray costs, boolean symmetric)
+    {
+        return new Graph(nodes, null, null, null, null, null, new IntArray[] { offsets, targets, costs }, symmetric, null);
+    }
+
+    /**
+     * Off-heap graph without CityNodes, of pixel locations and a dictionary
+     * of labels like a mapped graph has, and a ready-made CSR adjacency, all
+     * in direct buffers. The hash table getId looks labels up in is built
+     * off the heap as well.
+     * Used by GraphReader.
+     */
+    static Graph of(IntArray xs, IntArray ys, IntArray labelStarts, ByteBuffer labelBytes,
+                    IntArray offsets, IntArray targets, IntArray costs, boolean symmetric)
+    {
+        return offHeap(xs, ys, labelStarts, labelBytes, new IntArray[] { offsets, targets, costs }, symmetric, null);
+    }
+
+    /**
+     * Build a graph directly from arrays of nodes and directed arcs.
+     * Used by generators that do not go through a file.
+     *
+     * @param nodes nodes of the graph; labels must be unique
+     * @param from origin of each arc
+     * @param to destination of each arc
+     * @param cost cost of each arc
+     * @param numArcs number of arcs stored in from, to and cost
+     * @param symmetric true if every arc has a reverse twin of the same cost
+     * @return the new graph
+     */
+    static Graph of(CityNode[] nodes, int[] from, int[] to, int[] cost, int numArcs, boolean symmetric)
+    {
+        return new Graph(nodes, null, null, null, null, null, adjacency(nodes.length, from, to, cost, numArcs), symmetric, null);
+    }
 
-            br.readLine();
-            String buf = br.readLine();
-            numNodes = Integer.parseInt(buf);
-            nodes = new CityNode[numNodes];
-            adjacencyList = new Edge[numNodes];
-            labelsToIndices = new HashMap(numNodes);
+    /**
+     * Return the graph with every edge reversed; backward searches walk it
+     * to follow edges from their destination to their origin.
+     * Graphs read by load store every edge in both directions, so they
+     * are their own reverse. Otherwise the transposed adjacency is built on
+     * the first call and shares the nodes with this graph.
+     * Safe to call from several threads; only the first caller builds it.
+     *
+     * @return the reverse graph
+     */
+    public Graph reverse()
+    {
+        if (symmetric) return this;
+        Graph r = reverse;
+        if (r != null) return r;
+        synchronized (this)
+        {
+            if (reverse == null) reverse = buildReverse();
+            return reverse;
+        }
+    }
 
-            for (int i = 0; i < numNodes; i++)
+    private Graph buildReverse()
+    {
+        int[] from = new int[numEdges];
+        int[] to = new int[numEdges];
+        int[] cost = new int[numEdges];
+        for (int i = 0; i < numNodes; i++)
+        {
+            for (int e = edgeBegin(i); e < edgeEnd(i); e++)
             {
-                buf = br.readLine();
-                String[] tokens = buf.split(" ");
-                labelsToIndices.put(tokens[0], i);
-                this.addNode(new CityNode(tokens[0], Float.parseFloat(tokens[1]), Float.parseFloat(tokens[2])));
+                from[e] = targets.get(e);
+                to[e] = i;
+                cost[e] = costs.get(e);
             }
-            br.readLine();
+        }
+
+        Graph r = new Graph(this, adjacency(numNodes, from, to, cost, numEdges), false);
+        r.reverse = this;
+        return r;
+    }
 
-            while ((buf = br.readLine()) != null)
+    /**
+     * The graph with every edge also going the opposite way at the same
+     * cost, for analyses that ignore direction; this graph if it is
+     * symmetric. Built anew on every call, sharing the nodes with this graph.
+     */
+    Graph undirected()
+    {
+        if (symmetric) return this;
+        int[] from = new int[2 * numEdges];
+        int[] to = new int[2 * numEdges];
+        int[] cost = new int[2 * numEdges];
+        for (int i = 0; i < numNodes; i++)
+        {
+            for (int e = edgeBegin(i); e < edgeEnd(i); e++)
             {
-                String[] tokens = buf.split(" ");
-                this.addEdge(labelsToIndices.get(tokens[0]), new Edge(labelsToIndices.get(tokens[1]), Integer.parseInt(tokens[2])));
-                this.addEdge(labelsToIndices.get(tokens[1]), new Edge(labelsToIndices.get(tokens[0]), Integer.parseInt(tokens[2])));
+                from[2 * e] = to[2 * e + 1] = i;
+                to[2 * e] = from[2 * e + 1] = targets.get(e);
+                cost[2 * e] = cost[2 * e + 1] = costs.get(e);
             }
         }
-        catch (IOException e) { e.printStackTrace(); System.exit(1); }
+
+        return new Graph(this, adjacency(numNodes, from, to, cost, 2 * numEdges), true);
+    }
+
+    /**
+     * Copy of the graph with the nodes renumbered so that nodes close to each
+     * other get close ids. Ids in a graph loaded from a file follow the file,
+     * so the nodes and edges a search touches one after the other lie far
+     * apart in memory; after reordering they mostly share cache lines and
+     * pages. Node and edge arrays are permuted together, labels and CityNodes
+     * move with their nodes, so getId and getNode(Point) keep working and only
+     * the ids differ; originalId maps them back. The copy is kept where this
+     * graph keeps its nodes: a graph of CityNodes is copied on the heap, a
+     * mapped or off-heap graph into off-heap memory, like toOffHeap makes.
+     *
+     * @param order how to number the nodes
+     * @return the reordered graph
+     */
+    public Graph reorder(NodeOrder order)
+    {
+        return permute(order == NodeOrder.HILBERT ? NodeOrdering.hilbert(this) : NodeOrdering.reverseCuthillMcKee(this));
     }
 
     /**
-     * Get the head of a linked list
-     * containing all outgoing edges from
-     * an origin.
+     * Copy of the graph where node order[i] becomes node i.
      *
-     * @param i index of origin
+     * @param order a permutation of the node ids
+     * @return the renumbered graph
      */
-    public Edge getAdjacents(int i) { return adjacencyList[i]; }
+    Graph permute(int[] order)
+    {
+        int[] newIds = new int[numNodes];
+        int[] originalIds = new int[numNodes];
+        for (int i = 0; i < numNodes; i++)
+        {
+            newIds[order[i]] = i;
+            originalIds[i] = originalId(order[i]);
+        }
+
+        // node i takes the edges of node order[i], so the CSR arrays fill in order
+        boolean offHeap = nodes == null;
+        IntArray newOffsets = offHeap ? IntArray.direct(numNodes + 1) : IntArray.of(new int[numNodes + 1]);
+        IntArray newTargets = offHeap ? IntArray.direct(numEdges) : IntArray.of(new int[numEdges]);
+        IntArray newCosts = offHeap ? IntArray.direct(numEdges) : IntArray.of(new int[numEdges]);
+        int arc = 0;
+        for (int i = 0; i < numNodes; i++)
+        {
+            newOffsets.set(i, arc);
+            for (int e = edgeBegin(order[i]), end = edgeEnd(order[i]); e < end; e++, arc++)
+            {
+                newTargets.set(arc, newIds[targets.get(e)]);
+                newCosts.set(arc, costs.get(e));
+            }
+        }
+        newOffsets.set(numNodes, arc);
+        IntArray[] adjacency = { newOffsets, newTargets, newCosts };
+
+        if (!offHeap)
+        {
+            CityNode[] newNodes = new CityNode[numNodes];
+            for (int i = 0; i < numNodes; i++) newNodes[i] = nodes[order[i]];
+            return new Graph(newNodes, null, null, null, null, null, adjacency, symmetric, originalIds);
+        }
+
+        IntArray newXs = IntArray.direct(numNodes), newYs = IntArray.direct(numNodes), newStarts = IntArray.direct(numNodes + 1);
+        ByteBuffer newBytes = ByteBuffer.allocateDirect(labelStarts.get(numNodes));
+        for (int i = 0; i < numNodes; i++)
+        {
+            newXs.set(i, xs.get(order[i]));
+            newYs.set(i, ys.get(order[i]));
+            newStarts.set(i, newBytes.position());
+            for (int b = labelStarts.get(order[i]), end = labelStarts.get(order[i] + 1); b < end; b++) newBytes.put(labelBytes.get(b));
+        }
+        newStarts.set(numNodes, newBytes.position());
+        newBytes.flip();
+        return offHeap(newXs, newYs, newStarts, newBytes, adjacency, symmetric, originalIds);
+    }
+
+    /** Whether the nodes and edges are kept off the heap, in direct buffers or a mapped file */
+    boolean isOffHeap() { return offsetArray == null; }
 
     /**
-     * Add a node to the array of nodes.
-     * Called from loadGraph.
+     * Id a node had before the graph was reordered.
      *
-     * @param node a CityNode to add to the graph
+     * @param nodeId id of the node in this graph
+     * @return its id in the graph reorder was called on first; nodeId if the graph was never reordered
      */
-    public void addNode(CityNode node) { nodes[labelsToIndices.get(node.getCity())] = node; }
+    public int originalId(int nodeId) { return originalIds != null ? originalIds[nodeId] : nodeId; }
 
     /**
-     * Return the number of nodes in the graph.
-     * @return number of nodes
+     * Counting sort of the arcs by origin into the CSR arrays.
+     * Arcs of the same origin keep their input order.
      */
-    public int numNodes() { return numNodes; }
+    private static IntArray[] adjacency(int numNodes, int[] from, int[] to, int[] cost, int numArcs)
+    {
+        int[] offsets = new int[numNodes + 1];
+        for (int i = 0; i < numArcs; i++) offsets[from[i] + 1]++;
+        for (int i = 0; i < numNodes; i++) offsets[i + 1] += offsets[i];
+
+        int[] targets = new int[numArcs];
+        int[] costs = new int[numArcs];
+        int[] next = Arrays.copyOf(offsets, numNodes);
+        for (int i = 0; i < numArcs; i++)
+        {
+            int e = next[from[i]]++;
+            targets[e] = to[i];
+            costs[e] = cost[i];
+        }
+        return new IntArray[] { IntArray.of(offsets), IntArray.of(targets), IntArray.of(costs) };
+    }
 
     /**
-     * Adds the edge to the linked list for the given nodeId
-     * Called from loadGraph.
+     * Index of the first outgoing edge of a node.
+     * The outgoing edges of nodeId are edgeBegin(nodeId) .. edgeEnd(nodeId)-1.
      *
      * @param nodeId id of the node
-     * @param edge edge to add
      */
-    public void addEdge(int nodeId, Edge edge)
+    public int edgeBegin(int nodeId) { return offsetArray != null ? offsetArray[nodeId] : offsets.get(nodeId); }
+
+    /**
+     * Index one past the last outgoing edge of a node.
+     *
+     * @param nodeId id of the node
+     */
+    public int edgeEnd(int nodeId) { return offsetArray != null ? offsetArray[nodeId + 1] : offsets.get(nodeId + 1); }
+
+    /**
+     * Destination node of an edge.
+     *
+     * @param e edge index
+     */
+    public int edgeTarget(int e) { return targetArray != null ? targetArray[e] : targets.get(e); }
+
+    /**
+     * Cost of an edge.
+     *
+     * @param e edge index
+     */
+    public int edgeCost(int e) { return costArray != null ? costArray[e] : costs.get(e); }
+
+    /**
+     * Change the cost of the edge from one node to another; on a symmetric
+     * graph the edge back changes too, and so does the reverse graph if it
+     * was built.
+     * Not safe while queries run on the graph: searches read costs without
+     * locking, so one that runs at the same time may see the old cost of
+     * some edges and the new cost of others, and return a path that is not
+     * shortest under either. Stop the queries first. Calls to setEdgeCost
+     * itself are serialized.
+     * Whatever was computed from the old costs (paths, trees, landmarks,
+     * contraction hierarchies) is stale afterwards; a RouteCache notices
+     * through version() and drops its paths, and a DynamicShortestPathTree
+     * can be repaired with edgeCostChanged.
+     *
+     * @param from id of the node the edge leaves
+     * @param to id of the node the edge enters
+     * @param cost new cost, not negative
+     * @throws IllegalArgumentException if there is no such edge or the cost is negative
+     * @throws java.nio.ReadOnlyBufferException if the graph is mapped from a file
+     */
+    public synchronized void setEdgeCost(int from, int to, int cost)
     {
-        numEdges++;
+        if (cost < 0) throw new IllegalArgumentException("negative cost " + cost);
+        if (setCosts(from, to, cost) == 0) throw new IllegalArgumentException("no edge " + from + " -> " + to);
+        if (symmetric) setCosts(to, from, cost);
+        else if (reverse != null)
+        {
+            reverse.setCosts(to, from, cost);
+            reverse.version++;
+        }
+        version++;
+    }
+
+    /**
+     * Number of edge cost changes made so far, through setEdgeCost on this
+     * graph or on its reverse. Results computed while it had one value are
+     * stale once it has another.
+     * @return the version of the edge costs
+     */
+    public long version() { return version; }
 
-        if (adjacencyList[nodeId] == null) adjacencyList[nodeId] = edge;
-        else adjacencyList[nodeId].add(edge);
+    /** Set the cost of every parallel edge from -> to; returns how many there are */
+    private int setCosts(int from, int to, int cost)
+    {
+        int count = 0;
+        for (int e = edgeBegin(from); e < edgeEnd(from); e++)
+        {
+            if (targets.get(e) != to) continue;
+            costs.set(e, cost);
+            count++;
+        }
+        return count;
     }
 
+    /**
+     * Return the number of nodes in the graph.
+     * @return number of nodes
+     */
+    public int numNodes() { return numNodes; }
+
+    /**
+     * Return the number of directed edges in the graph.
+     * Every line of the ARCS section counts twice, once per direction.
+     * @return number of edges
+     */
+    public int numEdges() { return numEdges; }
+
     /**
      * Returns an integer id of the given city node
      * @param city node of the graph
      * @return its integer id
+     * @throws IllegalArgumentException if no node of the graph has the city's label
      */
-    public int getId(CityNode city) { return labelsToIndices.get(city.getCity()); }
+    public int getId(CityNode city)
+    {
+        Integer id;
+        if (nodes != null) id = labels().get(city.getCity());
+        else id = LabelIndex.find(labelIndex, labelStarts, labelBytes, city.getCity().getBytes(StandardCharsets.UTF_8));
+        if (id == null || id < 0) throw new IllegalArgumentException("no node " + city.getCity());
+        return id;
+    }
+
+    /** Map from labels to ids of a graph of CityNodes, built on first use */
+    private Map<String, Integer> labels()
+    {
+        Map<String, Integer> map = labelsToIndices;
+        if (map != null) return map;
+        synchronized (this)
+        {
+            if (labelsToIndices == null)
+            {
+                map = new HashMap<>(numNodes * 2);
+                for (int i = 0; i < numNodes; i++) map.put(nodes[i].getCity(), i);
+                labelsToIndices = map;
+            }
+            return labelsToIndices;
+        }
+    }
+
+    /** Hash table of the label dictionary of a graph without CityNodes; null for a graph of CityNodes */
+    IntArray labelIndex() { return labelIndex; }
+
+    private boolean hasNodes() { return nodes != null || xs != null; }
+
+    private Point location(int nodeId)
+    {
+        return nodes != null ? nodes[nodeId].getLocation() : new Point(xs.get(nodeId), ys.get(nodeId));
+    }
+
+    private String label(int nodeId)
+    {
+        if (nodes != null) return nodes[nodeId].getCity();
+
+        byte[] bytes = new byte[labelStarts.get(nodeId + 1) - labelStarts.get(nodeId)];
+        for (int i = 0; i < bytes.length; i++) bytes[i] = labelBytes.get(labelStarts.get(nodeId) + i);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
 
     /**
      * Return the edges of the graph as a 2D array of points.
@@ -115,20 +629,16 @@ public class Graph
      */
     public Point[][] getEdges()
     {
-        if (adjacencyList == null || adjacencyList.length == 0) return null;
+        if (offsets == null || numEdges == 0) return null;
 
         Point[][] edges2D = new Point[numEdges][2];
 
-        int ie = 0;
         for (int i = 0; i < numNodes; i++)
         {
-            Edge eiq = adjacencyList[i];
-            while (eiq != null)
+            for (int e = edgeBegin(i); e < edgeEnd(i); e++)
             {
-                edges2D[ie][0] = nodes[i].getLocation();
-                edges2D[ie][1] = nodes[eiq.neighbor()].getLocation();
-                ie++;
-                eiq = eiq.next();
+                edges2D[e][0] = location(i);
+                edges2D[e][1] = location(edgeTarget(e));
             }
         }
 
@@ -142,10 +652,10 @@ public class Graph
      */
     public Point[] getNodes()
     {
-        if (nodes == null) return null;
+        if (!hasNodes()) return null;
 
-        Point[] nodes = new Point[this.nodes.length];
-        for (int i = 0; i < nodes.length; i++) nodes[i] = this.nodes[i].getLocation();
+        Point[] nodes = new Point[numNodes];
+        for (int i = 0; i < nodes.length; i++) nodes[i] = location(i);
 
         return nodes;
     }
@@ -157,10 +667,10 @@ public class Graph
      */
     public String[] getCities()
     {
-        if (this.nodes == null) return null;
+        if (!hasNodes()) return null;
 
-        String[] labels = new String[nodes.length];
-        for (int i = 0; i < nodes.length; i++) labels[i] = nodes[i].getCity();
+        String[] labels = new String[numNodes];
+        for (int i = 0; i < labels.length; i++) labels[i] = label(i);
 
         return labels;
     }
@@ -176,36 +686,73 @@ public class Graph
 
         for (int i = 0; i < edges2D.length; i++)
         {
-            edges2D[i][0] = nodes[pathOfNodes.get(i)].getLocation();
-            edges2D[i][1] = nodes[pathOfNodes.get(i+1)].getLocation();
+            edges2D[i][0] = location(pathOfNodes.get(i));
+            edges2D[i][1] = location(pathOfNodes.get(i+1));
         }
 
         return edges2D;
     }
 
     /**
-     * Return the CityNode for the given nodeId
+     * Return the CityNode for the given nodeId.
+     * Graphs mapped from a binary file or kept off the heap make a new CityNode on every call.
      * @param nodeId id of the node
      * @return CityNode
      */
-    public CityNode getNode(int nodeId) { return nodes[nodeId]; }
+    public CityNode getNode(int nodeId) { return nodes != null ? nodes[nodeId] : cityNode(nodeId); }
+
+    /**
+     * CityNode of a mapped node. CityNode only keeps its location in pixels,
+     * so the coordinates passed to it are chosen to round back to that
+     * location: the middle of the interval that truncates to it.
+     */
+    private CityNode cityNode(int nodeId)
+    {
+        int x = xs.get(nodeId), y = ys.get(nodeId);
+        double px = (x + (x >= 0 ? 0.5 : -0.5)) * 7.0 / 507;
+        double py = (289 - (y + (y >= 0 ? 0.5 : -0.5))) * 4.0 / 289;
+        return new CityNode(label(nodeId), px, py);
+    }
 
     /**
      * Take the location of the mouse click as a parameter, and return the node
-     * of the graph at this location. Needed in GUIApp class. No need to modify.
+     * of the graph at this location. Needed in GUIApp class.
      * @param loc the location of the mouse click
      * @return reference to the corresponding CityNode
      */
     public CityNode getNode(Point loc)
     {
-        if (nodes == null) return null;
+        if (!hasNodes()) return null;
+
+        int id = spatialIndex().firstWithin(loc.x, loc.y, EPS_DIST);
+        return id < 0 ? null : getNode(id);
+    }
+
+    /**
+     * Return the node closest to a point, e.g. to snap a position to the graph.
+     * @param loc the point
+     * @return the closest CityNode; null if the graph has no nodes
+     */
+    public CityNode nearestNode(Point loc)
+    {
+        if (!hasNodes()) return null;
+
+        int id = spatialIndex().nearest(loc.x, loc.y);
+        return id < 0 ? null : getNode(id);
+    }
 
-        for (CityNode v : nodes)
+    /**
+     * Grid index over the node locations, built on the first call.
+     * @return the spatial index of this graph
+     */
+    public SpatialIndex spatialIndex()
+    {
+        SpatialIndex index = spatialIndex;
+        if (index != null) return index;
+        synchronized (this)
         {
-            Point p = v.getLocation();
-            if ((Math.abs(loc.x - p.x) < EPS_DIST) && (Math.abs(loc.y - p.y) < EPS_DIST))
-                return v;
+            if (spatialIndex == null) spatialIndex = new SpatialIndex(this);
+            return spatialIndex;
         }
-        return null;
     }
 }
\ No newline at end of file
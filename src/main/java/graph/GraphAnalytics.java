@@ -0,0 +1,401 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/** Network design analyses of a graph: minimum spanning trees, connected
+ *  components, bridges and articulation points.
+ *  They all ignore the direction of edges: on a graph that is not
+ *  symmetric an edge either way joins its two nodes, at the cheapest cost
+ *  found between them. On a graph of several components a spanning tree is
+ *  a spanning forest, one tree per component. Everything runs on primitive
+ *  arrays, and only Boruvka's algorithm uses more than the calling thread.
+ */
+public final class GraphAnalytics
+{
+    private static final long NONE = Long.MAX_VALUE;
+
+    private GraphAnalytics() { }
+
+    /**
+     * Minimum spanning tree by Prim's algorithm: each tree grows from its
+     * first node by the cheapest edge out of it, found with an indexed
+     * PriorityQueue keyed by the cheapest edge into each node.
+     *
+     * @param graph the graph
+     * @return the edges of the tree
+     */
+    public static EdgeList primMinimumSpanningTree(Graph graph)
+    {
+        Graph u = graph.undirected();
+        int n = u.numNodes();
+        PriorityQueue pq = new PriorityQueue(n);
+        int[] best = new int[n];    //cost of the cheapest edge from the tree
+        int[] parent = new int[n];  //node at the tree end of that edge
+        boolean[] inTree = new boolean[n];
+        Arrays.fill(best, Integer.MAX_VALUE);
+        Edges tree = new Edges(Math.max(n - 1, 0));
+
+        for (int root = 0; root < n; root++)
+        {
+            if (inTree[root]) continue;
+            best[root] = 0;
+            parent[root] = -1;
+            pq.insert(root, 0);
+            while (!pq.isEmpty())
+            {
+                int v = pq.removeMin();
+                inTree[v] = true;
+                if (parent[v] >= 0) tree.add(parent[v], v, best[v]);
+                for (int e = u.edgeBegin(v), end = u.edgeEnd(v); e < end; e++)
+                {
+                    int t = u.edgeTarget(e);
+                    int cost = u.edgeCost(e);
+                    if (inTree[t] || cost >= best[t]) continue;
+                    best[t] = cost;
+                    parent[t] = v;
+                    pq.insertOrDecrease(t, cost);
+                }
+            }
+        }
+        return tree.toEdgeList();
+    }
+
+    /**
+     * Minimum spanning tree by Kruskal's algorithm: edges in order of cost,
+     * each kept unless union-find shows it closes a cycle.
+     *
+     * @param graph the graph
+     * @return the edges of the tree
+     */
+    public static EdgeList kruskalMinimumSpanningTree(Graph graph)
+    {
+        int n = graph.numNodes();
+        Edges edges = undirectedEdges(graph);
+        long[] keys = new long[edges.size];
+        for (int i = 0; i < edges.size; i++) keys[i] = key(edges, i);
+        Arrays.sort(keys);
+
+        UnionFind sets = new UnionFind(n);
+        Edges tree = new Edges(Math.max(n - 1, 0));
+        for (int k = 0; k < keys.length && tree.size < n - 1; k++)
+        {
+            int i = (int) keys[k];
+            if (sets.union(edges.from[i], edges.to[i])) tree.add(edges.from[i], edges.to[i], edges.costs[i]);
+        }
+        return tree.toEdgeList();
+    }
+
+    /**
+     * Minimum spanning tree by Boruvka's algorithm on the common pool.
+     *
+     * @param graph the graph
+     * @return the edges of the tree
+     */
+    public static EdgeList boruvkaMinimumSpanningTree(Graph graph) { return boruvkaMinimumSpanningTree(graph, ForkJoinPool.commonPool()); }
+
+    /**
+     * Minimum spanning tree by Boruvka's algorithm, for graphs of millions of
+     * edges. Every round each component picks its cheapest edge to another
+     * component and all of them join the tree at once, so there are at most
+     * log2(n) rounds. The edges are scanned in parallel: each one lowers the
+     * pick of the components at its two ends by compare-and-set on the
+     * packed cost and edge index, which also breaks ties between equal costs
+     * the same way everywhere, so the picks never close a cycle. Edges inside
+     * a component are dropped after every round.
+     *
+     * @param graph the graph
+     * @param pool pool that runs the parallel scans
+     * @return the edges of the tree
+     */
+    public static EdgeList boruvkaMinimumSpanningTree(Graph graph, ForkJoinPool pool)
+    {
+        int n = graph.numNodes();
+        Edges edges = undirectedEdges(graph);
+        UnionFind sets = new UnionFind(n);
+        int[] component = new int[n];  //root of the component of each node when the round started
+        int[] rootOf = new int[n];     //root of the component of each round-start root after merging
+        AtomicLongArray pick = new AtomicLongArray(n);
+        for (int v = 0; v < n; v++)
+        {
+            component[v] = v;
+            pick.set(v, NONE);
+        }
+        int[] roots = IntStream.range(0, n).toArray();
+        int[] live = IntStream.range(0, edges.size).toArray();
+        Edges tree = new Edges(Math.max(n - 1, 0));
+
+        try
+        {
+            while (true)
+            {
+                int[] current = live;
+                live = pool.submit(() -> IntStream.of(current).parallel()
+                        .filter(i -> component[edges.from[i]] != component[edges.to[i]]).toArray()).get();
+                if (live.length == 0) break;
+
+                int[] scan = live;
+                pool.submit(() -> IntStream.of(scan).parallel().forEach(i ->
+                {
+                    long key = key(edges, i);
+                    lower(pick, component[edges.from[i]], key);
+                    lower(pick, component[edges.to[i]], key);
+                })).get();
+
+                for (int r : roots)
+                {
+                    long key = pick.get(r);
+                    if (key == NONE) continue;
+                    pick.set(r, NONE);
+                    int i = (int) key;
+                    if (sets.union(edges.from[i], edges.to[i])) tree.add(edges.from[i], edges.to[i], edges.costs[i]);
+                }
+                int merged = 0;
+                for (int r : roots)
+                {
+                    rootOf[r] = sets.find(r);
+                    if (rootOf[r] == r) roots[merged++] = r;
+                }
+                roots = Arrays.copyOf(roots, merged);
+                pool.submit(() -> IntStream.range(0, n).parallel().forEach(v -> component[v] = rootOf[component[v]])).get();
+            }
+        }
+        catch (InterruptedException | ExecutionException e) { throw new IllegalStateException(e); }
+        return tree.toEdgeList();
+    }
+
+    /**
+     * Connected components, found by breadth first search.
+     *
+     * @param graph the graph
+     * @return the component of each node, numbered from 0 in order of their
+     *         lowest node id; the number of components is the largest plus one
+     */
+    public static int[] connectedComponents(Graph graph)
+    {
+        Graph u = graph.undirected();
+        int n = u.numNodes();
+        int[] component = new int[n];
+        Arrays.fill(component, -1);
+        int[] queue = new int[n];
+        int count = 0;
+        for (int s = 0; s < n; s++)
+        {
+            if (component[s] >= 0) continue;
+            int head = 0, tail = 0;
+            queue[tail++] = s;
+            component[s] = count;
+            while (head < tail)
+            {
+                int v = queue[head++];
+                for (int e = u.edgeBegin(v), end = u.edgeEnd(v); e < end; e++)
+                {
+                    int t = u.edgeTarget(e);
+                    if (component[t] >= 0) continue;
+                    component[t] = count;
+                    queue[tail++] = t;
+                }
+            }
+            count++;
+        }
+        return component;
+    }
+
+    /**
+     * Edges whose removal disconnects their two nodes. Several edges between
+     * the same two nodes count as one, so a double edge can still be a bridge.
+     *
+     * @param graph the graph
+     * @return the bridges, each with the cost of the cheapest edge between its nodes
+     */
+    public static EdgeList bridges(Graph graph)
+    {
+        Edges bridges = new Edges(16);
+        lowLinks(graph.undirected(), null, bridges);
+        return bridges.toEdgeList();
+    }
+
+    /**
+     * Nodes whose removal disconnects their component.
+     *
+     * @param graph the graph
+     * @return the articulation points, in increasing order
+     */
+    public static int[] articulationPoints(Graph graph)
+    {
+        boolean[] cut = new boolean[graph.numNodes()];
+        lowLinks(graph.undirected(), cut, null);
+        return IntStream.range(0, cut.length).filter(v -> cut[v]).toArray();
+    }
+
+    /**
+     * Tarjan's depth first search, with an explicit stack so deep graphs do
+     * not overflow the thread's: low[v] is the earliest discovery time
+     * reachable from the subtree of v by one edge that is not a tree edge.
+     * Fills in cut and bridges when they are not null.
+     */
+    private static void lowLinks(Graph u, boolean[] cut, Edges bridges)
+    {
+        int n = u.numNodes();
+        int[] discovered = new int[n];  //discovery time from 1; 0 while not discovered
+        int[] low = new int[n];
+        int[] parent = new int[n];
+        int[] next = new int[n];        //next edge of the node to follow
+        int[] stack = new int[n];
+        int time = 0;
+
+        for (int root = 0; root < n; root++)
+        {
+            if (discovered[root] != 0) continue;
+            int children = 0, top = 0;
+            parent[root] = -1;
+            discovered[root] = low[root] = ++time;
+            next[root] = u.edgeBegin(root);
+            stack[top++] = root;
+            while (top > 0)
+            {
+                int v = stack[top - 1];
+                if (next[v] < u.edgeEnd(v))
+                {
+                    int t = u.edgeTarget(next[v]++);
+                    if (t == parent[v] || t == v) continue;
+                    if (discovered[t] == 0)
+                    {
+                        parent[t] = v;
+                        discovered[t] = low[t] = ++time;
+                        next[t] = u.edgeBegin(t);
+                        stack[top++] = t;
+                        if (v == root) children++;
+                    }
+                    else low[v] = Math.min(low[v], discovered[t]);
+                    continue;
+                }
+
+                top--;
+                int p = parent[v];
+                if (p < 0) continue;
+                low[p] = Math.min(low[p], low[v]);
+                if (bridges != null && low[v] > discovered[p]) bridges.add(p, v, cheapestCost(u, p, v));
+                if (cut != null && p != root && low[v] >= discovered[p]) cut[p] = true;
+            }
+            if (cut != null && children > 1) cut[root] = true;
+        }
+    }
+
+    private static int cheapestCost(Graph u, int from, int to)
+    {
+        int best = Integer.MAX_VALUE;
+        for (int e = u.edgeBegin(from), end = u.edgeEnd(from); e < end; e++)
+        {
+            if (u.edgeTarget(e) == to) best = Math.min(best, u.edgeCost(e));
+        }
+        return best;
+    }
+
+    /** Every edge once, as the arc from its lower node; loops are left out */
+    private static Edges undirectedEdges(Graph graph)
+    {
+        Graph u = graph.undirected();
+        Edges edges = new Edges(u.numEdges() / 2);
+        for (int v = 0; v < u.numNodes(); v++)
+        {
+            for (int e = u.edgeBegin(v), end = u.edgeEnd(v); e < end; e++)
+            {
+                if (v < u.edgeTarget(e)) edges.add(v, u.edgeTarget(e), u.edgeCost(e));
+            }
+        }
+        return edges;
+    }
+
+    /** Cost in the high half and index in the low half, so keys order edges by cost, then index */
+    private static long key(Edges edges, int i) { return ((long) edges.costs[i] << 32) | i; }
+
+    private static void lower(AtomicLongArray pick, int component, long key)
+    {
+        long current;
+        do
+        {
+            current = pick.get(component);
+            if (key >= current) return;
+        }
+        while (!pick.compareAndSet(component, current, key));
+    }
+
+    /** Growable parallel arrays of edges */
+    private static final class Edges
+    {
+        int[] from, to, costs;
+        int size;
+
+        Edges(int capacity)
+        {
+            capacity = Math.max(capacity, 16);
+            from = new int[capacity];
+            to = new int[capacity];
+            costs = new int[capacity];
+        }
+
+        void add(int a, int b, int cost)
+        {
+            if (size == from.length)
+            {
+                from = Arrays.copyOf(from, size * 2);
+                to = Arrays.copyOf(to, size * 2);
+                costs = Arrays.copyOf(costs, size * 2);
+            }
+            from[size] = a;
+            to[size] = b;
+            costs[size++] = cost;
+        }
+
+        EdgeList toEdgeList() { return new EdgeList(from, to, costs, size); }
+    }
+
+    /** Disjoint sets with union by size and path halving */
+    private static final class UnionFind
+    {
+        private final int[] parent;
+        private final int[] size;
+
+        UnionFind(int n)
+        {
+            parent = new int[n];
+            size = new int[n];
+            for (int i = 0; i < n; i++)
+            {
+                parent[i] = i;
+                size[i] = 1;
+            }
+        }
+
+        int find(int v)
+        {
+            while (parent[v] != v)
+            {
+                parent[v] = parent[parent[v]];
+                v = parent[v];
+            }
+            return v;
+        }
+
+        /** @return false if a and b were already in the same set */
+        boolean union(int a, int b)
+        {
+            a = find(a);
+            b = find(b);
+            if (a == b) return false;
+            if (size[a] < size[b])
+            {
+                int t = a;
+                a = b;
+                b = t;
+            }
+            parent[b] = a;
+            size[a] += size[b];
+            return true;
+        }
+    }
+}
@@ -0,0 +1,1275 @@
+package graph;
+
+import java.awt.Point;
+import java.io.*;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/** The driver class for the graph benchmarks.
+ *  Run with the name of a benchmark as the first argument, e.g.
+ *  "footprint 1000000".
+ */
+public class GraphBenchmarkDriver
+{
+    public static void main(String[] args) throws Exception
+    {
+        String name = args.length > 0 ? args[0] : "footprint";
+        switch (name)
+        {
+            case "footprint":
+                footprint(intArg(args, 1, 1_000_000));
+                break;
+            case "p2p":
+                pointToPoint(intArg(args, 1, 1_000_000), intArg(args, 2, 100));
+                break;
+            case "bidir":
+                bidirectional(intArg(args, 1, 1_000_000), intArg(args, 2, 100));
+                break;
+            case "astar":
+                aStar(intArg(args, 1, 1_000_000), intArg(args, 2, 100));
+                break;
+            case "alt":
+                alt(intArg(args, 1, 1_000_000), intArg(args, 2, 16), intArg(args, 3, 100));
+                break;
+            case "ch":
+                contractionHierarchy(intArg(args, 1, 100_000), intArg(args, 2, 1000));
+                break;
+            case "queues":
+                queues(intArg(args, 1, 1_000_000), intArg(args, 2, 50));
+                break;
+            case "workspace":
+                workspace(intArg(args, 1, 1_000_000), intArg(args, 2, 10_000));
+                break;
+            case "throughput":
+                throughput(intArg(args, 1, 250_000), intArg(args, 2, 400));
+                break;
+            case "matrix":
+                matrix(intArg(args, 1, 20_000), intArg(args, 2, 100));
+                break;
+            case "load":
+                load(intArg(args, 1, 50_000_000), args.length > 2 ? args[2] : "edges.txt");
+                break;
+            case "binary":
+                binary(intArg(args, 1, 1_000_000), args.length > 2 ? args[2] : "graph");
+                break;
+            case "snap":
+                snap(intArg(args, 1, 1_000_000), intArg(args, 2, 1_000_000));
+                break;
+            case "cache":
+                cache(intArg(args, 1, 100_000), intArg(args, 2, 10_000));
+                break;
+            case "dynamic":
+                dynamic(intArg(args, 1, 200_000), intArg(args, 2, 2_000));
+                break;
+            case "delta":
+                deltaStepping(intArg(args, 1, 1_000_000), intArg(args, 2, 0));
+                break;
+            case "metrics":
+                metrics(intArg(args, 1, 200_000), intArg(args, 2, 500));
+                break;
+            case "routes":
+                routes(intArg(args, 1, 200_000), intArg(args, 2, 50), intArg(args, 3, 5));
+                break;
+            case "reorder":
+                reorder(intArg(args, 1, 1_000_000), intArg(args, 2, 50));
+                break;
+            case "analytics":
+                analytics(intArg(args, 1, 1_000_000));
+                break;
+            case "batch":
+                batch(intArg(args, 1, 200_000), intArg(args, 2, 1000), intArg(args, 3, 20));
+                break;
+            case "isochrone":
+                isochrone(intArg(args, 1, 1_000_000), intArg(args, 2, 20));
+                break;
+            case "offheap":
+                offHeap(intArg(args, 1, 20_000_000), args.length > 2 ? args[2] : "edges.txt");
+                break;
+            default:
+                System.out.println("Unknown benchmark: " + name);
+        }
+    }
+
+    /**
+     * Compare the heap used by the CSR adjacency arrays with the heap used by
+     * the per-node linked lists of edge objects that Graph used to keep.
+     * Both structures are rebuilt from the same generated graph and measured
+     * as the difference in used heap before and after they are built.
+     *
+     * @param numNodes number of nodes of the generated graph
+     */
+    static void footprint(int numNodes)
+    {
+        Graph g = GraphGenerator.randomGeometric(numNodes, 6.0, 1);
+        int n = g.numNodes();
+        int m = g.numEdges();
+        System.out.println("nodes: " + n + ", edges: " + m);
+
+        long before = usedHeap();
+        int[] offsets = new int[n + 1];
+        int[] targets = new int[m];
+        int[] costs = new int[m];
+        for (int i = 0; i < n; i++)
+        {
+            offsets[i + 1] = g.edgeEnd(i);
+            for (int e = g.edgeBegin(i); e < g.edgeEnd(i); e++)
+            {
+                targets[e] = g.edgeTarget(e);
+                costs[e] = g.edgeCost(e);
+            }
+        }
+        long csr = usedHeap() - before;
+
+        before = usedHeap();
+        ListEdge[] heads = new ListEdge[n];
+        for (int i = 0; i < n; i++)
+        {
+            ListEdge tail = null;
+            for (int e = g.edgeBegin(i); e < g.edgeEnd(i); e++)
+            {
+                ListEdge edge = new ListEdge(g.edgeTarget(e), g.edgeCost(e));
+                if (tail == null) heads[i] = edge;
+                else tail.next = edge;
+                tail = edge;
+            }
+        }
+        long lists = usedHeap() - before;
+
+        System.out.printf("CSR arrays:   %,d bytes (%.1f per edge)%n", csr, (double) csr / m);
+        System.out.printf("edge lists:   %,d bytes (%.1f per edge)%n", lists, (double) lists / m);
+        System.out.printf("ratio:        %.2fx%n", (double) lists / csr);
+
+        // keep both structures reachable until after the measurement
+        if (offsets[n] + targets.length + costs.length + heads.length == 0) System.out.println();
+    }
+
+    /**
+     * Random point-to-point queries on a generated grid; reports the average
+     * number of settled nodes and the average query time.
+     *
+     * @param numNodes approximate number of nodes of the grid
+     * @param queries number of queries
+     */
+    static void pointToPoint(int numNodes, int queries)
+    {
+        int side = (int) Math.sqrt(numNodes);
+        Graph g = GraphGenerator.grid(side, side, 1);
+        Dijkstra dijkstra = new Dijkstra(g);
+        System.out.println("nodes: " + g.numNodes() + ", edges: " + g.numEdges());
+
+        Random rnd = new Random(2);
+        SearchStats stats = new SearchStats();
+        long settled = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < queries; i++)
+        {
+            dijkstra.computeShortestPath(rnd.nextInt(g.numNodes()), rnd.nextInt(g.numNodes()), stats);
+            settled += stats.settledNodes();
+        }
+        long nanos = System.nanoTime() - start;
+
+        System.out.printf("avg settled:  %,d (%.1f%% of nodes)%n", settled / queries, 100.0 * settled / queries / g.numNodes());
+        System.out.printf("avg time:     %.2f ms%n", nanos / 1e6 / queries);
+    }
+
+    /**
+     * Compare unidirectional and bidirectional point-to-point queries on a
+     * generated grid and a random geometric graph of about numNodes nodes.
+     *
+     * @param numNodes approximate number of nodes of each graph
+     * @param queries number of queries per graph
+     */
+    static void bidirectional(int numNodes, int queries)
+    {
+        int side = (int) Math.sqrt(numNodes);
+        Graph[] graphs = { GraphGenerator.grid(side, side, 1), GraphGenerator.randomGeometric(numNodes, 8.0, 1) };
+        String[] names = { "grid", "geometric" };
+
+        for (int k = 0; k < graphs.length; k++)
+        {
+            Graph g = graphs[k];
+            Dijkstra dijkstra = new Dijkstra(g);
+            System.out.println(names[k] + " - nodes: " + g.numNodes() + ", edges: " + g.numEdges());
+
+            int[] origins = new int[queries];
+            int[] destinations = new int[queries];
+            Random rnd = new Random(2);
+            for (int i = 0; i < queries; i++)
+            {
+                origins[i] = rnd.nextInt(g.numNodes());
+                destinations[i] = rnd.nextInt(g.numNodes());
+            }
+
+            SearchStats stats = new SearchStats();
+            long settledUni = 0, settledBi = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < queries; i++)
+            {
+                dijkstra.computeShortestPath(origins[i], destinations[i], stats);
+                settledUni += stats.settledNodes();
+            }
+            long nanosUni = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < queries; i++)
+            {
+                dijkstra.computeShortestPathBidirectional(origins[i], destinations[i], stats);
+                settledBi += stats.settledNodes();
+            }
+            long nanosBi = System.nanoTime() - start;
+
+            System.out.printf("  unidirectional: %,10d settled, %8.2f ms%n", settledUni / queries, nanosUni / 1e6 / queries);
+            System.out.printf("  bidirectional:  %,10d settled, %8.2f ms%n", settledBi / queries, nanosBi / 1e6 / queries);
+        }
+    }
+
+    /**
+     * Compare plain Dijkstra with A* using the calibrated euclidean heuristic
+     * on the same random queries over a random geometric graph.
+     *
+     * @param numNodes number of nodes of the graph
+     * @param queries number of queries
+     */
+    static void aStar(int numNodes, int queries)
+    {
+        Graph g = GraphGenerator.randomGeometric(numNodes, 8.0, 1);
+        Dijkstra dijkstra = new Dijkstra(g);
+        EuclideanHeuristic heuristic = new EuclideanHeuristic(g);
+        System.out.println("nodes: " + g.numNodes() + ", edges: " + g.numEdges() + ", scale: " + heuristic.scale());
+
+        Random rnd = new Random(2);
+        SearchStats stats = new SearchStats();
+        long settledPlain = 0, settledAStar = 0, nanosPlain = 0, nanosAStar = 0;
+        for (int i = 0; i < queries; i++)
+        {
+            int origin = rnd.nextInt(g.numNodes());
+            int destination = rnd.nextInt(g.numNodes());
+
+            long start = System.nanoTime();
+            dijkstra.computeShortestPath(origin, destination, stats);
+            nanosPlain += System.nanoTime() - start;
+            settledPlain += stats.settledNodes();
+
+            start = System.nanoTime();
+            dijkstra.computeShortestPath(origin, destination, heuristic, stats);
+            nanosAStar += System.nanoTime() - start;
+            settledAStar += stats.settledNodes();
+        }
+
+        System.out.printf("  dijkstra: %,10d settled, %8.2f ms%n", settledPlain / queries, nanosPlain / 1e6 / queries);
+        System.out.printf("  A*:       %,10d settled, %8.2f ms%n", settledAStar / queries, nanosAStar / 1e6 / queries);
+    }
+
+    /**
+     * Compare plain Dijkstra, euclidean A* and ALT with both landmark
+     * selection strategies on the same random queries.
+     *
+     * @param numNodes number of nodes of the random geometric graph
+     * @param numLandmarks number of landmarks
+     * @param queries number of queries
+     */
+    static void alt(int numNodes, int numLandmarks, int queries)
+    {
+        Graph g = GraphGenerator.randomGeometric(numNodes, 8.0, 1);
+        Dijkstra dijkstra = new Dijkstra(g);
+        System.out.println("nodes: " + g.numNodes() + ", edges: " + g.numEdges());
+
+        String[] names = { "dijkstra", "euclidean", "alt-farthest", "alt-avoid" };
+        Heuristic[] heuristics = new Heuristic[names.length];
+        heuristics[1] = new EuclideanHeuristic(g);
+        long start = System.nanoTime();
+        heuristics[2] = Landmarks.select(g, numLandmarks, Landmarks.Selection.FARTHEST, 3);
+        System.out.printf("farthest preprocessing: %.1f s%n", (System.nanoTime() - start) / 1e9);
+        start = System.nanoTime();
+        heuristics[3] = Landmarks.select(g, numLandmarks, Landmarks.Selection.AVOID, 3);
+        System.out.printf("avoid preprocessing:    %.1f s%n", (System.nanoTime() - start) / 1e9);
+
+        for (int k = 0; k < names.length; k++)
+        {
+            Random rnd = new Random(2);
+            SearchStats stats = new SearchStats();
+            long settled = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < queries; i++)
+            {
+                dijkstra.computeShortestPath(rnd.nextInt(g.numNodes()), rnd.nextInt(g.numNodes()), heuristics[k], stats);
+                settled += stats.settledNodes();
+            }
+            long nanos = System.nanoTime() - start;
+            System.out.printf("  %-13s %,10d settled, %8.2f ms%n", names[k], settled / queries, nanos / 1e6 / queries);
+        }
+    }
+
+    /**
+     * Preprocess a generated grid into a contraction hierarchy and compare
+     * its query time with bidirectional Dijkstra.
+     *
+     * @param numNodes approximate number of nodes of the grid
+     * @param queries number of queries
+     */
+    static void contractionHierarchy(int numNodes, int queries)
+    {
+        int side = (int) Math.sqrt(numNodes);
+        Graph g = GraphGenerator.grid(side, side, 1);
+        Dijkstra dijkstra = new Dijkstra(g);
+        System.out.println("nodes: " + g.numNodes() + ", edges: " + g.numEdges());
+
+        long start = System.nanoTime();
+        ContractionHierarchy ch = ContractionHierarchy.build(g);
+        System.out.printf("preprocessing: %.1f s, %,d hierarchy edges%n", (System.nanoTime() - start) / 1e9, ch.numEdges());
+
+        int[] origins = new int[queries];
+        int[] destinations = new int[queries];
+        Random rnd = new Random(2);
+        for (int i = 0; i < queries; i++)
+        {
+            origins[i] = rnd.nextInt(g.numNodes());
+            destinations[i] = rnd.nextInt(g.numNodes());
+        }
+
+        SearchStats stats = new SearchStats();
+        long settled = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < queries; i++)
+        {
+            ch.computeShortestPath(origins[i], destinations[i], stats);
+            settled += stats.settledNodes();
+        }
+        long nanos = System.nanoTime() - start;
+        System.out.printf("  CH:            %,10d settled, %10.1f us%n", settled / queries, nanos / 1e3 / queries);
+
+        int sample = Math.min(queries, 20);
+        settled = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < sample; i++)
+        {
+            dijkstra.computeShortestPathBidirectional(origins[i], destinations[i], stats);
+            settled += stats.settledNodes();
+        }
+        nanos = System.nanoTime() - start;
+        System.out.printf("  bidirectional: %,10d settled, %10.1f us%n", settled / sample, nanos / 1e3 / sample);
+    }
+
+    /**
+     * Time point-to-point queries with each priority queue implementation,
+     * on a grid with small edge costs (1..10) and with large ones (1..10^6).
+     *
+     * @param numNodes approximate number of nodes of the grid
+     * @param queries number of queries per graph and queue
+     */
+    static void queues(int numNodes, int queries)
+    {
+        int side = (int) Math.sqrt(numNodes);
+        Graph grid = GraphGenerator.grid(side, side, 1);
+        int[] maxCosts = { 10, 1_000_000 };
+        String[] names = { "binary", "4-ary", "radix" };
+        List<IntFunction<IndexedPriorityQueue>> factories = Arrays.asList(PriorityQueue::new, DaryHeap::new, RadixHeap::new);
+
+        for (int maxCost : maxCosts)
+        {
+            Graph g = GraphGenerator.withRandomCosts(grid, maxCost, 3);
+            System.out.println("nodes: " + g.numNodes() + ", edges: " + g.numEdges() + ", costs 1.." + maxCost);
+
+            for (int k = 0; k < names.length; k++)
+            {
+                Dijkstra dijkstra = new Dijkstra(g, factories.get(k));
+                Random rnd = new Random(2);
+                for (int i = 0; i < 3; i++) dijkstra.computeShortestPath(rnd.nextInt(g.numNodes()), rnd.nextInt(g.numNodes()), null);
+
+                long start = System.nanoTime();
+                for (int i = 0; i < queries; i++)
+                    dijkstra.computeShortestPath(rnd.nextInt(g.numNodes()), rnd.nextInt(g.numNodes()), null);
+                long nanos = System.nanoTime() - start;
+                System.out.printf("  %-7s %8.2f ms%n", names[k], nanos / 1e6 / queries);
+            }
+        }
+    }
+
+    /**
+     * Short queries (destination a 30 step random walk away from the origin),
+     * answered by one Dijkstra that reuses its workspace and by a new Dijkstra
+     * per query, which has to allocate fresh per-node arrays every time.
+     *
+     * @param numNodes approximate number of nodes of the grid
+     * @param queries number of queries
+     */
+    static void workspace(int numNodes, int queries)
+    {
+        int side = (int) Math.sqrt(numNodes);
+        Graph g = GraphGenerator.grid(side, side, 1);
+        System.out.println("nodes: " + g.numNodes() + ", edges: " + g.numEdges());
+
+        int[] origins = new int[queries];
+        int[] destinations = new int[queries];
+        Random rnd = new Random(2);
+        for (int i = 0; i < queries; i++)
+        {
+            int v = origins[i] = rnd.nextInt(g.numNodes());
+            for (int step = 0; step < 30; step++) v = g.edgeTarget(g.edgeBegin(v) + rnd.nextInt(g.edgeEnd(v) - g.edgeBegin(v)));
+            destinations[i] = v;
+        }
+
+        SearchStats stats = new SearchStats();
+        Dijkstra reused = new Dijkstra(g);
+        long settled = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < queries; i++)
+        {
+            reused.computeShortestPath(origins[i], destinations[i], stats);
+            settled += stats.settledNodes();
+        }
+        long nanosReused = System.nanoTime() - start;
+
+        int sample = Math.max(queries / 20, 1);
+        start = System.nanoTime();
+        for (int i = 0; i < sample; i++) new Dijkstra(g).computeShortestPath(origins[i], destinations[i], null);
+        long nanosFresh = System.nanoTime() - start;
+
+        System.out.printf("avg settled:        %,d%n", settled / queries);
+        System.out.printf("reused workspace:   %10.1f us%n", nanosReused / 1e3 / queries);
+        System.out.printf("fresh per query:    %10.1f us%n", nanosFresh / 1e3 / sample);
+    }
+
+    /** Same layout as the linked list nodes Graph used before the CSR arrays */
+    private static class ListEdge
+    {
+        int neighbor;
+        int cost;
+        ListEdge next;
+
+        ListEdge(int neighbor, int cost)
+        {
+            this.neighbor = neighbor;
+            this.cost = cost;
+        }
+    }
+
+    private static long usedHeap()
+    {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private static int intArg(String[] args, int i, int def)
+    {
+        return args.length > i ? Integer.parseInt(args[i]) : def;
+    }
+
+    /**
+     * Queries per second of one shared Dijkstra over one shared directed
+     * graph, answered by thread pools of growing size. Every answer is
+     * compared with the single threaded one.
+     *
+     * @param numNodes number of nodes of the graph
+     * @param queries number of queries per pool size
+     */
+    static void throughput(int numNodes, int queries) throws Exception
+    {
+        Graph g = GraphGenerator.withRandomCosts(GraphGenerator.randomGeometric(numNodes, 8.0, 1), 100, 1);
+        Dijkstra dijkstra = new Dijkstra(g);
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println("nodes: " + g.numNodes() + ", edges: " + g.numEdges() + ", cores: " + cores);
+
+        int[] origins = new int[queries];
+        int[] destinations = new int[queries];
+        Random rnd = new Random(2);
+        for (int i = 0; i < queries; i++)
+        {
+            origins[i] = rnd.nextInt(g.numNodes());
+            destinations[i] = rnd.nextInt(g.numNodes());
+        }
+        List<List<Integer>> expected = new ArrayList<>();
+        for (int i = 0; i < queries; i++) expected.add(dijkstra.computeShortestPathBidirectional(origins[i], destinations[i], null));
+
+        double base = 0;
+        for (int threads = 1; threads <= Math.max(2 * cores, 4); threads *= 2)
+        {
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            AtomicInteger next = new AtomicInteger();
+            AtomicInteger wrong = new AtomicInteger();
+            List<Future<?>> tasks = new ArrayList<>();
+
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++)
+            {
+                tasks.add(pool.submit(() -> {
+                    for (int i = next.getAndIncrement(); i < queries; i = next.getAndIncrement())
+                    {
+                        List<Integer> path = dijkstra.computeShortestPathBidirectional(origins[i], destinations[i], null);
+                        if (!path.equals(expected.get(i))) wrong.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) task.get();
+            long nanos = System.nanoTime() - start;
+            pool.shutdown();
+
+            double perSecond = queries / (nanos / 1e9);
+            if (threads == 1) base = perSecond;
+            System.out.printf("  %2d threads: %8.1f queries/s, speedup %5.2f, wrong answers: %d%n",
+                    threads, perSecond, perSecond / base, wrong.get());
+        }
+    }
+
+    /**
+     * Time a size x size distance matrix between random nodes computed
+     * pairwise and with the many-to-many queries of Dijkstra and of the
+     * contraction hierarchy.
+     *
+     * @param numNodes approximate number of nodes of the grid
+     * @param size number of sources and of targets
+     */
+    static void matrix(int numNodes, int size)
+    {
+        int side = (int) Math.sqrt(numNodes);
+        Graph g = GraphGenerator.grid(side, side, 1);
+        Dijkstra dijkstra = new Dijkstra(g);
+        ContractionHierarchy ch = ContractionHierarchy.build(g);
+        System.out.println("nodes: " + g.numNodes() + ", edges: " + g.numEdges() + ", matrix: " + size + " x " + size);
+
+        Random rnd = new Random(2);
+        int[] sources = new int[size], targets = new int[size];
+        for (int i = 0; i < size; i++)
+        {
+            sources[i] = rnd.nextInt(g.numNodes());
+            targets[i] = rnd.nextInt(g.numNodes());
+        }
+
+        long start = System.nanoTime();
+        for (int s : sources) for (int t : targets) dijkstra.computeShortestPathBidirectional(s, t, null);
+        long nanosPairs = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int s : sources) for (int t : targets) ch.computeShortestPath(s, t, null);
+        long nanosChPairs = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        DistanceMatrix byDijkstra = dijkstra.distanceMatrix(sources, targets);
+        long nanosDijkstra = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        DistanceMatrix byBuckets = ch.distanceMatrix(sources, targets);
+        long nanosBuckets = System.nanoTime() - start;
+
+        System.out.println("  same result: " + Arrays.equals(byDijkstra.values(), byBuckets.values()));
+        System.out.printf("  pairwise bidirectional: %10.1f ms%n", nanosPairs / 1e6);
+        System.out.printf("  pairwise CH:            %10.1f ms%n", nanosChPairs / 1e6);
+        System.out.printf("  one-to-many Dijkstra:   %10.1f ms%n", nanosDijkstra / 1e6);
+        System.out.printf("  CH buckets:             %10.1f ms%n", nanosBuckets / 1e6);
+    }
+
+    /**
+     * Write a graph file with the given number of edges (and a tenth as many
+     * nodes), then time reading it with Graph.load and with the line based
+     * parser that loadGraph used before. The old parser only gets a prefix of
+     * the file small enough for its per-arc buffers to fit in the heap.
+     *
+     * @param numEdges number of lines in the ARCS section
+     * @param filename file to write; deleted afterwards
+     */
+    static void load(int numEdges, String filename) throws IOException
+    {
+        int numNodes = Math.max(numEdges / 10, 2);
+        File file = new File(filename);
+        writeGraphFile(file, numNodes, numEdges, 1);
+        double mb = file.length() / 1e6;
+        System.out.printf("file: %,.1f MB, %,d nodes, %,d edges%n", mb, numNodes, numEdges);
+
+        long start = System.nanoTime();
+        Graph g = Graph.load(filename);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("  mapped reader:   %6.2f s, %7.1f MB/s (%,d arcs)%n", seconds, mb / seconds, g.numEdges());
+
+        long prefix = Math.min(numEdges, 5_000_000);
+        start = System.nanoTime();
+        long bytes = readLines(file, numNodes, prefix);
+        seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("  readLine/split:  %6.2f s, %7.1f MB/s (first %,d edges)%n", seconds, bytes / 1e6 / seconds, prefix);
+
+        if (!file.delete()) System.out.println("could not delete " + filename);
+    }
+
+    /** Write a text graph file of random nodes and edges */
+    private static void writeGraphFile(File file, int numNodes, int numEdges, long seed) throws IOException
+    {
+        Random rnd = new Random(seed);
+        try (Writer out = new BufferedWriter(new FileWriter(file), 1 << 20))
+        {
+            out.write("NODES\n" + numNodes + "\n");
+            for (int i = 0; i < numNodes; i++)
+                out.write("n" + i + " " + rnd.nextInt(700) / 100.0 + " " + rnd.nextInt(400) / 100.0 + "\n");
+            out.write("ARCS\n");
+            for (int i = 0; i < numEdges; i++)
+                out.write("n" + rnd.nextInt(numNodes) + " n" + rnd.nextInt(numNodes) + " " + (1 + rnd.nextInt(1000)) + "\n");
+        }
+    }
+
+    /** The parsing loop of the old loadGraph, up to maxEdges arcs; returns the bytes read */
+    private static long readLines(File file, int numNodes, long maxEdges) throws IOException
+    {
+        long bytes = 0;
+        try (BufferedReader br = new BufferedReader(new FileReader(file)))
+        {
+            Map<String, Integer> labelsToIndices = new HashMap<>(numNodes);
+            CityNode[] nodes = new CityNode[numNodes];
+            String buf = br.readLine() + br.readLine();
+            bytes += buf.length() + 2;
+            for (int i = 0; i < numNodes; i++)
+            {
+                buf = br.readLine();
+                bytes += buf.length() + 1;
+                String[] tokens = buf.split(" ");
+                labelsToIndices.put(tokens[0], i);
+                nodes[i] = new CityNode(tokens[0], Float.parseFloat(tokens[1]), Float.parseFloat(tokens[2]));
+            }
+            bytes += br.readLine().length() + 1;
+
+            int[] from = new int[(int) maxEdges * 2], to = new int[from.length], cost = new int[from.length];
+            int numArcs = 0;
+            for (long i = 0; i < maxEdges && (buf = br.readLine()) != null; i++)
+            {
+                bytes += buf.length() + 1;
+                String[] tokens = buf.split(" ");
+                int a = labelsToIndices.get(tokens[0]);
+                int b = labelsToIndices.get(tokens[1]);
+                int c = Integer.parseInt(tokens[2]);
+                from[numArcs] = a; to[numArcs] = b; cost[numArcs++] = c;
+                from[numArcs] = b; to[numArcs] = a; cost[numArcs++] = c;
+            }
+            Graph.of(nodes, from, to, cost, numArcs, true);
+        }
+        return bytes;
+    }
+
+    /**
+     * Time from file to first answered query for a text graph file and for
+     * the same graph saved in the binary format, then the speed of queries
+     * on the graph in the heap and on the mapped graph.
+     *
+     * @param numNodes number of nodes; the graph has four times as many edges
+     * @param prefix the files prefix.txt and prefix.bin are written and deleted
+     */
+    static void binary(int numNodes, String prefix) throws IOException
+    {
+        File text = new File(prefix + ".txt"), bin = new File(prefix + ".bin");
+        writeGraphFile(text, numNodes, 4 * numNodes, 1);
+        Graph.load(text.getPath()).save(bin.getPath());
+        System.out.printf("nodes: %,d, edges: %,d, text: %,.1f MB, binary: %,.1f MB%n",
+                numNodes, 8 * numNodes, text.length() / 1e6, bin.length() / 1e6);
+
+        long start = System.nanoTime();
+        Graph loaded = Graph.load(text.getPath());
+        new Dijkstra(loaded).computeShortestPathBidirectional(0, 1, null);
+        long nanosText = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        Graph mapped = Graph.map(bin.getPath());
+        long nanosMap = System.nanoTime() - start;
+        new Dijkstra(mapped).computeShortestPathBidirectional(0, 1, null);
+        long nanosMapQuery = System.nanoTime() - start;
+
+        System.out.printf("  text load + first query:  %10.1f ms%n", nanosText / 1e6);
+        System.out.printf("  map:                      %10.1f ms%n", nanosMap / 1e6);
+        System.out.printf("  map + first query:        %10.1f ms%n", nanosMapQuery / 1e6);
+
+        Random rnd = new Random(2);
+        int queries = 50;
+        int[] origins = new int[queries], destinations = new int[queries];
+        for (int i = 0; i < queries; i++)
+        {
+            origins[i] = rnd.nextInt(numNodes);
+            destinations[i] = rnd.nextInt(numNodes);
+        }
+        Graph[] graphs = { loaded, mapped };
+        String[] names = { "heap", "mapped" };
+        for (int k = 0; k < graphs.length; k++)
+        {
+            Dijkstra dijkstra = new Dijkstra(graphs[k]);
+            start = System.nanoTime();
+            for (int i = 0; i < queries; i++) dijkstra.computeShortestPathBidirectional(origins[i], destinations[i], null);
+            System.out.printf("  %-6s bidirectional query: %8.2f ms%n", names[k], (System.nanoTime() - start) / 1e6 / queries);
+        }
+
+        if (!text.delete() || !bin.delete()) System.out.println("could not delete " + prefix + ".txt/.bin");
+    }
+
+    /**
+     * Snap random points to their nearest node with the spatial index, and
+     * a sample of them with a scan over all nodes.
+     *
+     * @param numNodes number of nodes of the graph
+     * @param points number of points to snap
+     */
+    static void snap(int numNodes, int points)
+    {
+        Graph g = GraphGenerator.randomGeometric(numNodes, 4.0, 1);
+        Point[] locations = g.getNodes();
+        int width = 0, height = 0;
+        for (Point p : locations)
+        {
+            width = Math.max(width, p.x + 1);
+            height = Math.max(height, p.y + 1);
+        }
+        System.out.println("nodes: " + g.numNodes() + ", area: " + width + " x " + height + ", points: " + points);
+
+        Random rnd = new Random(2);
+        int[] xs = new int[points], ys = new int[points];
+        for (int i = 0; i < points; i++)
+        {
+            xs[i] = rnd.nextInt(width);
+            ys[i] = rnd.nextInt(height);
+        }
+
+        long start = System.nanoTime();
+        SpatialIndex index = g.spatialIndex();
+        long nanosBuild = System.nanoTime() - start;
+
+        int[] snapped = new int[points];
+        start = System.nanoTime();
+        for (int i = 0; i < points; i++) snapped[i] = index.nearest(xs[i], ys[i]);
+        long nanosGrid = System.nanoTime() - start;
+
+        int sample = Math.min(points, 1000);
+        int mismatches = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < sample; i++)
+        {
+            int best = -1;
+            long bestDistance = Long.MAX_VALUE;
+            for (int v = 0; v < locations.length; v++)
+            {
+                long dx = locations[v].x - xs[i], dy = locations[v].y - ys[i];
+                if (dx * dx + dy * dy < bestDistance)
+                {
+                    bestDistance = dx * dx + dy * dy;
+                    best = v;
+                }
+            }
+            if (best != snapped[i]) mismatches++;
+        }
+        long nanosScan = System.nanoTime() - start;
+
+        System.out.printf("  index build:    %10.1f ms%n", nanosBuild / 1e6);
+        System.out.printf("  grid nearest:   %10.3f us per point (%,d points, %.1f s)%n", nanosGrid / 1e3 / points, points, nanosGrid / 1e9);
+        System.out.printf("  linear scan:    %10.3f us per point (%,d point sample)%n", nanosScan / 1e3 / sample, sample);
+        System.out.println("  mismatches in sample: " + mismatches);
+    }
+
+    /**
+     * Replay a skewed request stream with and without a RouteCache. Origins
+     * follow a Zipf distribution over 200 nodes, so a few of them are hot,
+     * and destinations are drawn from 200 nodes, so pairs repeat.
+     *
+     * @param numNodes approximate number of nodes of the grid
+     * @param queries number of requests
+     */
+    static void cache(int numNodes, int queries)
+    {
+        int side = (int) Math.sqrt(numNodes);
+        Graph g = GraphGenerator.grid(side, side, 1);
+        Dijkstra dijkstra = new Dijkstra(g);
+        System.out.println("nodes: " + g.numNodes() + ", requests: " + queries);
+
+        Random rnd = new Random(2);
+        int[] originPool = new int[200], destinationPool = new int[200];
+        for (int i = 0; i < originPool.length; i++) originPool[i] = rnd.nextInt(g.numNodes());
+        for (int i = 0; i < destinationPool.length; i++) destinationPool[i] = rnd.nextInt(g.numNodes());
+        double[] zipf = new double[originPool.length];
+        for (int i = 0; i < zipf.length; i++) zipf[i] = (i == 0 ? 0 : zipf[i - 1]) + 1.0 / (i + 1);
+
+        int[] origins = new int[queries], destinations = new int[queries];
+        for (int i = 0; i < queries; i++)
+        {
+            int k = Arrays.binarySearch(zipf, rnd.nextDouble() * zipf[zipf.length - 1]);
+            origins[i] = originPool[k < 0 ? -k - 1 : k];
+            destinations[i] = destinationPool[rnd.nextInt(destinationPool.length)];
+        }
+
+        int sample = Math.min(queries, 500);
+        long start = System.nanoTime();
+        for (int i = 0; i < sample; i++) dijkstra.computeShortestPathBidirectional(origins[i], destinations[i], null);
+        double uncached = (System.nanoTime() - start) / 1e6 / sample;
+        System.out.printf("  no cache:            %8.3f ms per request (%d request sample)%n", uncached, sample);
+
+        RouteCache[] caches = { new RouteCache(dijkstra, 10_000), new RouteCache(dijkstra, 10_000, 32, 10) };
+        String[] names = { "pair LRU", "pair LRU + trees" };
+        for (int k = 0; k < caches.length; k++)
+        {
+            start = System.nanoTime();
+            for (int i = 0; i < queries; i++) caches[k].computeShortestPath(origins[i], destinations[i]);
+            double ms = (System.nanoTime() - start) / 1e6 / queries;
+            System.out.printf("  %-19s %8.3f ms per request, %s%n", names[k] + ":", ms, caches[k]);
+        }
+    }
+
+    /**
+     * Change random edge costs, each up or down by up to half, and keep a
+     * shortest path tree current by repairing it after every change; a
+     * sample of the changes is compared with computing the tree again.
+     *
+     * @param numNodes number of nodes of the graph
+     * @param updates number of edge cost changes
+     */
+    static void dynamic(int numNodes, int updates)
+    {
+        Graph g = GraphGenerator.randomGeometric(numNodes, 6.0, 1);
+        System.out.println("nodes: " + g.numNodes() + ", edges: " + g.numEdges() + ", updates: " + updates);
+
+        Random rnd = new Random(2);
+        int[] from = new int[updates], to = new int[updates], cost = new int[updates];
+        for (int i = 0; i < updates; i++)
+        {
+            int v;
+            do v = rnd.nextInt(g.numNodes()); while (g.edgeBegin(v) == g.edgeEnd(v));
+            int e = g.edgeBegin(v) + rnd.nextInt(g.edgeEnd(v) - g.edgeBegin(v));
+            from[i] = v;
+            to[i] = g.edgeTarget(e);
+            cost[i] = Math.max(1, g.edgeCost(e) / 2 + rnd.nextInt(g.edgeCost(e) + 1));
+        }
+
+        DynamicShortestPathTree tree = new DynamicShortestPathTree(g, rnd.nextInt(g.numNodes()));
+        long work = 0, nanosRepair = 0;
+        for (int i = 0; i < updates; i++)
+        {
+            g.setEdgeCost(from[i], to[i], cost[i]);
+            long start = System.nanoTime();
+            work += tree.edgeCostChanged(from[i], to[i]);
+            nanosRepair += System.nanoTime() - start;
+        }
+
+        int sample = Math.min(updates, 50);
+        int[] dist = new int[g.numNodes()];
+        long start = System.nanoTime();
+        for (int i = 0; i < sample; i++) Dijkstra.oneToAll(g, tree.origin(), dist, null, null);
+        long nanosRecompute = (System.nanoTime() - start) / sample;
+        int mismatches = 0;
+        for (int v = 0; v < dist.length; v++) if (dist[v] != tree.distance(v)) mismatches++;
+
+        System.out.printf("  repair:     %10.3f ms per update (%.0f distances set on average)%n", nanosRepair / 1e6 / updates, (double) work / updates);
+        System.out.printf("  recompute:  %10.3f ms per update (%d update sample)%n", nanosRecompute / 1e6, sample);
+        System.out.println("  distances that differ: " + mismatches);
+    }
+
+    /**
+     * Time one-to-all searches by delta-stepping on pools of 1, 2, 4, ...
+     * up to all available cores, against the sequential search.
+     *
+     * @param numNodes number of nodes of the graph
+     * @param delta bucket width; 0 for the average edge cost
+     */
+    static void deltaStepping(int numNodes, int delta) throws Exception
+    {
+        Graph g = GraphGenerator.randomGeometric(numNodes, 6.0, 1);
+        if (delta == 0)
+        {
+            long total = 0;
+            for (int e = 0; e < g.numEdges(); e++) total += g.edgeCost(e);
+            delta = (int) Math.max(1, total / Math.max(1, g.numEdges()));
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println("nodes: " + g.numNodes() + ", edges: " + g.numEdges() + ", delta: " + delta + ", cores: " + cores);
+
+        Random rnd = new Random(2);
+        int[] origins = new int[5];
+        for (int i = 0; i < origins.length; i++) origins[i] = rnd.nextInt(g.numNodes());
+        Dijkstra dijkstra = new Dijkstra(g);
+
+        int[][] expected = new int[origins.length][];
+        long start = System.nanoTime();
+        for (int i = 0; i < origins.length; i++) expected[i] = dijkstra.shortestPathTree(origins[i]).distances();
+        double sequential = (System.nanoTime() - start) / 1e6 / origins.length;
+        System.out.printf("  sequential:        %9.1f ms per tree%n", sequential);
+
+        for (int p = 1; ; p = Math.min(p * 2, cores))
+        {
+            ForkJoinPool pool = new ForkJoinPool(p);
+            dijkstra.deltaSteppingTree(origins[0], delta, pool);  //warm up
+            int mismatches = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < origins.length; i++)
+            {
+                if (!Arrays.equals(expected[i], dijkstra.deltaSteppingTree(origins[i], delta, pool).distances())) mismatches++;
+            }
+            double ms = (System.nanoTime() - start) / 1e6 / origins.length;
+            pool.shutdown();
+            System.out.printf("  delta-stepping %3d: %9.1f ms per tree, %.2fx sequential, %d wrong trees%n", p, ms, sequential / ms, mismatches);
+            if (p == cores) break;
+        }
+    }
+
+    /**
+     * Run the same queries without counters, with a SearchStats per query
+     * and with SearchMetrics registered with JMX, to show what recording
+     * costs, then print what the metrics collected.
+     *
+     * @param numNodes number of nodes of the graph
+     * @param queries number of queries per round
+     */
+    static void metrics(int numNodes, int queries)
+    {
+        Graph g = GraphGenerator.randomGeometric(numNodes, 6.0, 1);
+        Dijkstra dijkstra = new Dijkstra(g);
+        System.out.println("nodes: " + g.numNodes() + ", queries: " + queries);
+
+        Random rnd = new Random(2);
+        int[] origins = new int[queries], destinations = new int[queries];
+        for (int i = 0; i < queries; i++)
+        {
+            origins[i] = rnd.nextInt(g.numNodes());
+            destinations[i] = rnd.nextInt(g.numNodes());
+        }
+
+        SearchMetrics metrics = new SearchMetrics();
+        System.out.println("registered as " + metrics.register("benchmark"));
+        SearchStats stats = new SearchStats();
+        String[] names = { "no counters", "SearchStats", "SearchMetrics" };
+        for (int round = 0; round < 2; round++)  //the first round warms up
+        {
+            for (int k = 0; k < names.length; k++)
+            {
+                dijkstra.setMetrics(k == 2 ? metrics : null);
+                long start = System.nanoTime();
+                for (int i = 0; i < queries; i++) dijkstra.computeShortestPath(origins[i], destinations[i], k == 1 ? stats : null);
+                double ms = (System.nanoTime() - start) / 1e6 / queries;
+                if (round == 1) System.out.printf("  %-14s %8.3f ms per query%n", names[k] + ":", ms);
+            }
+        }
+        System.out.println("  " + metrics);
+        System.out.println("  slowest: " + metrics.getSlowestQuery());
+    }
+
+    /**
+     * Time k shortest paths and penalty alternatives against a single
+     * point-to-point query between the same nodes.
+     *
+     * @param numNodes number of nodes of the graph
+     * @param queries number of origin and destination pairs
+     * @param k number of routes asked for
+     */
+    static void routes(int numNodes, int queries, int k)
+    {
+        Graph g = GraphGenerator.randomGeometric(numNodes, 6.0, 1);
+        Dijkstra dijkstra = new Dijkstra(g);
+        System.out.println("nodes: " + g.numNodes() + ", queries: " + queries + ", k: " + k);
+
+        Random rnd = new Random(2);
+        int[] origins = new int[queries], destinations = new int[queries];
+        for (int i = 0; i < queries; i++)
+        {
+            origins[i] = rnd.nextInt(g.numNodes());
+            destinations[i] = rnd.nextInt(g.numNodes());
+        }
+
+        String[] names = { "single path", "Yen", "penalty" };
+        double single = 0;
+        for (int round = 0; round < 2; round++)  //the first round warms up
+        {
+            for (int m = 0; m < names.length; m++)
+            {
+                long routes = 0, start = System.nanoTime();
+                for (int i = 0; i < queries; i++)
+                {
+                    if (m == 0) routes += dijkstra.computeShortestPath(origins[i], destinations[i], null).isEmpty() ? 0 : 1;
+                    else if (m == 1) routes += dijkstra.kShortestPaths(origins[i], destinations[i], k).size();
+                    else routes += dijkstra.alternativeRoutes(origins[i], destinations[i], k).size();
+                }
+                double ms = (System.nanoTime() - start) / 1e6 / queries;
+                if (m == 0) single = ms;
+                if (round == 1)
+                {
+                    System.out.printf("  %-12s %8.3f ms per query, %.1fx single path, %.1f routes on average%n",
+                            names[m] + ":", ms, ms / single, (double) routes / queries);
+                }
+            }
+        }
+    }
+
+    /**
+     * Time the same point-to-point queries on a random geometric graph, whose
+     * node ids are in random order, and on its Hilbert curve and reverse
+     * Cuthill-McKee reorderings. Queries are given by node and translated
+     * into each graph's ids through getId.
+     *
+     * @param numNodes number of nodes of the graph
+     * @param queries number of queries
+     */
+    static void reorder(int numNodes, int queries)
+    {
+        Graph g = GraphGenerator.randomGeometric(numNodes, 6.0, 1);
+        System.out.println("nodes: " + g.numNodes() + ", edges: " + g.numEdges() + ", queries: " + queries);
+
+        Random rnd = new Random(2);
+        CityNode[] origins = new CityNode[queries], destinations = new CityNode[queries];
+        for (int i = 0; i < queries; i++)
+        {
+            origins[i] = g.getNode(rnd.nextInt(g.numNodes()));
+            destinations[i] = g.getNode(rnd.nextInt(g.numNodes()));
+        }
+
+        String[] names = { "file order", "Hilbert", "RCM" };
+        Graph[] graphs = new Graph[names.length];
+        graphs[0] = g;
+        long start = System.nanoTime();
+        graphs[1] = g.reorder(Graph.NodeOrder.HILBERT);
+        long hilbert = System.nanoTime() - start;
+        start = System.nanoTime();
+        graphs[2] = g.reorder(Graph.NodeOrder.REVERSE_CUTHILL_MCKEE);
+        long rcm = System.nanoTime() - start;
+        System.out.printf("  reorder: Hilbert %.0f ms, RCM %.0f ms%n", hilbert / 1e6, rcm / 1e6);
+
+        long[] expected = new long[queries];
+        double base = 0;
+        for (int round = 0; round < 2; round++)  //the first round warms up
+        {
+            for (int k = 0; k < graphs.length; k++)
+            {
+                Dijkstra dijkstra = new Dijkstra(graphs[k]);
+                int mismatches = 0;
+                start = System.nanoTime();
+                for (int i = 0; i < queries; i++)
+                {
+                    int o = graphs[k].getId(origins[i]), d = graphs[k].getId(destinations[i]);
+                    long cost = pathCost(graphs[k], dijkstra.computeShortestPath(o, d, null));
+                    if (k == 0) expected[i] = cost;
+                    else if (cost != expected[i]) mismatches++;
+                }
+                double ms = (System.nanoTime() - start) / 1e6 / queries;
+                if (k == 0) base = ms;
+                if (round == 1)
+                {
+                    System.out.printf("  %-12s %8.2f ms per query, %.2fx file order, costs that differ: %d%n",
+                            names[k] + ":", ms, base / ms, mismatches);
+                }
+            }
+        }
+    }
+
+    /**
+     * Time the minimum spanning tree algorithms against each other, and the
+     * connectivity analyses, on a random geometric graph with random costs;
+     * on a graph this large its own costs nearly all round to 1.
+     *
+     * @param numNodes number of nodes of the graph
+     */
+    static void analytics(int numNodes)
+    {
+        Graph g = GraphGenerator.withRandomCosts(GraphGenerator.randomGeometric(numNodes, 6.0, 1), 1000, 2);
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println("nodes: " + g.numNodes() + ", edges: " + g.numEdges() + ", cores: " + cores);
+
+        String[] names = { "Prim", "Kruskal", "Boruvka" };
+        for (int round = 0; round < 2; round++)  //the first round warms up
+        {
+            for (int k = 0; k < names.length; k++)
+            {
+                long start = System.nanoTime();
+                EdgeList tree = k == 0 ? GraphAnalytics.primMinimumSpanningTree(g)
+                        : k == 1 ? GraphAnalytics.kruskalMinimumSpanningTree(g)
+                        : GraphAnalytics.boruvkaMinimumSpanningTree(g);
+                long nanos = System.nanoTime() - start;
+                if (round == 1) System.out.printf("  %-12s %8.0f ms, %s%n", names[k] + ":", nanos / 1e6, tree);
+            }
+        }
+
+        long start = System.nanoTime();
+        int[] components = GraphAnalytics.connectedComponents(g);
+        long nanos = System.nanoTime() - start;
+        System.out.printf("  components:  %8.0f ms, %d components%n", nanos / 1e6, Arrays.stream(components).max().orElse(-1) + 1);
+        start = System.nanoTime();
+        EdgeList bridges = GraphAnalytics.bridges(g);
+        nanos = System.nanoTime() - start;
+        System.out.printf("  bridges:     %8.0f ms, %d bridges%n", nanos / 1e6, bridges.size());
+        start = System.nanoTime();
+        int[] cut = GraphAnalytics.articulationPoints(g);
+        nanos = System.nanoTime() - start;
+        System.out.printf("  articulation: %7.0f ms, %d articulation points%n", nanos / 1e6, cut.length);
+    }
+
+    /**
+     * Throughput of a batch of queries that come in bursts from the same
+     * origins, answered one by one with computeShortestPath and as one batch
+     * with computeShortestPaths.
+     *
+     * @param numNodes number of nodes of the graph
+     * @param queries number of queries
+     * @param perOrigin number of queries from each origin
+     */
+    static void batch(int numNodes, int queries, int perOrigin)
+    {
+        Graph g = GraphGenerator.randomGeometric(numNodes, 6.0, 1);
+        Dijkstra dijkstra = new Dijkstra(g);
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println("nodes: " + g.numNodes() + ", queries: " + queries + ", per origin: " + perOrigin + ", cores: " + cores);
+
+        Random rnd = new Random(2);
+        int[] origins = new int[queries], destinations = new int[queries];
+        for (int i = 0; i < queries; i++)
+        {
+            origins[i] = i % perOrigin == 0 ? rnd.nextInt(g.numNodes()) : origins[i - 1];
+            destinations[i] = rnd.nextInt(g.numNodes());
+        }
+        for (int i = queries - 1; i > 0; i--)  //interleave the bursts
+        {
+            int j = rnd.nextInt(i + 1), t = origins[i];
+            origins[i] = origins[j];
+            origins[j] = t;
+        }
+
+        String[] names = { "one by one", "batch" };
+        double single = 0;
+        for (int round = 0; round < 2; round++)  //the first round warms up
+        {
+            for (int k = 0; k < names.length; k++)
+            {
+                long found = 0, start = System.nanoTime();
+                if (k == 0)
+                {
+                    for (int i = 0; i < queries; i++) found += dijkstra.computeShortestPath(origins[i], destinations[i], null).isEmpty() ? 0 : 1;
+                }
+                else
+                {
+                    for (List<Integer> path : dijkstra.computeShortestPaths(origins, destinations)) found += path.isEmpty() ? 0 : 1;
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                double perSecond = queries / seconds;
+                if (k == 0) single = perSecond;
+                if (round == 1)
+                {
+                    System.out.printf("  %-12s %9.0f queries/s, %.1fx one by one, %d paths found%n",
+                            names[k] + ":", perSecond, perSecond / single, found);
+                }
+            }
+        }
+    }
+
+    /**
+     * Time isochrones of growing budgets against a full one-to-all search
+     * from the same origins.
+     *
+     * @param numNodes number of nodes of the graph
+     * @param queries number of origins
+     */
+    static void isochrone(int numNodes, int queries)
+    {
+        Graph g = GraphGenerator.withRandomCosts(GraphGenerator.randomGeometric(numNodes, 6.0, 1), 100, 2);
+        Dijkstra dijkstra = new Dijkstra(g);
+        System.out.println("nodes: " + g.numNodes() + ", edges: " + g.numEdges() + ", origins: " + queries);
+
+        Random rnd = new Random(3);
+        int[] origins = new int[queries];
+        for (int i = 0; i < queries; i++) origins[i] = rnd.nextInt(g.numNodes());
+
+        for (int round = 0; round < 2; round++)  //the first round warms up
+        {
+            long start = System.nanoTime();
+            for (int o : origins) dijkstra.shortestPathTree(o);
+            double full = (System.nanoTime() - start) / 1e6 / queries;
+            if (round == 1) System.out.printf("  %-14s %8.2f ms%n", "one-to-all:", full);
+
+            for (int budget = 500; budget <= 8000; budget *= 4)
+            {
+                long nodes = 0, edges = 0;
+                start = System.nanoTime();
+                for (int o : origins) nodes += dijkstra.isochrone(o, budget).size();
+                double ms = (System.nanoTime() - start) / 1e6 / queries;
+                for (int o : origins) edges += dijkstra.isochrone(o, budget).getEdges(g).length;
+                if (round == 1)
+                {
+                    System.out.printf("  %-14s %8.2f ms, %.1fx faster, %,d nodes and %,d edges on average%n",
+                            "budget " + budget + ":", ms, full / ms, nodes / queries, edges / queries);
+                }
+            }
+        }
+    }
+
+    /**
+     * Write a graph file, then load it on the heap with Graph.load and off
+     * the heap with Graph.loadOffHeap. For each, report the load time, the
+     * heap and direct memory the graph keeps, the time the garbage collector
+     * spent during the load, how long a full collection takes with the graph
+     * alive, and the average time of random queries.
+     *
+     * @param numEdges number of lines in the ARCS section
+     * @param filename file to write; deleted afterwards
+     */
+    static void offHeap(int numEdges, String filename) throws IOException
+    {
+        int numNodes = Math.max(numEdges / 10, 2);
+        File file = new File(filename);
+        writeGraphFile(file, numNodes, numEdges, 1);
+        System.out.printf("file: %,.1f MB, %,d nodes, %,d edges%n", file.length() / 1e6, numNodes, numEdges);
+
+        for (int k = 0; k < 2; k++)
+        {
+            long heapBefore = usedHeap(), directBefore = directMemory(), gcBefore = gcMillis();
+            long start = System.nanoTime();
+            Graph g = k == 0 ? Graph.load(filename) : Graph.loadOffHeap(filename);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long gc = gcMillis() - gcBefore;
+
+            start = System.nanoTime();
+            long heap = usedHeap() - heapBefore;
+            double fullGc = (System.nanoTime() - start) / 3e6;  //usedHeap collects three times
+            long direct = directMemory() - directBefore;
+
+            Dijkstra dijkstra = new Dijkstra(g);
+            Random rnd = new Random(2);
+            int queries = 20;
+            start = System.nanoTime();
+            for (int i = 0; i < queries; i++) dijkstra.computeShortestPath(rnd.nextInt(g.numNodes()), rnd.nextInt(g.numNodes()), null);
+            double ms = (System.nanoTime() - start) / 1e6 / queries;
+
+            System.out.printf("  %-9s load %6.2f s (GC %,d ms), heap %,7.1f MB, direct %,7.1f MB, full GC %6.1f ms, query %7.1f ms%n",
+                    k == 0 ? "heap:" : "off-heap:", seconds, gc, heap / 1e6, direct / 1e6, fullGc, ms);
+        }
+
+        if (!file.delete()) System.out.println("could not delete " + filename);
+    }
+
+    private static long directMemory()
+    {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class))
+        {
+            if (pool.getName().equals("direct")) return pool.getMemoryUsed();
+        }
+        return 0;
+    }
+
+    private static long gcMillis()
+    {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) millis += Math.max(0, gc.getCollectionTime());
+        return millis;
+    }
+
+    /** Cost of a path as computeShortestPath returns it, destination first; -1 for no path */
+    private static long pathCost(Graph g, List<Integer> path)
+    {
+        if (path.isEmpty()) return -1;
+        long cost = 0;
+        for (int i = path.size() - 1; i > 0; i--)
+        {
+            int best = Integer.MAX_VALUE;
+            for (int e = g.edgeBegin(path.get(i)); e < g.edgeEnd(path.get(i)); e++)
+            {
+                if (g.edgeTarget(e) == path.get(i - 1)) best = Math.min(best, g.edgeCost(e));
+            }
+            cost += best;
+        }
+        return cost;
+    }
+}
@@ -0,0 +1,185 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/** Generators of synthetic road-like graphs, used by the benchmarks.
+ *  Coordinates use the same units as the NODES section of the input files
+ *  (0..7 by 0..4). The cost of an edge is its euclidean length times 100,
+ *  stretched by up to 30%, so it is never below the straight-line distance.
+ */
+public class GraphGenerator
+{
+    public static final double WIDTH = 7.0;
+    public static final double HEIGHT = 4.0;
+    public static final int COST_SCALE = 100;
+
+    /**
+     * A width x height grid with jittered node positions; every node is
+     * connected to its right and lower neighbor in both directions.
+     *
+     * @param width number of columns
+     * @param height number of rows
+     * @param seed random seed
+     * @return the generated graph
+     */
+    public static Graph grid(int width, int height, long seed)
+    {
+        Random rnd = new Random(seed);
+        int n = width * height;
+        double dx = WIDTH / width;
+        double dy = HEIGHT / height;
+
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++)
+        {
+            xs[i] = (i % width + 0.25 + rnd.nextDouble() * 0.5) * dx;
+            ys[i] = (i / width + 0.25 + rnd.nextDouble() * 0.5) * dy;
+        }
+
+        Arcs arcs = new Arcs(n * 4);
+        for (int i = 0; i < n; i++)
+        {
+            if (i % width + 1 < width) arcs.addBoth(i, i + 1, cost(xs, ys, i, i + 1, rnd));
+            if (i + width < n) arcs.addBoth(i, i + width, cost(xs, ys, i, i + width, rnd));
+        }
+
+        return Graph.of(cityNodes(xs, ys), arcs.from, arcs.to, arcs.cost, arcs.size, true);
+    }
+
+    /**
+     * Nodes placed uniformly at random; two nodes are connected (in both
+     * directions) when they are closer than a radius chosen so that the
+     * expected degree is avgDegree. The graph is not necessarily connected.
+     *
+     * @param numNodes number of nodes
+     * @param avgDegree expected number of neighbors per node
+     * @param seed random seed
+     * @return the generated graph
+     */
+    public static Graph randomGeometric(int numNodes, double avgDegree, long seed)
+    {
+        Random rnd = new Random(seed);
+        double[] xs = new double[numNodes];
+        double[] ys = new double[numNodes];
+        for (int i = 0; i < numNodes; i++)
+        {
+            xs[i] = rnd.nextDouble() * WIDTH;
+            ys[i] = rnd.nextDouble() * HEIGHT;
+        }
+
+        double r = Math.sqrt(avgDegree * WIDTH * HEIGHT / (numNodes * Math.PI));
+        int cols = (int) Math.ceil(WIDTH / r);
+        int rows = (int) Math.ceil(HEIGHT / r);
+
+        // bucket the nodes into r x r cells, so only adjacent cells are searched
+        int[] cellStart = new int[cols * rows + 1];
+        int[] cellOf = new int[numNodes];
+        for (int i = 0; i < numNodes; i++)
+        {
+            cellOf[i] = Math.min((int) (ys[i] / r), rows - 1) * cols + Math.min((int) (xs[i] / r), cols - 1);
+            cellStart[cellOf[i] + 1]++;
+        }
+        for (int c = 0; c < cols * rows; c++) cellStart[c + 1] += cellStart[c];
+        int[] fill = Arrays.copyOf(cellStart, cols * rows);
+        int[] cellNodes = new int[numNodes];
+        for (int i = 0; i < numNodes; i++) cellNodes[fill[cellOf[i]]++] = i;
+
+        Arcs arcs = new Arcs((int) (numNodes * avgDegree) + 16);
+        double r2 = r * r;
+        for (int i = 0; i < numNodes; i++)
+        {
+            int cx = cellOf[i] % cols;
+            int cy = cellOf[i] / cols;
+            for (int y = Math.max(cy - 1, 0); y <= Math.min(cy + 1, rows - 1); y++)
+            {
+                for (int x = Math.max(cx - 1, 0); x <= Math.min(cx + 1, cols - 1); x++)
+                {
+                    int c = y * cols + x;
+                    for (int k = cellStart[c]; k < cellStart[c + 1]; k++)
+                    {
+                        int j = cellNodes[k];
+                        if (j <= i) continue;
+                        double ddx = xs[i] - xs[j];
+                        double ddy = ys[i] - ys[j];
+                        if (ddx * ddx + ddy * ddy < r2) arcs.addBoth(i, j, cost(xs, ys, i, j, rnd));
+                    }
+                }
+            }
+        }
+
+        return Graph.of(cityNodes(xs, ys), arcs.from, arcs.to, arcs.cost, arcs.size, true);
+    }
+
+    /**
+     * Copy of a graph with the same edges but independent random costs
+     * between 1 and maxCost. Costs of the two directions of an edge differ,
+     * so the copy is a directed graph.
+     *
+     * @param graph graph to copy
+     * @param maxCost largest cost
+     * @param seed random seed
+     * @return the generated graph
+     */
+    public static Graph withRandomCosts(Graph graph, int maxCost, long seed)
+    {
+        Random rnd = new Random(seed);
+        int n = graph.numNodes();
+        int m = graph.numEdges();
+        CityNode[] nodes = new CityNode[n];
+        int[] from = new int[m], to = new int[m], cost = new int[m];
+        for (int i = 0; i < n; i++)
+        {
+            nodes[i] = graph.getNode(i);
+            for (int e = graph.edgeBegin(i); e < graph.edgeEnd(i); e++)
+            {
+                from[e] = i;
+                to[e] = graph.edgeTarget(e);
+                cost[e] = 1 + rnd.nextInt(maxCost);
+            }
+        }
+        return Graph.of(nodes, from, to, cost, m, false);
+    }
+
+    private static int cost(double[] xs, double[] ys, int a, int b, Random rnd)
+    {
+        double d = Math.hypot(xs[a] - xs[b], ys[a] - ys[b]) * COST_SCALE;
+        return Math.max(1, (int) Math.ceil(d * (1.0 + rnd.nextDouble() * 0.3)));
+    }
+
+    private static CityNode[] cityNodes(double[] xs, double[] ys)
+    {
+        CityNode[] nodes = new CityNode[xs.length];
+        for (int i = 0; i < nodes.length; i++) nodes[i] = new CityNode("n" + i, xs[i], ys[i]);
+        return nodes;
+    }
+
+    /** Growable parallel arrays of directed arcs */
+    private static class Arcs
+    {
+        int size;
+        int[] from;
+        int[] to;
+        int[] cost;
+
+        Arcs(int capacity)
+        {
+            from = new int[capacity];
+            to = new int[capacity];
+            cost = new int[capacity];
+        }
+
+        void addBoth(int a, int b, int c)
+        {
+            if (size + 2 > from.length)
+            {
+                from = Arrays.copyOf(from, from.length * 2);
+                to = Arrays.copyOf(to, from.length);
+                cost = Arrays.copyOf(cost, from.length);
+            }
+            from[size] = a; to[size] = b; cost[size++] = c;
+            from[size] = b; to[size] = a; cost[size++] = c;
+        }
+    }
+}
@@ -0,0 +1,455 @@
+package graph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/** Reads graph files (a NODES section of "label x y" lines followed by an
+ *  ARCS section of "label label cost" lines) straight from a memory mapped
+ *  file. Numbers are parsed from the bytes and arc labels are looked up in
+ *  a hash table keyed by their bytes, so no String is created per arc.
+ *  The ARCS section is read twice: the first pass counts the degree of
+ *  every node, the second writes each arc into its final slot of the CSR
+ *  arrays, so no per-arc buffer is ever allocated.
+ *  Files larger than 2 GB are mapped one window at a time.
+ *  The graph can be kept off the heap instead, in which case no CityNode
+ *  or label String is made and the big arrays are direct buffers.
+ */
+class GraphReader
+{
+    private static final long WINDOW = 1L << 30;
+    private static final int MAX_LINE = 1 << 20;
+    private static final int BATCH = 64;
+    private static final double[] POW10 = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15 };
+
+    private final String filename;
+    private final FileChannel channel;
+    private final long size;
+    private MappedByteBuffer buf;
+    private long base;   //file offset of buf[0]
+    private int pos;     //position in buf
+    private int limit;   //bytes mapped in buf
+    private int labelHash;     //hash of the label last scanned
+    private long labelPrefix;  //first 8 bytes of the label last scanned
+
+    // labels and costs of the lines of one batch
+    private final int[] labelStarts = new int[2 * BATCH], labelLengths = new int[2 * BATCH], labelHashes = new int[2 * BATCH];
+    private final long[] labelPrefixes = new long[2 * BATCH];
+    private final int[] ends = new int[2 * BATCH], batchCost = new int[BATCH];
+
+    private GraphReader(String filename, FileChannel channel) throws IOException
+    {
+        this.filename = filename;
+        this.channel = channel;
+        this.size = channel.size();
+        seek(0);
+    }
+
+    /**
+     * Read a graph file, with its nodes and edges either on the heap, as
+     * CityNodes and int arrays, or in off-heap memory, as pixel coordinates,
+     * a label dictionary and direct buffers.
+     *
+     * @param filename name of the file
+     * @param offHeap true to store the graph off the heap
+     * @return the graph
+     * @throws IOException if the file can not be read or is malformed
+     */
+    static Graph read(String filename, boolean offHeap) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ))
+        {
+            return new GraphReader(filename, channel).read(offHeap);
+        }
+    }
+
+    private Graph read(boolean offHeap) throws IOException
+    {
+        skipLine();  //NODES
+        skipBlank();
+        int n = readNumber("node count");
+        endLine("the node count");
+
+        CityNode[] nodes = offHeap ? null : new CityNode[n];
+        IntArray xs = offHeap ? IntArray.direct(n) : null;
+        IntArray ys = offHeap ? IntArray.direct(n) : null;
+        Labels labels = new Labels(n);
+        for (int i = 0; i < n; i++)
+        {
+            skipBlank();
+            int start = pos, end = scanLabel();
+            if (labels.add(buf, start, end - start, labelHash, labelPrefix) != i) throw error("duplicate label " + string(start, end));
+            String label = offHeap ? null : string(start, end);
+            pos = end;
+            float x = readFloat();
+            float y = readFloat();
+            if (offHeap)
+            {
+                // the pixel location CityNode would compute, in double as it does
+                double dx = x, dy = y;
+                xs.set(i, (int) (507 * dx / 7.0));
+                ys.set(i, (int) (289 - 289 * dy / 4.0));
+            }
+            else nodes[i] = new CityNode(label, x, y);
+            skipLine();
+        }
+        skipBlank();
+        skipLine();  //ARCS
+        long arcs = base + pos;
+
+        // first pass: degrees
+        int[] offsets = new int[n + 1];
+        for (int count; (count = readBatch(labels, false)) > 0; )
+            for (int i = 0; i < 2 * count; i++) offsets[ends[i] + 1]++;
+        for (int i = 0; i < n; i++)
+        {
+            offsets[i + 1] += offsets[i];
+            if (offsets[i + 1] < 0) throw error("more than " + Integer.MAX_VALUE + " arcs");
+        }
+
+        // second pass: every line is an edge in both directions
+        IntArray targets = offHeap ? IntArray.direct(offsets[n]) : IntArray.of(new int[offsets[n]]);
+        IntArray costs = offHeap ? IntArray.direct(offsets[n]) : IntArray.of(new int[offsets[n]]);
+        int[] next = Arrays.copyOf(offsets, n);
+        seek(arcs);
+        for (int count; (count = readBatch(labels, true)) > 0; )
+        {
+            for (int i = 0; i < count; i++)
+            {
+                int a = ends[2 * i], b = ends[2 * i + 1], c = batchCost[i];
+                int e = next[a]++;
+                targets.set(e, b);
+                costs.set(e, c);
+                e = next[b]++;
+                targets.set(e, a);
+                costs.set(e, c);
+            }
+        }
+
+        if (!offHeap) return Graph.of(nodes, IntArray.of(offsets), targets, costs, true);
+        return Graph.of(xs, ys, labels.starts(), labels.bytes(), IntArray.of(offsets).toDirect(n + 1), targets, costs, true);
+    }
+
+    /**
+     * Parse up to BATCH arc lines, then resolve all their labels at once.
+     * Looking up many labels together lets the memory accesses of the hash
+     * table overlap instead of waiting for each cache miss in turn.
+     * Ids of the endpoints of line i go to ends[2i] and ends[2i+1].
+     * @return number of lines read; 0 at the end of the file
+     */
+    private int readBatch(Labels labels, boolean withCost) throws IOException
+    {
+        int count = 0;
+        // a batch holds positions in the current window, so it ends before the window moves
+        while (count < BATCH && !(count > 0 && mustRemap()) && nextLine())
+        {
+            for (int j = 2 * count; j < 2 * count + 2; j++)
+            {
+                skipSpaces();
+                labelStarts[j] = pos;
+                pos = scanLabel();
+                labelLengths[j] = pos - labelStarts[j];
+                labelHashes[j] = labelHash;
+                labelPrefixes[j] = labelPrefix;
+            }
+            if (withCost)
+            {
+                batchCost[count] = readNumber("cost");
+                endLine("the cost");
+            }
+            else skipLine();
+            count++;
+        }
+
+        labels.findAll(buf, labelStarts, labelLengths, labelHashes, labelPrefixes, 2 * count, ends);
+        for (int j = 0; j < 2 * count; j++)
+        {
+            if (ends[j] >= 0) continue;
+            pos = labelStarts[j];
+            throw error("unknown label " + string(pos, pos + labelLengths[j]));
+        }
+        return count;
+    }
+
+    private boolean mustRemap() { return limit - pos < MAX_LINE && base + limit < size; }
+
+    /** Map the window that starts at the given file offset */
+    private void seek(long offset) throws IOException
+    {
+        base = offset;
+        limit = (int) Math.min(WINDOW, size - offset);
+        buf = channel.map(FileChannel.MapMode.READ_ONLY, base, limit);
+        pos = 0;
+    }
+
+    /**
+     * Skip blank lines, moving the window forward if the next line might
+     * run past its end.
+     * @return false at the end of the file
+     */
+    private boolean nextLine() throws IOException
+    {
+        while (true)
+        {
+            if (mustRemap()) seek(base + pos);
+            skipSpaces();
+            if (pos >= limit) return false;
+            byte b = buf.get(pos);
+            if (b != '\n') return true;
+            pos++;
+        }
+    }
+
+    private void skipBlank() throws IOException
+    {
+        if (!nextLine()) throw error("unexpected end of file");
+    }
+
+    private void skipLine()
+    {
+        while (pos < limit && buf.get(pos++) != '\n') { }
+    }
+
+    private void skipSpaces()
+    {
+        while (pos < limit)
+        {
+            byte b = buf.get(pos);
+            if (b != ' ' && b != '\t' && b != '\r') break;
+            pos++;
+        }
+    }
+
+    private int tokenEnd()
+    {
+        int end = pos;
+        while (end < limit)
+        {
+            byte b = buf.get(end);
+            if (b == ' ' || b == '\t' || b == '\r' || b == '\n') break;
+            end++;
+        }
+        return end;
+    }
+
+    /**
+     * Scan the label at pos, computing its hash and prefix on the way so
+     * its bytes are read only once; pos is left on the label's first byte.
+     * @return end of the label
+     */
+    private int scanLabel()
+    {
+        int end = pos;
+        int h = LabelIndex.SEED;
+        long prefix = 0;
+        while (end < limit)
+        {
+            byte b = buf.get(end);
+            if (b == ' ' || b == '\t' || b == '\r' || b == '\n') break;
+            h = (h ^ b) * LabelIndex.PRIME;
+            if (end - pos < 8) prefix = (prefix << 8) | (b & 0xff);
+            end++;
+        }
+        labelHash = LabelIndex.mix(h);
+        labelPrefix = prefix;
+        return end;
+    }
+
+    /**
+     * Count or cost: a whole token of decimal digits, so "-5", "5.5" and
+     * "5x" are errors rather than read as -5 or 5.
+     */
+    private int readNumber(String what) throws IOException
+    {
+        skipSpaces();
+        int start = pos, end = tokenEnd();
+        if (start == end) throw error(what + " expected");
+        if (buf.get(start) == '-') throw error("negative " + what + " " + string(start, end));
+        long value = 0;
+        for (; pos < end; pos++)
+        {
+            int d = buf.get(pos) - '0';
+            if (d < 0 || d > 9)
+            {
+                pos = start;
+                throw error(what + " " + string(start, end) + " is not a whole number");
+            }
+            value = value * 10 + d;
+            if (value > Integer.MAX_VALUE) throw error(what + " too large");
+        }
+        return (int) value;
+    }
+
+    /** Move past the end of the line, which must have nothing left on it */
+    private void endLine(String after) throws IOException
+    {
+        skipSpaces();
+        if (pos < limit && buf.get(pos) != '\n') throw error("unexpected " + string(pos, tokenEnd()) + " after " + after);
+        skipLine();
+    }
+
+    /**
+     * Decimal number such as -12.25. Up to 15 significant digits the digits
+     * and the power of ten are both exact doubles, so their quotient is the
+     * correctly rounded value; longer numbers go through Float.parseFloat.
+     */
+    private float readFloat() throws IOException
+    {
+        skipSpaces();
+        int start = pos, end = tokenEnd();
+        boolean negative = pos < end && buf.get(pos) == '-';
+        if (negative) pos++;
+        long digits = 0;
+        int count = 0, fraction = -1;
+        for (; pos < end; pos++)
+        {
+            byte b = buf.get(pos);
+            if (b == '.' && fraction < 0) fraction = 0;
+            else if (b >= '0' && b <= '9' && count < 15)
+            {
+                digits = digits * 10 + (b - '0');
+                count++;
+                if (fraction >= 0) fraction++;
+            }
+            else
+            {
+                pos = end;
+                try { return Float.parseFloat(string(start, end)); }
+                catch (NumberFormatException e) { throw error("number expected"); }
+            }
+        }
+        if (count == 0) throw error("number expected");
+        double value = fraction > 0 ? digits / POW10[fraction] : digits;
+        return (float) (negative ? -value : value);
+    }
+
+    private String string(int start, int end)
+    {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) bytes[i] = buf.get(start + i);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private IOException error(String message)
+    {
+        try
+        {
+            return new IOException(filename + ", line " + lineAt(base + pos) + ": " + message);
+        }
+        catch (IOException e) { return new IOException(filename + " at byte " + (base + pos) + ": " + message); }
+    }
+
+    /** Line number, from 1, of a file offset. Only errors need it, so the lines are simply counted. */
+    private long lineAt(long offset) throws IOException
+    {
+        long line = 1;
+        ByteBuffer chunk = ByteBuffer.allocate(1 << 16);
+        for (long at = 0; at < offset; )
+        {
+            chunk.clear();
+            chunk.limit((int) Math.min(chunk.capacity(), offset - at));
+            int read = channel.read(chunk, at);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) if (chunk.get(i) == '\n') line++;
+            at += read;
+        }
+        return line;
+    }
+
+    /** Open addressing hash table from label bytes to node ids.
+     *  A slot is two longs: 24 bits of the label's hash, its length and its
+     *  id, then its first 8 bytes. Labels of up to 8 bytes are matched
+     *  without leaving the slot, which saves the cache misses of comparing
+     *  stored bytes. */
+    private static class Labels
+    {
+        private final long[] slots;   //slots[2s] = hash >>> 8 << 40 | length << 32 | id + 1, 0 if empty; slots[2s+1] = first bytes
+        private final int mask;
+        private final int[] start;    //label of node i is bytes[start[i]] .. bytes[start[i+1]-1]
+        private byte[] bytes = new byte[1024];
+        private int count;
+        private long sink;  //keeps the loads of findAll from being optimized away
+
+        Labels(int n)
+        {
+            int capacity = Integer.highestOneBit(Math.max(2 * n, 2)) * 2;
+            slots = new long[2 * capacity];
+            mask = capacity - 1;
+            start = new int[n + 1];
+        }
+
+        private static long key(int h, int length) { return ((long) (h >>> 8) << 40) | ((long) Math.min(length, 255) << 32); }
+
+        /** Id of the label at buf[from .. from+length-1]; -1 if it is not in the table */
+        int find(MappedByteBuffer buf, int from, int length, int h, long prefix)
+        {
+            int s = slot(buf, from, length, h, prefix);
+            return (int) slots[2 * s] - 1;
+        }
+
+        /**
+         * Ids of count labels, -1 for the ones not in the table. The first
+         * slot of every label is read before any label is resolved, so
+         * the cache misses of the whole batch are in flight together.
+         */
+        void findAll(MappedByteBuffer buf, int[] from, int[] length, int[] h, long[] prefix, int count, int[] ids)
+        {
+            long touched = 0;
+            for (int i = 0; i < count; i++) touched += slots[2 * (h[i] & mask)];
+            for (int i = 0; i < count; i++) ids[i] = find(buf, from[i], length[i], h[i], prefix[i]);
+            sink = touched;
+        }
+
+        /** Start of every label in bytes(), plus the end of the last, off the heap */
+        IntArray starts() { return IntArray.of(start).toDirect(count + 1); }
+
+        /** The labels one after the other as UTF-8, off the heap */
+        ByteBuffer bytes()
+        {
+            ByteBuffer copy = ByteBuffer.allocateDirect(start[count]);
+            copy.put(bytes, 0, start[count]);
+            copy.flip();
+            return copy;
+        }
+
+        /** Add a label; returns its id, or the id it already had */
+        int add(MappedByteBuffer buf, int from, int length, int h, long prefix)
+        {
+            int s = slot(buf, from, length, h, prefix);
+            if (slots[2 * s] != 0) return (int) slots[2 * s] - 1;
+
+            int end = start[count] + length;
+            if (end > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(end, bytes.length * 2));
+            for (int i = 0; i < length; i++) bytes[start[count] + i] = buf.get(from + i);
+            start[count + 1] = end;
+            slots[2 * s] = key(h, length) | ++count;
+            slots[2 * s + 1] = prefix;
+            return count - 1;
+        }
+
+        /** Slot holding the label, or the empty slot where it would go */
+        private int slot(MappedByteBuffer buf, int from, int length, int h, long prefix)
+        {
+            long key = key(h, length);
+            for (int s = h & mask; ; s = (s + 1) & mask)
+            {
+                long head = slots[2 * s];
+                if (head == 0) return s;
+                if ((head & 0xffffffff00000000L) == key && slots[2 * s + 1] == prefix
+                        && (length <= 8 || equal((int) head - 1, buf, from, length))) return s;
+            }
+        }
+
+        private boolean equal(int id, MappedByteBuffer buf, int from, int length)
+        {
+            if (start[id + 1] - start[id] != length) return false;
+            for (int i = 0; i < length; i++) if (bytes[start[id] + i] != buf.get(from + i)) return false;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package graph;
+
+/** A lower bound on the cost of the cheapest path between two nodes,
+ *  used to guide A* searches in Dijkstra.
+ *  Implementations must be consistent: for every edge (a, b) of cost c,
+ *  estimate(a, t) <= c + estimate(b, t), and estimate(t, t) == 0.
+ *  Integer.MAX_VALUE means the destination can not be reached at all;
+ *  A* then never expands the node.
+ */
+public interface Heuristic
+{
+    /**
+     * Lower bound on the cost of any path from one node to another.
+     *
+     * @param from id of the node the path starts at
+     * @param to id of the node the path ends at
+     * @return lower bound, never more than the true shortest path cost;
+     * Integer.MAX_VALUE if there is no path
+     */
+    int estimate(int from, int to);
+}
@@ -0,0 +1,87 @@
+package graph;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/** Lock-free histogram of non-negative longs. Values below 8 have a bucket
+ *  each; above that every power of two is split into 8 buckets, so a
+ *  bucket's lower bound is within 12.5% of any value in it and the whole
+ *  long range fits in 496 buckets.
+ */
+final class Histogram
+{
+    private static final int SUB_BITS = 3;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    static int bucket(long value)
+    {
+        if (value < SUB) return (int) value;
+        int exp = 63 - Long.numberOfLeadingZeros(value);
+        return (exp - SUB_BITS + 1) * SUB + (int) ((value >>> (exp - SUB_BITS)) & (SUB - 1));
+    }
+
+    static long lowerBound(int bucket)
+    {
+        if (bucket < SUB) return bucket;
+        int exp = bucket / SUB + SUB_BITS - 1;
+        return (long) (SUB + bucket % SUB) << (exp - SUB_BITS);
+    }
+
+    void record(long value)
+    {
+        value = Math.max(0, value);
+        counts.incrementAndGet(bucket(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        for (long m = max.get(); value > m && !max.compareAndSet(m, value); m = max.get()) { }
+    }
+
+    long count() { return count.get(); }
+    long max() { return max.get(); }
+    double mean() { long n = count.get(); return n == 0 ? 0 : (double) sum.get() / n; }
+
+    /**
+     * Value below which a fraction of the recorded values fall, rounded down
+     * to the lower bound of its bucket.
+     * @param fraction between 0 and 1, e.g. 0.99
+     * @return the percentile; 0 if nothing was recorded
+     */
+    long percentile(double fraction)
+    {
+        long n = count.get();
+        if (n == 0) return 0;
+        long rank = (long) Math.ceil(fraction * n), seen = 0;
+        for (int b = 0; b < BUCKETS; b++)
+        {
+            seen += counts.get(b);
+            if (seen >= Math.max(1, rank)) return lowerBound(b);
+        }
+        return max.get();
+    }
+
+    /** Non-empty buckets, one "lower bound: count" per line */
+    String summary()
+    {
+        StringBuilder s = new StringBuilder();
+        for (int b = 0; b < BUCKETS; b++)
+        {
+            long c = counts.get(b);
+            if (c > 0) s.append(lowerBound(b)).append(": ").append(c).append(System.lineSeparator());
+        }
+        return s.toString();
+    }
+
+    void reset()
+    {
+        for (int b = 0; b < BUCKETS; b++) counts.set(b, 0);
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+}
@@ -0,0 +1,62 @@
+package graph;
+
+/** A min-priority queue of node ids ordered by int keys, where each node is
+ *  in the queue at most once and its key can be lowered while queued.
+ *  Dijkstra is written against this interface, so the heap layout can be
+ *  chosen when it is constructed.
+ */
+public interface IndexedPriorityQueue
+{
+    /**
+     * Add a node that is not in the queue yet.
+     * @param nodeId id of the node, between 0 and the capacity of the queue
+     * @param key key of the node
+     */
+    void insert(int nodeId, int key);
+
+    /**
+     * Lower the key of a node in the queue; ignored if the node is absent
+     * or the new key is not lower.
+     * @param nodeId id of the node
+     * @param newKey new key
+     */
+    void decreaseKey(int nodeId, int newKey);
+
+    /**
+     * Insert the node, or lower its key if it is already in the queue.
+     * @param nodeId id of the node
+     * @param key key of the node
+     */
+    default void insertOrDecrease(int nodeId, int key)
+    {
+        if (contains(nodeId)) decreaseKey(nodeId, key);
+        else insert(nodeId, key);
+    }
+
+    /**
+     * Remove the node with the smallest key.
+     * @return its id, or -1 if the queue is empty
+     */
+    int removeMin();
+
+    /** @return id of the node with the smallest key */
+    int minId();
+
+    /** @return the smallest key in the queue */
+    int minKey();
+
+    /**
+     * @param nodeId id of the node
+     * @return true if the node is in the queue
+     */
+    boolean contains(int nodeId);
+
+    /** @return number of nodes in the queue */
+    int size();
+
+    /** @return true if the queue is empty */
+    default boolean isEmpty() { return size() == 0; }
+
+    /** Empty the queue, in time proportional to the number of nodes left in it */
+    void clear();
+}
@@ -0,0 +1,69 @@
+package graph;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/** Array of ints, kept either in an int[] on the heap or in an IntBuffer,
+ *  such as a view of a memory mapped file or of off-heap memory. Writing
+ *  to a read-only buffer throws ReadOnlyBufferException.
+ *  Graph stores its adjacency in these, so the same graph code runs on
+ *  graphs built in memory and on graphs served straight from a file.
+ */
+abstract class IntArray
+{
+    abstract int get(int i);
+    abstract void set(int i, int value);
+    abstract int length();
+
+    /** The backing int[] of a heap array, so hot loops can index it directly; null for a buffer */
+    int[] array() { return null; }
+
+    static IntArray of(int[] values) { return new Heap(values); }
+    static IntArray of(IntBuffer values) { return new Buffer(values); }
+
+    /**
+     * Zeroed array in off-heap memory, in native byte order. The garbage
+     * collector never scans or moves it; it is freed once the array is
+     * unreachable, and all of them together are limited by
+     * -XX:MaxDirectMemorySize, which defaults to the maximum heap size.
+     * @throws IllegalArgumentException if length ints take 2 GB or more
+     */
+    static IntArray direct(long length)
+    {
+        if (length < 0 || length > Integer.MAX_VALUE / 4)
+            throw new IllegalArgumentException(length + " ints do not fit in one direct buffer");
+        return of(ByteBuffer.allocateDirect((int) (4 * length)).order(ByteOrder.nativeOrder()).asIntBuffer());
+    }
+
+    /** Copy of the first length values in off-heap memory */
+    IntArray toDirect(int length)
+    {
+        IntArray copy = direct(length);
+        for (int i = 0; i < length; i++) copy.set(i, get(i));
+        return copy;
+    }
+
+    private static final class Heap extends IntArray
+    {
+        private final int[] values;
+
+        Heap(int[] values) { this.values = values; }
+
+        @Override int get(int i) { return values[i]; }
+        @Override void set(int i, int value) { values[i] = value; }
+        @Override int length() { return values.length; }
+        @Override int[] array() { return values; }
+    }
+
+    private static final class Buffer extends IntArray
+    {
+        private final IntBuffer values;
+
+        Buffer(IntBuffer values) { this.values = values; }
+
+        @Override int get(int i) { return values.get(i); }
+        @Override void set(int i, int value) { values.put(i, value); }
+        @Override int length() { return values.limit(); }
+    }
+}
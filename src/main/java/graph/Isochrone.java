@@ -0,0 +1,117 @@
+package graph;
+
+import java.awt.Point;
+import java.util.Arrays;
+
+/** The nodes reachable from an origin within a cost budget, with their
+ *  costs, as found by a bounded Dijkstra search: the area a coverage map
+ *  shades. Nodes are kept in the order the search settled them, so their
+ *  costs never decrease, in parallel int arrays.
+ */
+public class Isochrone
+{
+    private final int origin;
+    private final int budget;
+    private final int[] nodes;
+    private final int[] dist;
+    private final int[] parent;
+    private volatile int[] sorted;  //nodes in increasing id order, made on first use
+
+    Isochrone(int origin, int budget, int[] nodes, int[] dist, int[] parent)
+    {
+        this.origin = origin;
+        this.budget = budget;
+        this.nodes = nodes;
+        this.dist = dist;
+        this.parent = parent;
+    }
+
+    public int origin() { return origin; }
+    public int budget() { return budget; }
+
+    /**
+     * Number of nodes within the budget, the origin included.
+     * @return node count
+     */
+    public int size() { return nodes.length; }
+
+    /**
+     * Ids of the nodes within the budget, by increasing cost. The array is
+     * the isochrone's own, not a copy, and must not be modified.
+     * @return node ids
+     */
+    public int[] nodes() { return nodes; }
+
+    /**
+     * Cost from the origin to each node of nodes(), at the same index. The
+     * array is the isochrone's own, not a copy, and must not be modified.
+     * @return costs
+     */
+    public int[] distances() { return dist; }
+
+    /**
+     * Node before each node of nodes() on its shortest path, at the same
+     * index; -1 for the origin. The array must not be modified.
+     * @return parent node ids
+     */
+    public int[] parents() { return parent; }
+
+    /**
+     * Whether a node is within the budget.
+     * @param nodeId id of the node
+     * @return true if the node is reachable at a cost of at most the budget
+     */
+    public boolean contains(int nodeId) { return Arrays.binarySearch(sorted(), nodeId) >= 0; }
+
+    private int[] sorted()
+    {
+        int[] s = sorted;
+        if (s == null)
+        {
+            s = nodes.clone();
+            Arrays.sort(s);
+            sorted = s;
+        }
+        return s;
+    }
+
+    /**
+     * The edges between nodes within the budget, as pairs of points like
+     * Graph.getEdges, so GUIApp can draw the reachable part of the graph.
+     * Only the nodes of the isochrone and their edges are looked at.
+     * @param graph graph the isochrone was computed on
+     * @return for each edge, the locations of its origin and destination
+     */
+    public Point[][] getEdges(Graph graph)
+    {
+        Point[] locations = new Point[nodes.length];
+        int count = 0;
+        for (int i = 0; i < nodes.length; i++)
+        {
+            locations[i] = graph.getNode(nodes[i]).getLocation();
+            for (int e = graph.edgeBegin(nodes[i]); e < graph.edgeEnd(nodes[i]); e++)
+            {
+                if (contains(graph.edgeTarget(e))) count++;
+            }
+        }
+
+        int[] sortedNodes = sorted();
+        int[] index = new int[nodes.length];  //index[k] = position in nodes of sortedNodes[k]
+        for (int i = 0; i < nodes.length; i++) index[Arrays.binarySearch(sortedNodes, nodes[i])] = i;
+
+        Point[][] edges2D = new Point[count][];
+        count = 0;
+        for (int i = 0; i < nodes.length; i++)
+        {
+            for (int e = graph.edgeBegin(nodes[i]); e < graph.edgeEnd(nodes[i]); e++)
+            {
+                int k = Arrays.binarySearch(sortedNodes, graph.edgeTarget(e));
+                if (k >= 0) edges2D[count++] = new Point[] { locations[i], locations[index[k]] };
+            }
+        }
+        return edges2D;
+    }
+
+    @Override
+    public String toString() { return size() + " nodes within " + budget + " of " + origin; }
+}
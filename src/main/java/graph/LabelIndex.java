@@ -0,0 +1,66 @@
+package graph;
+
+import java.nio.ByteBuffer;
+
+/** Open addressing hash table from labels to node ids for graphs that keep
+ *  their labels as a UTF-8 dictionary instead of CityNodes, i.e. mapped and
+ *  off-heap graphs. A slot holds the id plus one, 0 when it is empty, and
+ *  the label itself is compared in the dictionary, so the table is one
+ *  IntArray of about 4 ints per node. Saved graph files carry it, so a
+ *  mapped graph looks labels up in the mapping and builds nothing.
+ */
+final class LabelIndex
+{
+    // FNV-1a, also used by GraphReader to hash the labels it parses
+    static final int SEED = 0x811c9dc5;
+    static final int PRIME = 0x01000193;
+
+    private LabelIndex() { }
+
+    /** Number of slots of the table for numNodes labels: a power of two, at least twice numNodes */
+    static int capacity(int numNodes) { return Integer.highestOneBit(Math.max(2 * numNodes, 2)) * 2; }
+
+    /** Table of the labels labelBytes[labelStarts[i] .. labelStarts[i+1]-1] of nodes 0 .. numNodes-1 */
+    static IntArray build(int numNodes, IntArray labelStarts, ByteBuffer labelBytes, boolean offHeap)
+    {
+        int capacity = capacity(numNodes);
+        IntArray slots = offHeap ? IntArray.direct(capacity) : IntArray.of(new int[capacity]);
+        int mask = capacity - 1;
+        for (int id = 0; id < numNodes; id++)
+        {
+            int h = SEED;
+            for (int i = labelStarts.get(id), end = labelStarts.get(id + 1); i < end; i++) h = (h ^ labelBytes.get(i)) * PRIME;
+            int s = mix(h) & mask;
+            while (slots.get(s) != 0) s = (s + 1) & mask;
+            slots.set(s, id + 1);
+        }
+        return slots;
+    }
+
+    /**
+     * Id of the node with the given label.
+     * @return the id; -1 if no node has the label
+     */
+    static int find(IntArray slots, IntArray labelStarts, ByteBuffer labelBytes, byte[] label)
+    {
+        int h = SEED;
+        for (byte b : label) h = (h ^ b) * PRIME;
+        int mask = slots.length() - 1;
+        for (int s = mix(h) & mask; ; s = (s + 1) & mask)
+        {
+            int id = slots.get(s) - 1;
+            if (id < 0) return -1;
+            if (equal(labelStarts.get(id), labelStarts.get(id + 1), labelBytes, label)) return id;
+        }
+    }
+
+    /** Spread the high bits of the hash into the low bits the table indexes by */
+    static int mix(int h) { return h ^ (h >>> 16); }
+
+    private static boolean equal(int start, int end, ByteBuffer labelBytes, byte[] label)
+    {
+        if (end - start != label.length) return false;
+        for (int i = 0; i < label.length; i++) if (labelBytes.get(start + i) != label[i]) return false;
+        return true;
+    }
+}
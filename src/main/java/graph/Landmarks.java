@@ -0,0 +1,249 @@
+package graph;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.Random;
+
+/** ALT (A*, Landmarks, Triangle inequality) lower bounds.
+ *  For a landmark L the triangle inequality gives
+ *  d(v, t) >= d(L, t) - d(L, v) and d(v, t) >= d(v, L) - d(t, L);
+ *  the estimate is the largest such bound over all landmarks.
+ *  Distances are kept in node-major int arrays (all landmarks of one node
+ *  are adjacent), and can be saved to and loaded from a file so they are
+ *  computed only once per graph.
+ */
+public class Landmarks implements Heuristic
+{
+    /** How landmarks are chosen */
+    public enum Selection
+    {
+        /** Each landmark is the node farthest from the ones already chosen */
+        FARTHEST,
+        /** Goldberg and Werneck's avoid: grow landmarks in the regions of a
+         *  shortest path tree that the current ones bound worst */
+        AVOID
+    }
+
+    private static final int MAGIC = 0x414c5431;  // "ALT1"
+    private static final int INF = Integer.MAX_VALUE;
+
+    private final int numNodes;
+    private final int stride;  //number of columns of the tables
+    private final int[] landmarks;
+    private final int[] from;  //from[v*k + i] = d(landmarks[i], v)
+    private final int[] to;    //to[v*k + i] = d(v, landmarks[i]); same array as from on symmetric graphs
+
+    private Landmarks(int numNodes, int stride, int[] landmarks, int[] from, int[] to)
+    {
+        this.numNodes = numNodes;
+        this.stride = stride;
+        this.landmarks = landmarks;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Choose k landmarks and compute their distance tables.
+     *
+     * @param graph graph to preprocess
+     * @param k number of landmarks
+     * @param selection selection strategy
+     * @param seed random seed for the starting nodes
+     * @return landmarks for the graph
+     */
+    public static Landmarks select(Graph graph, int k, Selection selection, long seed)
+    {
+        int n = graph.numNodes();
+        k = Math.min(k, n);
+        Random rnd = new Random(seed);
+        boolean symmetric = graph.reverse() == graph;
+
+        int[] chosen = new int[k];
+        int[] fromTable = new int[n * k];
+        int[] toTable = symmetric ? fromTable : new int[n * k];
+        int[] dist = new int[n];
+        int[] parent = new int[n];
+        int[] order = new int[n];
+
+        for (int i = 0; i < k; i++)
+        {
+            Landmarks current = new Landmarks(n, k, Arrays.copyOf(chosen, i), fromTable, toTable);
+            if (i == 0 || selection == Selection.FARTHEST) chosen[i] = farthest(graph, current, i == 0 ? rnd.nextInt(n) : -1, dist);
+            else chosen[i] = avoid(graph, current, rnd.nextInt(n), dist, parent, order);
+
+            fillColumn(graph, chosen[i], i, k, fromTable, dist);
+            if (!symmetric) fillColumn(graph.reverse(), chosen[i], i, k, toTable, dist);
+        }
+
+        return new Landmarks(n, k, chosen, fromTable, toTable);
+    }
+
+    /**
+     * Node farthest from the landmarks chosen so far (or from start, before
+     * the first landmark), among the nodes they reach.
+     */
+    private static int farthest(Graph graph, Landmarks current, int start, int[] dist)
+    {
+        int n = graph.numNodes();
+        int k = current.landmarks.length;
+        int best = start < 0 ? 0 : start;
+        long bestDist = -1;
+
+        if (start >= 0) Dijkstra.oneToAll(graph, start, dist, null, null);
+        for (int v = 0; v < n; v++)
+        {
+            long d;
+            if (start >= 0) d = dist[v];
+            else
+            {
+                // distance to the closest landmark
+                d = INF;
+                for (int i = 0; i < k; i++) d = Math.min(d, current.from[v * current.stride + i]);
+            }
+            if (d != INF && d > bestDist && !current.isLandmark(v))
+            {
+                bestDist = d;
+                best = v;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Goldberg-Werneck avoid. Build the shortest path tree of a random root,
+     * weigh every node by how much the current bound underestimates its
+     * distance from the root, and sum the weights over subtrees; subtrees that
+     * contain a landmark count as zero. Starting at the heaviest node, follow
+     * the heaviest child down to a leaf and make that leaf the new landmark.
+     */
+    private static int avoid(Graph graph, Landmarks current, int root, int[] dist, int[] parent, int[] order)
+    {
+        int n = graph.numNodes();
+        int reached = Dijkstra.oneToAll(graph, root, dist, parent, order);
+
+        long[] size = new long[n];
+        boolean[] covered = new boolean[n];
+        for (int i = reached - 1; i >= 0; i--)
+        {
+            int v = order[i];
+            if (current.isLandmark(v)) covered[v] = true;
+            if (covered[v]) size[v] = 0;
+            else size[v] += dist[v] - current.estimate(root, v);
+
+            int p = parent[v];
+            if (p < 0) continue;
+            if (covered[v]) covered[p] = true;
+            else size[p] += size[v];
+        }
+
+        int w = root;
+        for (int i = 0; i < reached; i++) if (size[order[i]] > size[w]) w = order[i];
+        if (size[w] == 0) return farthest(graph, current, -1, dist);
+
+        // children lists of the tree, in CSR form
+        int[] first = new int[n + 1];
+        for (int i = 0; i < reached; i++) if (parent[order[i]] >= 0) first[parent[order[i]] + 1]++;
+        for (int v = 0; v < n; v++) first[v + 1] += first[v];
+        int[] fill = Arrays.copyOf(first, n);
+        int[] children = new int[Math.max(reached - 1, 0)];
+        for (int i = 0; i < reached; i++) if (parent[order[i]] >= 0) children[fill[parent[order[i]]]++] = order[i];
+
+        while (first[w] < first[w + 1])
+        {
+            int next = children[first[w]];
+            for (int c = first[w] + 1; c < first[w + 1]; c++) if (size[children[c]] > size[next]) next = children[c];
+            w = next;
+        }
+        return w;
+    }
+
+    private static void fillColumn(Graph graph, int landmark, int column, int k, int[] table, int[] dist)
+    {
+        Dijkstra.oneToAll(graph, landmark, dist, null, null);
+        for (int v = 0; v < dist.length; v++) table[v * k + column] = dist[v];
+    }
+
+    private boolean isLandmark(int v)
+    {
+        for (int l : landmarks) if (l == v) return true;
+        return false;
+    }
+
+    /**
+     * Ids of the landmark nodes.
+     * @return landmark ids
+     */
+    public int[] landmarks() { return landmarks.clone(); }
+
+    @Override
+    public int estimate(int v, int t)
+    {
+        int bv = v * stride, bt = t * stride;
+        int best = 0;
+        for (int i = 0; i < landmarks.length; i++)
+        {
+            // a landmark that reaches v but not t, or that t reaches but v does not, proves t unreachable from v
+            int lv = from[bv + i], lt = from[bt + i];
+            if (lv != INF && lt == INF) return INF;
+            if (lv != INF && lt - lv > best) best = lt - lv;
+
+            int vl = to[bv + i], tl = to[bt + i];
+            if (vl == INF && tl != INF) return INF;
+            if (vl != INF && tl != INF && vl - tl > best) best = vl - tl;
+        }
+        return best;
+    }
+
+    /**
+     * Write the landmarks and their distance tables to a file.
+     *
+     * @param filename name of the file
+     * @throws IOException if the file can not be written
+     */
+    public void save(String filename) throws IOException
+    {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename))))
+        {
+            out.writeInt(MAGIC);
+            out.writeInt(numNodes);
+            out.writeInt(landmarks.length);
+            out.writeBoolean(to == from);
+            for (int l : landmarks) out.writeInt(l);
+            for (int d : from) out.writeInt(d);
+            if (to != from) for (int d : to) out.writeInt(d);
+        }
+    }
+
+    /**
+     * Read landmarks written by save. The file must have been created for a
+     * graph with the same nodes.
+     *
+     * @param filename name of the file
+     * @param graph graph the landmarks belong to
+     * @return the landmarks
+     * @throws IOException if the file can not be read or was made for another graph
+     */
+    public static Landmarks load(String filename, Graph graph) throws IOException
+    {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(filename))))
+        {
+            if (in.readInt() != MAGIC) throw new IOException(filename + " is not a landmark file");
+            int n = in.readInt();
+            if (n != graph.numNodes()) throw new IOException(filename + " was made for a graph with " + n + " nodes");
+            int k = in.readInt();
+            boolean symmetric = in.readBoolean();
+
+            int[] landmarks = new int[k];
+            for (int i = 0; i < k; i++) landmarks[i] = in.readInt();
+            int[] from = new int[n * k];
+            for (int i = 0; i < from.length; i++) from[i] = in.readInt();
+            int[] to = from;
+            if (!symmetric)
+            {
+                to = new int[n * k];
+                for (int i = 0; i < to.length; i++) to[i] = in.readInt();
+            }
+            return new Landmarks(n, k, landmarks, from, to);
+        }
+    }
+}
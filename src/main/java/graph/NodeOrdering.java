@@ -0,0 +1,162 @@
+package graph;
+
+import java.awt.Point;
+import java.util.Arrays;
+
+/** Orders of the nodes of a graph that put nodes that are searched together
+ *  close together in memory, for Graph.reorder. Each returns the node that
+ *  gets each new id: order[newId] = oldId.
+ */
+final class NodeOrdering
+{
+    private NodeOrdering() { }
+
+    /**
+     * Nodes sorted by their position along a Hilbert curve through the map.
+     * The curve visits every cell of a grid before it moves to the next, so
+     * nodes close on the curve are close on the map and, on a road network,
+     * close in the graph. Nodes at the same pixel keep their old order.
+     */
+    static int[] hilbert(Graph graph)
+    {
+        int n = graph.numNodes();
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        Point[] points = new Point[n];
+        for (int i = 0; i < n; i++)
+        {
+            points[i] = graph.getNode(i).getLocation();
+            minX = Math.min(minX, points[i].x);
+            minY = Math.min(minY, points[i].y);
+            maxX = Math.max(maxX, points[i].x);
+            maxY = Math.max(maxY, points[i].y);
+        }
+
+        long extent = Math.max((long) maxX - minX, (long) maxY - minY);
+        int side = 1, shift = 0;
+        while (side <= extent >>> shift)
+        {
+            if (side < 1 << 15) side <<= 1;
+            else shift++;  //keep the index below 2^30 so it shifts into a positive key
+        }
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++)
+        {
+            int x = (int) (((long) points[i].x - minX) >>> shift), y = (int) (((long) points[i].y - minY) >>> shift);
+            keys[i] = (hilbertIndex(side, x, y) << 32) | i;
+        }
+        Arrays.sort(keys);
+
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) order[i] = (int) keys[i];
+        return order;
+    }
+
+    /**
+     * Distance of a cell along the Hilbert curve that fills a side x side
+     * grid, side a power of two.
+     */
+    static long hilbertIndex(int side, int x, int y)
+    {
+        long d = 0;
+        for (int s = side >>> 1; s > 0; s >>>= 1)
+        {
+            int rx = (x & s) != 0 ? 1 : 0;
+            int ry = (y & s) != 0 ? 1 : 0;
+            d += (long) s * s * ((3 * rx) ^ ry);
+            if (ry == 0)  //rotate the quadrant so the curve inside it joins up
+            {
+                if (rx == 1)
+                {
+                    x = s - 1 - x;
+                    y = s - 1 - y;
+                }
+                int t = x;
+                x = y;
+                y = t;
+            }
+        }
+        return d;
+    }
+
+    /**
+     * Reverse Cuthill-McKee: breadth first search, component by component,
+     * starting from a node of least degree and visiting the neighbors of
+     * each node in order of degree, then reversed. Neighbors get close ids,
+     * so it needs no coordinates. Edges count in both directions.
+     */
+    static int[] reverseCuthillMcKee(Graph graph)
+    {
+        int n = graph.numNodes();
+        Graph reverse = graph.reverse();
+        boolean twoWay = reverse != graph;
+        int[] degree = new int[n];
+        for (int i = 0; i < n; i++)
+        {
+            degree[i] = graph.edgeEnd(i) - graph.edgeBegin(i);
+            if (twoWay) degree[i] += reverse.edgeEnd(i) - reverse.edgeBegin(i);
+        }
+        int[] byDegree = sortedByDegree(degree, n);
+
+        int[] order = new int[n];
+        boolean[] visited = new boolean[n];
+        int count = 0;
+        int[] neighbors = new int[16];
+        for (int start : byDegree)
+        {
+            if (visited[start]) continue;
+            visited[start] = true;
+            order[count++] = start;
+            for (int head = count - 1; head < count; head++)
+            {
+                int v = order[head];
+                int found = 0;
+                for (Graph g = graph; g != null; g = twoWay && g == graph ? reverse : null)
+                {
+                    for (int e = g.edgeBegin(v), end = g.edgeEnd(v); e < end; e++)
+                    {
+                        int t = g.edgeTarget(e);
+                        if (visited[t]) continue;
+                        visited[t] = true;
+                        if (found == neighbors.length) neighbors = Arrays.copyOf(neighbors, 2 * found);
+                        neighbors[found++] = t;
+                    }
+                }
+                sortByDegree(neighbors, found, degree);
+                System.arraycopy(neighbors, 0, order, count, found);
+                count += found;
+            }
+        }
+
+        for (int i = 0, j = n - 1; i < j; i++, j--)
+        {
+            int t = order[i];
+            order[i] = order[j];
+            order[j] = t;
+        }
+        return order;
+    }
+
+    /** Nodes 0 .. n-1 by increasing degree, by counting sort; ties keep their id order */
+    private static int[] sortedByDegree(int[] degree, int n)
+    {
+        int maxDegree = 0;
+        for (int d : degree) maxDegree = Math.max(maxDegree, d);
+        int[] start = new int[maxDegree + 2];
+        for (int d : degree) start[d + 1]++;
+        for (int d = 0; d <= maxDegree; d++) start[d + 1] += start[d];
+        int[] sorted = new int[n];
+        for (int i = 0; i < n; i++) sorted[start[degree[i]]++] = i;
+        return sorted;
+    }
+
+    /** Insertion sort of the first count nodes by degree; neighbor lists are short */
+    private static void sortByDegree(int[] nodes, int count, int[] degree)
+    {
+        for (int i = 1; i < count; i++)
+        {
+            int v = nodes[i], j = i - 1;
+            for (; j >= 0 && degree[nodes[j]] > degree[v]; j--) nodes[j + 1] = nodes[j];
+            nodes[j + 1] = v;
+        }
+    }
+}
@@ -1,13 +0,0 @@
-package graph;
-
-public class Pair
-{
-    public int k;
-    public int v;
-
-    public Pair(int k, int v)
-    {
-        this.k = k;
-        this.v = v;
-    }
-}
\ No newline at end of file
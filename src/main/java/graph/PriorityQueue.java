@@ -3,116 +3,130 @@ package graph;
 
 import java.util.Arrays;
 
-/** A class that implements a priority queue and all
- *  integral functionality.
+/** A class that implements an indexed binary min-heap of node ids
+ *  ordered by int keys, with all integral functionality.
+ *  Entries live in parallel primitive arrays, so no operation allocates,
+ *  and clear() only resets the entries still in the heap, which lets one
+ *  queue be reused across queries.
  */
 
-public class PriorityQueue
+public class PriorityQueue implements IndexedPriorityQueue
 {
     private int size;
-    private int capacity;
-    private Trip[] heap; //id = nodeID, k = cost, v = parentID
-    private int[] locs;
-    private boolean[] active;
+    private final int capacity;
+    private final int[] keys;       //keys[i] = key of the entry at heap position i
+    private final int[] ids;        //ids[i] = node id of the entry at heap position i
+    private final int[] positions;  //positions[nodeId] = heap position, -1 if not in the heap
 
     public PriorityQueue(int capacity)
     {
         this.size = 0;
         this.capacity = capacity;
-        heap = new Trip[capacity];
-        locs = new int[capacity];
-        active = new boolean[capacity];
-        Arrays.fill(locs, -1);
+        keys = new int[capacity];
+        ids = new int[capacity];
+        positions = new int[capacity];
+        Arrays.fill(positions, -1);
     }
 
-    public Trip[] heap() { return heap; }
-    public int[] locs() { return locs; }
+    @Override public int size() { return size; }
+    @Override public boolean isEmpty() { return size == 0; }
+    @Override public boolean contains(int nodeId) { return positions[nodeId] >= 0; }
 
-    public void insert(int nodeId, int cost, int parentId)
+    @Override public int minId() { return ids[0]; }
+    @Override public int minKey() { return keys[0]; }
+    public int key(int nodeId) { return keys[positions[nodeId]]; }
+
+    @Override
+    public void insert(int nodeId, int key)
     {
         if (size == capacity) return;
 
-        heap[size] = new Trip(nodeId, cost, parentId);
-        locs[nodeId] = size;
-        active[nodeId] = true;
-        size++;
+        keys[size] = key;
+        ids[size] = nodeId;
+        positions[nodeId] = size;
+        this.siftUp(size++);
     }
 
-    public int cost() { return heap[0].k; }
-    public int parent() { return heap[0].v; }
-
+    @Override
     public int removeMin()
     {
         if (size < 1) return -1;
 
-        int g = heap[0].id;
+        int g = ids[0];
+        positions[g] = -1;
 
         size--;
-        this.swap(0, size);
-        heap[size] = null;
-        active[g] = false;
-
-        this.bubbleDown(0);
+        if (size > 0)
+        {
+            keys[0] = keys[size];
+            ids[0] = ids[size];
+            positions[ids[0]] = 0;
+            this.siftDown(0);
+        }
         return g;
     }
 
-    private void bubbleDown(int i)
+    @Override
+    public void decreaseKey(int nodeId, int newKey)
     {
-        int l = i + i + 1;
-        int r = l+1;
-
-        if (heap[l] == null && heap[r] == null) return;
-
-        int min;
-        if      (heap[r] == null)          min = l;
-        else if (heap[l] == null)          min = r;
-        else min = (heap[l].k <= heap[r].k) ? l : r;
+        if (nodeId < 0 || nodeId >= capacity) return;
+        int i = positions[nodeId];
+        if (i < 0 || keys[i] <= newKey) return;
 
-        if (heap[i].k > heap[min].k)
-        {
-            this.swap(i, min);
-            if ((min + min + 1) < size)
-                this.bubbleDown(min);
-        }
+        keys[i] = newKey;
+        this.siftUp(i);
     }
 
-    private void bubbleUp(int i)
+    @Override
+    public void insertOrDecrease(int nodeId, int key)
     {
-        if (i < 1) return;
-
-        int t = (i-1)/2;
-        int a = t + (t+1) + (i%2);
-
-        int min;
-        if (heap[a] == null) min = i;
-        else min = (heap[i].k <= heap[a].k) ? i : a;
-
-        if (heap[t].k > heap[min].k)
-        {
-            this.swap(t, min);
-            this.bubbleUp(t);
-        }
+        if (positions[nodeId] >= 0) decreaseKey(nodeId, key);
+        else insert(nodeId, key);
     }
 
-    public void reduceKey(int nodeId, int newCost, int newParent)
+    @Override
+    public void clear()
     {
-        if (nodeId < 0 || nodeId >= capacity) return;
-        if (!active[nodeId]) return;
-        if (heap[locs[nodeId]].k <= newCost) return;
-
-        heap[locs[nodeId]].k = newCost;
-        heap[locs[nodeId]].v = newParent;
-        this.bubbleUp(locs[nodeId]);
+        for (int i = 0; i < size; i++) positions[ids[i]] = -1;
+        size = 0;
     }
 
-    public void swap(int a, int b)
+    private void siftUp(int i)
     {
-        locs[heap[a].id] = b;
-        locs[heap[b].id] = a;
+        int key = keys[i];
+        int id = ids[i];
+        while (i > 0)
+        {
+            int t = (i - 1) >>> 1;
+            if (keys[t] <= key) break;
+            keys[i] = keys[t];
+            ids[i] = ids[t];
+            positions[ids[i]] = i;
+            i = t;
+        }
+        keys[i] = key;
+        ids[i] = id;
+        positions[id] = i;
+    }
 
-        Trip tmp = this.heap[a];
-        this.heap[a] = this.heap[b];
-        this.heap[b] = tmp;
+    private void siftDown(int i)
+    {
+        int key = keys[i];
+        int id = ids[i];
+        while (true)
+        {
+            int min = i + i + 1;
+            if (min >= size) break;
+            if (min + 1 < size && keys[min + 1] < keys[min]) min++;
+            if (keys[min] >= key) break;
+            keys[i] = keys[min];
+            ids[i] = ids[min];
+            positions[ids[i]] = i;
+            i = min;
+        }
+        keys[i] = key;
+        ids[i] = id;
+        positions[id] = i;
     }
 
     @Override
@@ -125,12 +139,11 @@ public class PriorityQueue
         for (i = 0; i < size; i++)
         {
             stb.append("  ").append(i)
-                    .append(".  nodeID: ").append(heap[i].id)
-                    .append(",  cost: ").append(heap[i].k)
-                    .append(",  parentID: ").append(heap[i].v);
+                    .append(".  nodeID: ").append(ids[i])
+                    .append(",  key: ").append(keys[i]);
             if (i != size-1) stb.append("\n");
         }
 
         return stb.toString();
     }
-}
\ No newline at end of file
+}
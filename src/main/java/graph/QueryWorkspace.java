@@ -0,0 +1,71 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/** Per-node search state of one query direction, reused across queries.
+ *  Instead of clearing the arrays before every query, each query gets a new
+ *  version number, and an entry counts only if it carries the current one,
+ *  so starting a query costs O(1) and a query that explores k nodes touches
+ *  O(k) memory, however big the graph is.
+ *  A workspace is not thread-safe; a Dijkstra query takes one from the
+ *  instance's idle workspaces and gives it back when done.
+ */
+class QueryWorkspace
+{
+    private static final int INF = Integer.MAX_VALUE;
+
+    private final int[] dist;       //tentative cost from the source
+    private final int[] parent;     //predecessor on the best known path
+    private final int[] estimate;   //heuristic value, computed when a node is first reached
+    private final int[] reached;    //reached[v] == version: dist, parent and estimate are valid
+    private final int[] settled;    //settled[v] == version: dist is final
+    private int version;
+    private final IndexedPriorityQueue queue;
+
+    QueryWorkspace(int numNodes, IntFunction<IndexedPriorityQueue> queues)
+    {
+        dist = new int[numNodes];
+        parent = new int[numNodes];
+        estimate = new int[numNodes];
+        reached = new int[numNodes];
+        settled = new int[numNodes];
+        queue = queues.apply(numNodes);
+    }
+
+    /** Forget the previous query */
+    void reset()
+    {
+        queue.clear();
+        if (++version == INF)
+        {
+            // once in 2^31 queries the versions wrap around
+            Arrays.fill(reached, 0);
+            Arrays.fill(settled, 0);
+            version = 1;
+        }
+    }
+
+    IndexedPriorityQueue queue() { return queue; }
+
+    boolean isReached(int v) { return reached[v] == version; }
+    boolean isSettled(int v) { return settled[v] == version; }
+    int dist(int v) { return reached[v] == version ? dist[v] : INF; }
+    int parent(int v) { return parent[v]; }
+    int estimate(int v) { return estimate[v]; }
+
+    /** Record a better path to v; the estimate is kept if v was reached before */
+    void reach(int v, int cost, int par)
+    {
+        if (reached[v] != version)
+        {
+            reached[v] = version;
+            estimate[v] = 0;
+        }
+        dist[v] = cost;
+        parent[v] = par;
+    }
+
+    void setEstimate(int v, int h) { estimate[v] = h; }
+    void settle(int v) { settled[v] = version; }
+}
@@ -0,0 +1,143 @@
+package graph;
+
+import java.util.Arrays;
+
+/** Indexed radix heap for non-negative int keys.
+ *  Only valid for monotone use: no key inserted or decreased may be smaller
+ *  than the minimum last removed or looked at, which holds for Dijkstra and
+ *  for A* with a consistent heuristic. Bucket b holds the nodes whose key
+ *  first differs from that minimum in bit b-1 (bucket 0 holds keys equal to
+ *  it), so each node moves to a lower bucket at most 32 times.
+ */
+public class RadixHeap implements IndexedPriorityQueue
+{
+    private static final int BUCKETS = 33;
+
+    private int size;
+    private int last;  //last minimum removed or looked at; lower bound of every key in the heap
+    private final int[] keys;      //keys[nodeId] = key of the node
+    private final int[] bucketOf;  //bucketOf[nodeId] = bucket of the node, -1 if not in the heap
+    private final int[] slot;      //slot[nodeId] = index of the node within its bucket
+    private final int[][] buckets = new int[BUCKETS][];
+    private final int[] bucketSize = new int[BUCKETS];
+
+    public RadixHeap(int capacity)
+    {
+        keys = new int[capacity];
+        bucketOf = new int[capacity];
+        slot = new int[capacity];
+        Arrays.fill(bucketOf, -1);
+        for (int b = 0; b < BUCKETS; b++) buckets[b] = new int[8];
+    }
+
+    @Override public int size() { return size; }
+    @Override public boolean contains(int nodeId) { return bucketOf[nodeId] >= 0; }
+
+    @Override
+    public int minId()
+    {
+        fillFirstBucket();
+        return buckets[0][bucketSize[0] - 1];
+    }
+
+    @Override
+    public int minKey()
+    {
+        fillFirstBucket();
+        return last;
+    }
+
+    @Override
+    public void insert(int nodeId, int key)
+    {
+        if (key < last) throw new IllegalArgumentException("key " + key + " is below the heap minimum " + last);
+
+        keys[nodeId] = key;
+        add(nodeId, bucketFor(key));
+        size++;
+    }
+
+    @Override
+    public void decreaseKey(int nodeId, int newKey)
+    {
+        int b = bucketOf[nodeId];
+        if (b < 0 || keys[nodeId] <= newKey) return;
+        if (newKey < last) throw new IllegalArgumentException("key " + newKey + " is below the heap minimum " + last);
+
+        keys[nodeId] = newKey;
+        int nb = bucketFor(newKey);
+        if (nb != b)
+        {
+            remove(nodeId);
+            add(nodeId, nb);
+        }
+    }
+
+    @Override
+    public int removeMin()
+    {
+        if (size < 1) return -1;
+
+        fillFirstBucket();
+        int g = buckets[0][--bucketSize[0]];
+        bucketOf[g] = -1;
+        size--;
+        return g;
+    }
+
+    @Override
+    public void clear()
+    {
+        for (int b = 0; b < BUCKETS; b++)
+        {
+            for (int i = 0; i < bucketSize[b]; i++) bucketOf[buckets[b][i]] = -1;
+            bucketSize[b] = 0;
+        }
+        size = 0;
+        last = 0;
+    }
+
+    private int bucketFor(int key) { return key == last ? 0 : 32 - Integer.numberOfLeadingZeros(key ^ last); }
+
+    /**
+     * If bucket 0 is empty, advance last to the smallest key, found in the
+     * first non-empty bucket, and spread that bucket over the lower ones.
+     */
+    private void fillFirstBucket()
+    {
+        if (bucketSize[0] > 0 || size == 0) return;
+
+        int b = 1;
+        while (bucketSize[b] == 0) b++;
+
+        int[] bucket = buckets[b];
+        int n = bucketSize[b];
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < n; i++) min = Math.min(min, keys[bucket[i]]);
+
+        last = min;
+        bucketSize[b] = 0;
+        for (int i = 0; i < n; i++) add(bucket[i], bucketFor(keys[bucket[i]]));
+    }
+
+    private void add(int nodeId, int b)
+    {
+        int n = bucketSize[b];
+        if (n == buckets[b].length) buckets[b] = Arrays.copyOf(buckets[b], n * 2);
+        buckets[b][n] = nodeId;
+        bucketOf[nodeId] = b;
+        slot[nodeId] = n;
+        bucketSize[b] = n + 1;
+    }
+
+    /** Swap-remove from the node's bucket */
+    private void remove(int nodeId)
+    {
+        int b = bucketOf[nodeId];
+        int n = --bucketSize[b];
+        int moved = buckets[b][n];
+        buckets[b][slot[nodeId]] = moved;
+        slot[moved] = slot[nodeId];
+        bucketOf[nodeId] = -1;
+    }
+}
@@ -0,0 +1,33 @@
+package graph;
+
+import java.util.List;
+
+/** One path from an origin to a destination, with its cost; what
+ *  k-shortest path and alternative route queries return.
+ */
+public class Route
+{
+    private final int cost;
+    private final List<Integer> path;
+
+    Route(int cost, List<Integer> path)
+    {
+        this.cost = cost;
+        this.path = path;
+    }
+
+    /**
+     * Sum of the costs of the edges of the route.
+     * @return cost
+     */
+    public int cost() { return cost; }
+
+    /**
+     * Nodes of the route.
+     * @return node ids, from the destination back to the origin, as computeShortestPath returns them
+     */
+    public List<Integer> path() { return path; }
+
+    @Override
+    public String toString() { return "cost " + cost + ": " + path; }
+}
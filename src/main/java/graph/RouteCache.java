@@ -0,0 +1,169 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Bounded cache of shortest paths in front of a Dijkstra.
+ *  Paths are kept per (origin, destination) pair, as int arrays, and the
+ *  least recently used pair is evicted when the cache is full. Origins that
+ *  miss often enough become hot: their whole shortest path tree is computed
+ *  once and kept in a second LRU cache, and any destination from them is
+ *  then answered by walking the tree's parent array.
+ *  Searches run outside the lock, so concurrent misses do not wait for
+ *  each other; two threads missing on the same pair may both compute it.
+ *  The cache remembers the graph's version; once setEdgeCost changes it,
+ *  the next query drops every cached path and tree.
+ */
+public class RouteCache
+{
+    private final Dijkstra dijkstra;
+    private final Graph graph;
+    private final int hotThreshold;
+    private final LinkedHashMap<Long, int[]> paths;
+    private final LinkedHashMap<Integer, ShortestPathTree> trees;
+    private final LinkedHashMap<Integer, Integer> originMisses;  //recent misses per origin
+
+    private long hits, treeHits, misses, evictions;
+    private long version;  //graph version the cached paths and trees were computed at
+
+    /**
+     * Cache of paths only.
+     *
+     * @param dijkstra computes the paths that are not cached
+     * @param capacity largest number of cached paths
+     */
+    public RouteCache(Dijkstra dijkstra, int capacity) { this(dijkstra, capacity, 0, 0); }
+
+    /**
+     * Cache of paths and of the trees of hot origins.
+     *
+     * @param dijkstra computes the paths and trees that are not cached
+     * @param capacity largest number of cached paths
+     * @param treeCapacity largest number of cached trees; 0 to cache no trees
+     * @param hotThreshold misses after which an origin gets its tree cached
+     */
+    public RouteCache(Dijkstra dijkstra, int capacity, int treeCapacity, int hotThreshold)
+    {
+        this.dijkstra = dijkstra;
+        this.graph = dijkstra.getGraph();
+        this.version = graph.version();
+        this.hotThreshold = hotThreshold;
+        this.paths = new LinkedHashMap<Long, int[]>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, int[]> eldest)
+            {
+                if (size() <= capacity) return false;
+                evictions++;
+                return true;
+            }
+        };
+        this.trees = new LinkedHashMap<Integer, ShortestPathTree>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, ShortestPathTree> eldest)
+            {
+                if (size() <= treeCapacity) return false;
+                evictions++;
+                return true;
+            }
+        };
+        this.originMisses = new LinkedHashMap<Integer, Integer>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Integer> eldest) { return size() > capacity; }
+        };
+    }
+
+    /**
+     * Shortest path between two nodes, from the cache if possible.
+     * @param origin id of the source node
+     * @param destination id of the destination node
+     * @return node ids on the shortest path, from destination back to origin;
+     * empty if the destination can not be reached
+     */
+    public List<Integer> computeShortestPath(int origin, int destination)
+    {
+        long key = ((long) origin << 32) | (destination & 0xffffffffL);
+        ShortestPathTree tree;
+        boolean hot = false;
+        long current = graph.version();
+        synchronized (this)
+        {
+            if (current != version)
+            {
+                clear();
+                version = current;
+            }
+            tree = trees.get(origin);
+            if (tree != null) treeHits++;
+            else
+            {
+                int[] path = paths.get(key);
+                if (path != null)
+                {
+                    hits++;
+                    return toList(path);
+                }
+                misses++;
+                if (hotThreshold > 0)
+                {
+                    int count = originMisses.merge(origin, 1, Integer::sum);
+                    if (count >= hotThreshold)
+                    {
+                        originMisses.remove(origin);
+                        hot = true;
+                    }
+                }
+            }
+        }
+        if (tree != null) return tree.pathTo(destination);
+
+        if (hot)
+        {
+            tree = dijkstra.shortestPathTree(origin);
+            synchronized (this) { if (version == current) trees.put(origin, tree); }
+            return tree.pathTo(destination);
+        }
+
+        List<Integer> path = dijkstra.computeShortestPathBidirectional(origin, destination, null);
+        int[] compact = new int[path.size()];
+        for (int i = 0; i < compact.length; i++) compact[i] = path.get(i);
+        synchronized (this) { if (version == current) paths.put(key, compact); }
+        return path;
+    }
+
+    private static List<Integer> toList(int[] path)
+    {
+        List<Integer> list = new ArrayList<>(path.length);
+        for (int v : path) list.add(v);
+        return list;
+    }
+
+    /** Drop all cached paths and trees. The counters are kept. */
+    public synchronized void clear()
+    {
+        paths.clear();
+        trees.clear();
+        originMisses.clear();
+    }
+
+    public synchronized long hits() { return hits; }
+    public synchronized long treeHits() { return treeHits; }
+    public synchronized long misses() { return misses; }
+    /** Paths and trees evicted to make room */
+    public synchronized long evictions() { return evictions; }
+    public synchronized int size() { return paths.size(); }
+    public synchronized int trees() { return trees.size(); }
+
+    @Override
+    public synchronized String toString()
+    {
+        long total = hits + treeHits + misses;
+        return "hits: " + hits + ", tree hits: " + treeHits + ", misses: " + misses
+                + ", evictions: " + evictions + ", hit rate: "
+                + (total == 0 ? 0 : Math.round(1000.0 * (hits + treeHits) / total) / 10.0) + "%";
+    }
+}
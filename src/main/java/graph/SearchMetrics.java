@@ -0,0 +1,108 @@
+package graph;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/** Aggregated counters of many queries: histograms of latency, settled
+ *  nodes, relaxed edges and priority queue operations, and the counters
+ *  of the slowest query. Give one to Dijkstra.setMetrics and register it
+ *  with JMX to watch them from jconsole or any other JMX client, and to
+ *  tell a slow query that searched a big part of the graph from one that
+ *  was merely delayed.
+ *  Recording is lock-free apart from the rare new slowest query, so one
+ *  instance can be shared by all threads.
+ */
+public class SearchMetrics implements SearchMetricsMBean
+{
+    private final Histogram latency = new Histogram();  //microseconds
+    private final Histogram settled = new Histogram();
+    private final Histogram relaxed = new Histogram();
+    private final Histogram queueOperations = new Histogram();
+
+    private volatile long slowestNanos = -1;
+    private String slowest = "none";
+
+    /**
+     * Add the counters of one query.
+     *
+     * @param origin id of the source node
+     * @param destination id of the destination node
+     * @param stats counters of the query
+     */
+    public void record(int origin, int destination, SearchStats stats)
+    {
+        latency.record(stats.nanos / 1000);
+        settled.record(stats.settled);
+        relaxed.record(stats.relaxed);
+        queueOperations.record((long) stats.pushes + stats.decreaseKeys);
+        if (stats.nanos <= slowestNanos) return;
+        synchronized (this)
+        {
+            if (stats.nanos <= slowestNanos) return;
+            slowestNanos = stats.nanos;
+            slowest = origin + " -> " + destination + ": " + stats;
+        }
+    }
+
+    /**
+     * Register with the platform MBean server, as graph:type=SearchMetrics,name=&lt;name&gt;.
+     *
+     * @param name name that tells this instance from others, e.g. the graph's file name
+     * @return name the MBean was registered under
+     * @throws IllegalStateException if the name is taken or not valid
+     */
+    public ObjectName register(String name)
+    {
+        try
+        {
+            ObjectName objectName = new ObjectName("graph:type=SearchMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            return objectName;
+        }
+        catch (JMException e) { throw new IllegalStateException(e); }
+    }
+
+    @Override public long getQueries() { return latency.count(); }
+
+    @Override public double getMeanLatencyMicros() { return latency.mean(); }
+    @Override public long getLatencyP50Micros() { return latency.percentile(0.5); }
+    @Override public long getLatencyP90Micros() { return latency.percentile(0.9); }
+    @Override public long getLatencyP99Micros() { return latency.percentile(0.99); }
+    @Override public long getMaxLatencyMicros() { return latency.max(); }
+
+    @Override public double getMeanSettledNodes() { return settled.mean(); }
+    @Override public long getSettledNodesP50() { return settled.percentile(0.5); }
+    @Override public long getSettledNodesP99() { return settled.percentile(0.99); }
+    @Override public long getMaxSettledNodes() { return settled.max(); }
+
+    @Override public double getMeanRelaxedEdges() { return relaxed.mean(); }
+    @Override public long getRelaxedEdgesP99() { return relaxed.percentile(0.99); }
+
+    @Override public double getMeanQueueOperations() { return queueOperations.mean(); }
+    @Override public long getQueueOperationsP99() { return queueOperations.percentile(0.99); }
+
+    @Override public synchronized String getSlowestQuery() { return slowest; }
+
+    @Override public String getLatencyHistogram() { return latency.summary(); }
+    @Override public String getSettledNodesHistogram() { return settled.summary(); }
+
+    @Override
+    public synchronized void reset()
+    {
+        latency.reset();
+        settled.reset();
+        relaxed.reset();
+        queueOperations.reset();
+        slowestNanos = -1;
+        slowest = "none";
+    }
+
+    @Override
+    public String toString()
+    {
+        return "queries: " + getQueries() + ", latency p50/p99/max: " + getLatencyP50Micros() + "/"
+                + getLatencyP99Micros() + "/" + getMaxLatencyMicros() + " us, settled p50/p99: "
+                + getSettledNodesP50() + "/" + getSettledNodesP99();
+    }
+}
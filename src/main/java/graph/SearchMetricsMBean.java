@@ -0,0 +1,37 @@
+package graph;
+
+/** Management interface of SearchMetrics, as seen through JMX.
+ *  Latencies are in microseconds; percentiles are accurate to 12.5%.
+ */
+public interface SearchMetricsMBean
+{
+    long getQueries();
+
+    double getMeanLatencyMicros();
+    long getLatencyP50Micros();
+    long getLatencyP90Micros();
+    long getLatencyP99Micros();
+    long getMaxLatencyMicros();
+
+    double getMeanSettledNodes();
+    long getSettledNodesP50();
+    long getSettledNodesP99();
+    long getMaxSettledNodes();
+
+    double getMeanRelaxedEdges();
+    long getRelaxedEdgesP99();
+
+    double getMeanQueueOperations();
+    long getQueueOperationsP99();
+
+    /** Counters of the slowest query since the last reset */
+    String getSlowestQuery();
+
+    /** Non-empty latency buckets, one "lower bound in microseconds: count" per line */
+    String getLatencyHistogram();
+
+    /** Non-empty settled node buckets, one "lower bound: count" per line */
+    String getSettledNodesHistogram();
+
+    void reset();
+}
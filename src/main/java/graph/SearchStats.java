@@ -0,0 +1,51 @@
+package graph;
+
+/** Counters collected during one shortest path query.
+ *  Pass an instance to a query method of Dijkstra to have it filled in;
+ *  to aggregate every query of a Dijkstra instead, give it a SearchMetrics.
+ */
+public class SearchStats
+{
+    int settled;
+    int relaxed;
+    int pushes;
+    int decreaseKeys;
+    long nanos;
+
+    /**
+     * Number of nodes removed from the priority queue with their final cost.
+     * @return settled node count
+     */
+    public int settledNodes() { return settled; }
+
+    /**
+     * Number of edges looked at from settled nodes.
+     * @return relaxed edge count
+     */
+    public int relaxedEdges() { return relaxed; }
+
+    /**
+     * Number of nodes added to the priority queue; 0 for contraction hierarchy queries.
+     * @return insert count
+     */
+    public int pushes() { return pushes; }
+
+    /**
+     * Number of keys lowered in the priority queue; 0 for contraction hierarchy queries.
+     * @return decrease-key count
+     */
+    public int decreaseKeys() { return decreaseKeys; }
+
+    /**
+     * Wall time of the search, without building the returned path.
+     * @return nanoseconds
+     */
+    public long nanos() { return nanos; }
+
+    @Override
+    public String toString()
+    {
+        return "settled: " + settled + ", relaxed: " + relaxed + ", pushes: " + pushes
+                + ", decrease-keys: " + decreaseKeys + ", time: " + nanos / 1000 + " us";
+    }
+}
@@ -0,0 +1,73 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Shortest paths from one origin to every node of a graph, as computed by a
+ *  single one-to-all Dijkstra run. Unreachable nodes have distance
+ *  Integer.MAX_VALUE and parent -1.
+ */
+public class ShortestPathTree
+{
+    private final int origin;
+    private final int[] dist;
+    private final int[] parent;
+
+    ShortestPathTree(int origin, int[] dist, int[] parent)
+    {
+        this.origin = origin;
+        this.dist = dist;
+        this.parent = parent;
+    }
+
+    /**
+     * Id of the root of the tree.
+     * @return origin node id
+     */
+    public int origin() { return origin; }
+
+    /**
+     * Cost of the shortest path from the origin to a node.
+     * @param nodeId id of the node
+     * @return cost, or Integer.MAX_VALUE if the node can not be reached
+     */
+    public int distance(int nodeId) { return dist[nodeId]; }
+
+    /**
+     * Predecessor of a node on its shortest path.
+     * @param nodeId id of the node
+     * @return parent id; -1 for the origin and for unreachable nodes
+     */
+    public int parent(int nodeId) { return parent[nodeId]; }
+
+    public boolean isReachable(int nodeId) { return dist[nodeId] != Integer.MAX_VALUE; }
+
+    /**
+     * Distances of all nodes, indexed by node id. The array is the tree's
+     * own, not a copy, and must not be modified.
+     * @return distance array
+     */
+    public int[] distances() { return dist; }
+
+    /**
+     * Parents of all nodes, indexed by node id. The array is the tree's
+     * own, not a copy, and must not be modified.
+     * @return parent array
+     */
+    public int[] parents() { return parent; }
+
+    /**
+     * Shortest path to a node.
+     * @param nodeId id of the destination node
+     * @return node ids on the path, from the destination back to the origin;
+     * empty if the node can not be reached
+     */
+    public List<Integer> pathTo(int nodeId)
+    {
+        List<Integer> path = new ArrayList<>();
+        if (!isReachable(nodeId)) return path;
+
+        for (int v = nodeId; v >= 0; v = parent[v]) path.add(v);
+        return path;
+    }
+}
@@ -0,0 +1,182 @@
+package graph;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/** Uniform grid over the locations of the nodes of a graph, for finding
+ *  the nodes at or near a point without looking at every node.
+ *  The bounding box of the nodes is cut into square cells holding about
+ *  two nodes each, and the ids of the nodes of each cell are stored in CSR
+ *  form, so a query only visits the cells close to its point: O(1)
+ *  expected cells for nodes spread evenly over the box.
+ *  Ties between nodes at the same distance go to the lowest id.
+ */
+public class SpatialIndex
+{
+    private static final int NODES_PER_CELL = 2;
+
+    private final int[] xs, ys;      //node locations
+    private final int minX, minY;    //corner of the grid
+    private final int cellSize;
+    private final int columns, rows;
+    private final int[] cellStart;   //nodes of cell c are cellNodes[cellStart[c] .. cellStart[c+1]-1]
+    private final int[] cellNodes;
+
+    /**
+     * Index the locations of all nodes of a graph.
+     *
+     * @param graph graph whose nodes are indexed
+     */
+    public SpatialIndex(Graph graph)
+    {
+        int n = graph.numNodes();
+        xs = new int[n];
+        ys = new int[n];
+        Point[] locations = graph.getNodes();
+        int loX = Integer.MAX_VALUE, loY = Integer.MAX_VALUE, hiX = Integer.MIN_VALUE, hiY = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++)
+        {
+            xs[i] = locations[i].x;
+            ys[i] = locations[i].y;
+            loX = Math.min(loX, xs[i]);
+            loY = Math.min(loY, ys[i]);
+            hiX = Math.max(hiX, xs[i]);
+            hiY = Math.max(hiY, ys[i]);
+        }
+        if (n == 0) loX = loY = hiX = hiY = 0;
+
+        minX = loX;
+        minY = loY;
+        long width = (long) hiX - loX + 1, height = (long) hiY - loY + 1;
+        double cells = Math.max(1.0, (double) n / NODES_PER_CELL);
+        cellSize = (int) Math.max(1, Math.ceil(Math.sqrt((double) width * height / cells)));
+        columns = (int) ((width + cellSize - 1) / cellSize);
+        rows = (int) ((height + cellSize - 1) / cellSize);
+
+        cellStart = new int[columns * rows + 1];
+        for (int i = 0; i < n; i++) cellStart[cell(xs[i], ys[i]) + 1]++;
+        for (int c = 0; c < columns * rows; c++) cellStart[c + 1] += cellStart[c];
+        cellNodes = new int[n];
+        int[] next = Arrays.copyOf(cellStart, columns * rows);
+        for (int i = 0; i < n; i++) cellNodes[next[cell(xs[i], ys[i])]++] = i;  //ascending ids within a cell
+    }
+
+    private int column(long x) { return (int) Math.min(Math.max((x - minX) / cellSize, 0), columns - 1); }
+    private int row(long y) { return (int) Math.min(Math.max((y - minY) / cellSize, 0), rows - 1); }
+    private int cell(int x, int y) { return row(y) * columns + column(x); }
+
+    private static long distance2(long dx, long dy) { return dx * dx + dy * dy; }
+
+    /**
+     * Node closest to a point. Cells are searched in growing square rings
+     * around the point's cell until no unvisited cell can hold a closer node.
+     *
+     * @param x x coordinate of the point
+     * @param y y coordinate of the point
+     * @return id of the closest node; -1 if the graph has no nodes
+     */
+    public int nearest(int x, int y)
+    {
+        if (cellNodes.length == 0) return -1;
+
+        int cx = column(x), cy = row(y);
+        int best = -1;
+        long bestDistance = Long.MAX_VALUE;
+        for (int r = 0; ; r++)
+        {
+            int left = cx - r, right = cx + r, bottom = cy - r, top = cy + r;
+            for (int j = Math.max(bottom, 0); j <= Math.min(top, rows - 1); j++)
+            {
+                // whole rows at the top and bottom of the ring, only the two ends in between
+                boolean edge = j == bottom || j == top;
+                int step = edge ? 1 : right - left;
+                for (int i = edge ? Math.max(left, 0) : left; i <= (edge ? Math.min(right, columns - 1) : right); i += step)
+                {
+                    if (i < 0 || i >= columns) continue;
+                    int c = j * columns + i;
+                    for (int k = cellStart[c]; k < cellStart[c + 1]; k++)
+                    {
+                        int v = cellNodes[k];
+                        long d = distance2((long) xs[v] - x, (long) ys[v] - y);
+                        if (d < bestDistance || (d == bestDistance && v < best))
+                        {
+                            bestDistance = d;
+                            best = v;
+                        }
+                    }
+                }
+            }
+
+            // nodes outside the rings searched so far are at least this far away
+            long bound = Long.MAX_VALUE;
+            if (left > 0) bound = Math.min(bound, (long) x - (minX + (long) left * cellSize));
+            if (right < columns - 1) bound = Math.min(bound, minX + (long) (right + 1) * cellSize - x);
+            if (bottom > 0) bound = Math.min(bound, (long) y - (minY + (long) bottom * cellSize));
+            if (top < rows - 1) bound = Math.min(bound, minY + (long) (top + 1) * cellSize - y);
+            if (bound == Long.MAX_VALUE) return best;
+            if (best >= 0 && bound > 0 && bound * bound > bestDistance) return best;
+        }
+    }
+
+    /**
+     * Nodes within a distance of a point.
+     *
+     * @param x x coordinate of the point
+     * @param y y coordinate of the point
+     * @param radius largest distance, inclusive
+     * @return ids of the nodes, in ascending order
+     */
+    public int[] withinRadius(int x, int y, int radius)
+    {
+        long r2 = (long) radius * radius;
+        int[] found = new int[16];
+        int count = 0;
+        for (int j = row((long) y - radius); j <= row((long) y + radius); j++)
+        {
+            for (int i = column((long) x - radius); i <= column((long) x + radius); i++)
+            {
+                int c = j * columns + i;
+                for (int k = cellStart[c]; k < cellStart[c + 1]; k++)
+                {
+                    int v = cellNodes[k];
+                    if (distance2((long) xs[v] - x, (long) ys[v] - y) > r2) continue;
+                    if (count == found.length) found = Arrays.copyOf(found, count * 2);
+                    found[count++] = v;
+                }
+            }
+        }
+        found = Arrays.copyOf(found, count);
+        Arrays.sort(found);
+        return found;
+    }
+
+    /**
+     * Lowest id of a node whose coordinates both differ from the point's by
+     * less than a distance; what Graph.getNode(Point) used to find by
+     * scanning all nodes.
+     *
+     * @return node id; -1 if there is none
+     */
+    int firstWithin(int x, int y, int distance)
+    {
+        int best = -1;
+        if (cellNodes.length == 0) return best;
+        for (int j = row((long) y - distance); j <= row((long) y + distance); j++)
+        {
+            for (int i = column((long) x - distance); i <= column((long) x + distance); i++)
+            {
+                int c = j * columns + i;
+                for (int k = cellStart[c]; k < cellStart[c + 1]; k++)
+                {
+                    int v = cellNodes[k];
+                    if (Math.abs((long) xs[v] - x) < distance && Math.abs((long) ys[v] - y) < distance && (best < 0 || v < best))
+                    {
+                        best = v;
+                        break;  //ids ascend within a cell
+                    }
+                }
+            }
+        }
+        return best;
+    }
+}
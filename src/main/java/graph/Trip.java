@@ -1,15 +0,0 @@
-package graph;
-
-public class Trip
-{
-    public int id;
-    public int k;
-    public int v;
-
-    public Trip(int id, int k, int v)
-    {
-        this.id = id;
-        this.k = k;
-        this.v = v;
-    }
-}
\ No newline at end of file
@@ -51,7 +51,7 @@ public class HashTableClosedHashingLP implements Map
         if ((float) size / (float) capacity > LOAD_LIMIT) rehash();
 
         int i = HashEntry.hash(key, capacity);
-        while (map[i] != null && !map[i].isDeleted()) i++;
+        while (map[i] != null && !map[i].isDeleted()) i = (i + 1) % capacity;
         map[i] = new HashEntry(key, value);
     }
 
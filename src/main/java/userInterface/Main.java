@@ -8,11 +8,11 @@ public class Main
 {
     public static void main(String[] args)
     {
-            // Initialize a graph
-            Graph graph = new Graph();
+            // Load the graph
+            Graph graph = Graph.load("input/USA.txt");
 
             // Create an instance of the Dijkstra class
-            Dijkstra dijkstra = new Dijkstra("input/USA.txt", graph);
+            Dijkstra dijkstra = new Dijkstra(graph);
 
             // Create a graphical user interface and wait for user to click on two cities:
             GUIApp app = new GUIApp(dijkstra, graph);
@@ -0,0 +1,58 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AStarTest
+{
+    @Test
+    void matchesDijkstra()
+    {
+        Graph graph = GraphGenerator.randomGeometric(3000, 6.0, 1);
+        Dijkstra dijkstra = new Dijkstra(graph);
+        Heuristic euclidean = new EuclideanHeuristic(graph);
+        Random rnd = new Random(2);
+        long settledAStar = 0, settledDijkstra = 0;
+        SearchStats stats = new SearchStats();
+        for (int i = 0; i < 200; i++)
+        {
+            int origin = rnd.nextInt(graph.numNodes()), destination = rnd.nextInt(graph.numNodes());
+            long expected = Paths.cost(graph, dijkstra.computeShortestPath(origin, destination, stats), origin, destination);
+            settledDijkstra += stats.settledNodes();
+            assertEquals(expected,
+                         Paths.cost(graph, dijkstra.computeShortestPath(origin, destination, euclidean, stats), origin, destination),
+                         origin + " -> " + destination);
+            settledAStar += stats.settledNodes();
+        }
+        assertTrue(settledAStar < settledDijkstra, settledAStar + " settled by A*, " + settledDijkstra + " by Dijkstra");
+    }
+
+    @Test
+    void admissible()
+    {
+        Graph graph = GraphGenerator.grid(30, 30, 3);
+        EuclideanHeuristic euclidean = new EuclideanHeuristic(graph);
+        assertTrue(euclidean.scale() > 0);
+        ShortestPathTree tree = new Dijkstra(graph.reverse()).shortestPathTree(0);
+        for (int v = 0; v < graph.numNodes(); v++)
+            assertTrue(euclidean.estimate(v, 0) <= tree.distance(v), "estimate too high at " + v);
+    }
+
+    @Test
+    void zeroHeuristicIsDijkstra()
+    {
+        Graph graph = GraphGenerator.withRandomCosts(GraphGenerator.randomGeometric(1000, 5.0, 4), 100, 5);
+        Dijkstra dijkstra = new Dijkstra(graph);
+        Heuristic zero = (from, to) -> 0;
+        Random rnd = new Random(6);
+        for (int i = 0; i < 100; i++)
+        {
+            int origin = rnd.nextInt(graph.numNodes()), destination = rnd.nextInt(graph.numNodes());
+            assertEquals(Paths.cost(graph, dijkstra.computeShortestPath(origin, destination, null), origin, destination),
+                         Paths.cost(graph, dijkstra.computeShortestPath(origin, destination, zero, null), origin, destination));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlternativeRoutesTest
+{
+    @Test
+    void yenMatchesEnumeration()
+    {
+        int paths = 0;
+        for (long seed = 1; seed <= 20; seed++)
+        {
+            paths += check(GraphGenerator.randomGeometric(14, 4.0, seed), 0, 13, 50);
+            paths += check(GraphGenerator.withRandomCosts(GraphGenerator.randomGeometric(14, 4.0, seed), 20, seed), 1, 12, 50);
+        }
+        assertTrue(paths > 500, "too few paths to compare: " + paths);
+    }
+
+    @Test
+    void grid()
+    {
+        // corner to corner of a 4 x 4 grid: 184 loopless paths
+        Graph graph = GraphGenerator.grid(4, 4, 1);
+        assertEquals(184, check(graph, 0, 15, 300));
+        check(graph, 5, 10, 20);
+    }
+
+    @Test
+    void unreachableAndDegenerate()
+    {
+        // expected degree 1.5: many small components
+        Graph graph = GraphGenerator.randomGeometric(200, 1.5, 3);
+        Dijkstra dijkstra = new Dijkstra(graph);
+        ShortestPathTree tree = dijkstra.shortestPathTree(0);
+        int unreachable = 0;
+        while (tree.isReachable(unreachable)) unreachable++;
+        assertTrue(dijkstra.kShortestPaths(0, unreachable, 5).isEmpty());
+        assertTrue(dijkstra.kShortestPaths(0, 0, 0).isEmpty());
+
+        List<Route> same = dijkstra.kShortestPaths(7, 7, 3);
+        assertEquals(1, same.size());
+        assertEquals(0, same.get(0).cost());
+    }
+
+    @Test
+    void penalizedRoutes()
+    {
+        Graph graph = GraphGenerator.randomGeometric(3000, 5.0, 4);
+        Dijkstra dijkstra = new Dijkstra(graph);
+        for (int origin = 0; origin < 20; origin++)
+        {
+            int destination = 2999 - origin;
+            long shortest = Paths.expected(dijkstra.shortestPathTree(origin), destination);
+            List<Route> routes = dijkstra.alternativeRoutes(origin, destination, 4, 0.5, 0.25, 0.75);
+            if (shortest < 0)
+            {
+                assertTrue(routes.isEmpty());
+                continue;
+            }
+            assertEquals(shortest, routes.get(0).cost());
+            Set<List<Integer>> paths = new HashSet<>();
+            for (Route r : routes)
+            {
+                assertEquals(r.cost(), Paths.cost(graph, r.path(), origin, destination));
+                assertTrue(r.cost() <= shortest * 1.25, r + " longer than allowed");
+                assertTrue(paths.add(r.path()), "route found twice: " + r);
+            }
+        }
+    }
+
+    /**
+     * Compare the k shortest paths with every loopless path, listed by a
+     * depth first search; returns the number of loopless paths.
+     */
+    private static int check(Graph graph, int origin, int destination, int k)
+    {
+        List<Long> all = new ArrayList<>();
+        enumerate(graph, origin, destination, new boolean[graph.numNodes()], 0, all);
+        Collections.sort(all);
+
+        List<Route> routes = new Dijkstra(graph).kShortestPaths(origin, destination, k);
+        assertEquals(Math.min(k, all.size()), routes.size(), origin + " -> " + destination);
+        Set<List<Integer>> paths = new HashSet<>();
+        for (int i = 0; i < routes.size(); i++)
+        {
+            Route r = routes.get(i);
+            assertEquals((long) all.get(i), r.cost(), "route " + i);
+            assertEquals(r.cost(), Paths.cost(graph, r.path(), origin, destination));
+            assertEquals(r.path().size(), new HashSet<>(r.path()).size(), "route with a loop: " + r);
+            assertTrue(paths.add(r.path()), "route found twice: " + r);
+        }
+        return all.size();
+    }
+
+    /** Add the cost of every loopless path from v to the destination, over the cheapest of parallel edges */
+    private static void enumerate(Graph graph, int v, int destination, boolean[] onPath, long cost, List<Long> costs)
+    {
+        if (v == destination)
+        {
+            costs.add(cost);
+            return;
+        }
+        onPath[v] = true;
+        Set<Integer> next = new HashSet<>();
+        for (int e = graph.edgeBegin(v); e < graph.edgeEnd(v); e++)
+        {
+            int t = graph.edgeTarget(e);
+            if (!onPath[t] && next.add(t)) enumerate(graph, t, destination, onPath, cost + Paths.edgeCost(graph, v, t), costs);
+        }
+        onPath[v] = false;
+    }
+}
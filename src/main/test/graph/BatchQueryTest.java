@@ -0,0 +1,79 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchQueryTest
+{
+    @Test
+    void matchesSingleQueries()
+    {
+        Graph graph = GraphGenerator.withRandomCosts(GraphGenerator.randomGeometric(3000, 5.0, 1), 100, 2);
+        Random rnd = new Random(3);
+        int[] origins = new int[600], destinations = new int[600];
+        for (int i = 0; i < origins.length; i++)
+        {
+            origins[i] = rnd.nextInt(20);  //about 30 queries per origin, interleaved
+            destinations[i] = rnd.nextInt(graph.numNodes());
+        }
+        check(graph, origins, destinations, new ForkJoinPool(1));
+        check(graph, origins, destinations, new ForkJoinPool(4));
+    }
+
+    @Test
+    void repeatedSameAndUnreachable()
+    {
+        // expected degree 1.5: many small components
+        Graph graph = GraphGenerator.randomGeometric(1000, 1.5, 4);
+        int[] origins = { 5, 5, 5, 5, 9, 9, 17 };
+        int[] destinations = { 3, 3, 5, 999, 9, 3, 17 };
+        check(graph, origins, destinations, new ForkJoinPool(2));
+    }
+
+    @Test
+    void batchesAreIndependent()
+    {
+        // consecutive batches reuse the idle workspaces; a group must not stop for another batch's destinations
+        Graph graph = GraphGenerator.randomGeometric(2000, 5.0, 5);
+        Dijkstra dijkstra = new Dijkstra(graph);
+        ForkJoinPool pool = new ForkJoinPool(1);
+        Random rnd = new Random(6);
+        for (int round = 0; round < 10; round++)
+        {
+            int[] origins = new int[40], destinations = new int[40];
+            for (int i = 0; i < origins.length; i++)
+            {
+                origins[i] = rnd.nextInt(5);
+                destinations[i] = rnd.nextInt(graph.numNodes());
+            }
+            dijkstra.computeShortestPaths(origins, destinations, pool);
+            check(graph, origins, destinations, pool);
+        }
+    }
+
+    @Test
+    void emptyAndMismatched()
+    {
+        Dijkstra dijkstra = new Dijkstra(GraphGenerator.randomGeometric(100, 5.0, 7));
+        assertTrue(dijkstra.computeShortestPaths(new int[0], new int[0]).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> dijkstra.computeShortestPaths(new int[2], new int[3]));
+    }
+
+    private static void check(Graph graph, int[] origins, int[] destinations, ForkJoinPool pool)
+    {
+        Dijkstra dijkstra = new Dijkstra(graph);
+        List<List<Integer>> paths = dijkstra.computeShortestPaths(origins, destinations, pool);
+        assertEquals(origins.length, paths.size());
+        for (int i = 0; i < origins.length; i++)
+        {
+            long expected = Paths.expected(dijkstra.shortestPathTree(origins[i]), destinations[i]);
+            assertEquals(expected, Paths.cost(graph, paths.get(i), origins[i], destinations[i]),
+                    "query " + i + ": " + origins[i] + " -> " + destinations[i]);
+        }
+    }
+}
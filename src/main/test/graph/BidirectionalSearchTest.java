@@ -0,0 +1,54 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BidirectionalSearchTest
+{
+    @Test
+    void undirected()
+    {
+        check(GraphGenerator.randomGeometric(2000, 5.0, 1), 2);
+    }
+
+    @Test
+    void directed()
+    {
+        check(GraphGenerator.withRandomCosts(GraphGenerator.randomGeometric(2000, 5.0, 3), 100, 4), 5);
+    }
+
+    @Test
+    void disconnected()
+    {
+        // expected degree 1.5: many small components, most pairs unreachable
+        check(GraphGenerator.randomGeometric(1000, 1.5, 6), 7);
+    }
+
+    @Test
+    void sameNode()
+    {
+        Graph graph = GraphGenerator.grid(5, 5, 8);
+        assertEquals(1, new Dijkstra(graph).computeShortestPathBidirectional(12, 12, null).size());
+    }
+
+    private static void check(Graph graph, long seed)
+    {
+        Dijkstra dijkstra = new Dijkstra(graph);
+        Random rnd = new Random(seed);
+        for (int i = 0; i < 20; i++)
+        {
+            int origin = rnd.nextInt(graph.numNodes());
+            ShortestPathTree tree = dijkstra.shortestPathTree(origin);
+            for (int j = 0; j < 10; j++)
+            {
+                int destination = rnd.nextInt(graph.numNodes());
+                assertEquals(Paths.expected(tree, destination),
+                             Paths.cost(graph, dijkstra.computeShortestPathBidirectional(origin, destination, null), origin, destination),
+                             origin + " -> " + destination);
+            }
+        }
+    }
+}
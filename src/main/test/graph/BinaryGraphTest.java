@@ -0,0 +1,95 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryGraphTest
+{
+    @Test
+    void saveAndMap() throws IOException
+    {
+        Graph graph = GraphGenerator.withRandomCosts(GraphGenerator.randomGeometric(2000, 5.0, 1), 100, 2);
+        String file = temp();
+        graph.save(file);
+        assertSameGraph(graph, Graph.map(file));
+    }
+
+    @Test
+    void usaRoundTrip() throws IOException
+    {
+        Graph graph = Graph.load("input/USA.txt");
+        String file = temp();
+        graph.save(file);
+        Graph mapped = Graph.map(file);
+        assertSameGraph(graph, mapped);
+        assertSame(mapped, mapped.reverse());
+        String second = temp();
+        mapped.save(second);
+        assertArrayEquals(Files.readAllBytes(new File(file).toPath()), Files.readAllBytes(new File(second).toPath()));
+    }
+
+    @Test
+    void unknownLabel() throws IOException
+    {
+        Graph graph = GraphGenerator.randomGeometric(100, 4.0, 3);
+        String file = temp();
+        graph.save(file);
+        Graph mapped = Graph.map(file);
+        assertThrows(IllegalArgumentException.class, () -> mapped.getId(new CityNode("nowhere", 1, 1)));
+        assertThrows(IllegalArgumentException.class, () -> graph.getId(new CityNode("nowhere", 1, 1)));
+    }
+
+    @Test
+    void notAGraphFile() throws IOException
+    {
+        String file = temp();
+        Files.write(new File(file).toPath(), "NODES\n0\nARCS\n".getBytes());
+        assertThrows(IOException.class, () -> Graph.map(file));
+
+        Graph graph = GraphGenerator.randomGeometric(50, 4.0, 5);
+        graph.save(file);
+        byte[] bytes = Files.readAllBytes(new File(file).toPath());
+        Files.write(new File(file).toPath(), Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> Graph.map(file));
+
+        // only the current format is read
+        ByteBuffer.wrap(bytes).putInt(0, 0x47524631);
+        Files.write(new File(file).toPath(), bytes);
+        assertThrows(IOException.class, () -> Graph.map(file));
+    }
+
+    /** Same nodes, labels, locations and edges, and every label found by getId */
+    static void assertSameGraph(Graph expected, Graph actual)
+    {
+        assertEquals(expected.numNodes(), actual.numNodes());
+        assertEquals(expected.numEdges(), actual.numEdges());
+        assertArrayEquals(expected.getCities(), actual.getCities());
+        assertArrayEquals(expected.getNodes(), actual.getNodes());
+        for (int v = 0; v < expected.numNodes(); v++)
+        {
+            assertEquals(expected.edgeBegin(v), actual.edgeBegin(v));
+            assertEquals(expected.edgeEnd(v), actual.edgeEnd(v));
+            assertEquals(v, actual.getId(expected.getNode(v)));
+            assertEquals(expected.getNode(v).getLocation(), actual.getNode(v).getLocation());
+        }
+        for (int e = 0; e < expected.numEdges(); e++)
+        {
+            assertEquals(expected.edgeTarget(e), actual.edgeTarget(e));
+            assertEquals(expected.edgeCost(e), actual.edgeCost(e));
+        }
+    }
+
+    static String temp() throws IOException
+    {
+        File file = File.createTempFile("graph", ".bin");
+        file.deleteOnExit();
+        return file.getPath();
+    }
+}
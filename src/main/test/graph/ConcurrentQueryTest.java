@@ -0,0 +1,64 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentQueryTest
+{
+    @Test
+    void sharedDijkstra() throws Exception
+    {
+        Graph graph = GraphGenerator.withRandomCosts(GraphGenerator.randomGeometric(3000, 5.0, 1), 100, 2);
+        Dijkstra dijkstra = new Dijkstra(graph);
+        int queries = 400;
+        int[] origins = new int[queries], destinations = new int[queries];
+        long[] expected = new long[queries];
+        Random rnd = new Random(3);
+        for (int i = 0; i < queries; i++)
+        {
+            origins[i] = rnd.nextInt(graph.numNodes());
+            destinations[i] = rnd.nextInt(graph.numNodes());
+            expected[i] = Paths.cost(graph, dijkstra.computeShortestPath(origins[i], destinations[i], null), origins[i], destinations[i]);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try
+        {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++)
+            {
+                int first = t;
+                results.add(pool.submit(() ->
+                {
+                    for (int i = first; i < queries; i += 8)
+                    {
+                        List<Integer> path = i % 2 == 0 ? dijkstra.computeShortestPath(origins[i], destinations[i], null)
+                                                         : dijkstra.computeShortestPathBidirectional(origins[i], destinations[i], null);
+                        assertEquals(expected[i], Paths.cost(graph, path, origins[i], destinations[i]), "query " + i);
+                    }
+                }));
+            }
+            for (Future<?> f : results) f.get();
+        }
+        finally { pool.shutdown(); }
+    }
+
+    @Test
+    void loadedGraphIsReady()
+    {
+        Graph graph = Graph.load("input/USA.txt");
+        assertTrue(graph.numNodes() > 0);
+        assertSame(graph, graph.reverse());
+        CityNode first = graph.getNode(0);
+        assertEquals(0, graph.getId(first));
+        assertSame(first, graph.getNode(first.getLocation()));
+    }
+}
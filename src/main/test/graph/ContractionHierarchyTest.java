@@ -0,0 +1,83 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractionHierarchyTest
+{
+    @Test
+    void distancesMatchDijkstra()
+    {
+        Graph graph = GraphGenerator.withRandomCosts(GraphGenerator.randomGeometric(3000, 6.0, 4), 100, 5);
+        ContractionHierarchy ch = ContractionHierarchy.build(graph);
+        checkQueries(graph, ch, 7);
+    }
+
+    @Test
+    void hierarchySize()
+    {
+        Graph graph = GraphGenerator.randomGeometric(5000, 6.0, 6);
+        ContractionHierarchy ch = ContractionHierarchy.build(graph);
+        System.out.println(graph.numEdges() + " edges, hierarchy " + ch.numEdges());
+        assertTrue(ch.numEdges() < 2 * graph.numEdges(), "too many shortcuts: " + ch.numEdges());
+        checkQueries(graph, ch, 8);
+    }
+
+    @Test
+    void grid()
+    {
+        Graph graph = GraphGenerator.grid(40, 40, 9);
+        ContractionHierarchy ch = ContractionHierarchy.build(graph);
+        assertTrue(ch.numEdges() < 4 * graph.numEdges(), "too many shortcuts: " + ch.numEdges());
+        checkQueries(graph, ch, 10);
+    }
+
+    @Test
+    void ranksArePermutation()
+    {
+        Graph graph = GraphGenerator.randomGeometric(500, 4.0, 11);
+        ContractionHierarchy ch = ContractionHierarchy.build(graph);
+        boolean[] seen = new boolean[graph.numNodes()];
+        for (int v = 0; v < graph.numNodes(); v++)
+        {
+            assertFalse(seen[ch.rank(v)]);
+            seen[ch.rank(v)] = true;
+        }
+    }
+
+    @Test
+    void saveAndLoad() throws IOException
+    {
+        Graph graph = GraphGenerator.withRandomCosts(GraphGenerator.randomGeometric(1000, 5.0, 12), 50, 13);
+        ContractionHierarchy ch = ContractionHierarchy.build(graph);
+        File file = File.createTempFile("hierarchy", ".bin");
+        file.deleteOnExit();
+        ch.save(file.getPath());
+        ContractionHierarchy loaded = ContractionHierarchy.load(file.getPath(), graph);
+        assertEquals(ch.numEdges(), loaded.numEdges());
+        checkQueries(graph, loaded, 14);
+    }
+
+    private static void checkQueries(Graph graph, ContractionHierarchy ch, long seed)
+    {
+        Dijkstra dijkstra = new Dijkstra(graph);
+        Random rnd = new Random(seed);
+        for (int i = 0; i < 20; i++)
+        {
+            int origin = rnd.nextInt(graph.numNodes());
+            ShortestPathTree tree = dijkstra.shortestPathTree(origin);
+            for (int j = 0; j < 10; j++)
+            {
+                int destination = rnd.nextInt(graph.numNodes());
+                assertEquals(Paths.expected(tree, destination),
+                             Paths.cost(graph, ch.computeShortestPath(origin, destination, null), origin, destination),
+                             origin + " -> " + destination);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeltaSteppingTest
+{
+    @Test
+    void matchesDijkstra()
+    {
+        Graph graph = GraphGenerator.withRandomCosts(GraphGenerator.randomGeometric(3000, 5.0, 1), 100, 2);
+        Dijkstra dijkstra = new Dijkstra(graph);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        // 1: every edge heavy; 50: around the average cost; 1000: one bucket holds everything
+        for (int delta : new int[] {1, 7, 50, 1000})
+            for (int origin : new int[] {0, 1234, 2999})
+                check(graph, dijkstra.shortestPathTree(origin), dijkstra.deltaSteppingTree(origin, delta, pool));
+    }
+
+    @Test
+    void grid()
+    {
+        // long paths of many short edges: with a small delta the search runs in many phases
+        Graph graph = GraphGenerator.grid(60, 60, 3);
+        Dijkstra dijkstra = new Dijkstra(graph);
+        check(graph, dijkstra.shortestPathTree(0), dijkstra.deltaSteppingTree(0, 1));
+        check(graph, dijkstra.shortestPathTree(1830), dijkstra.deltaSteppingTree(1830, 25));
+    }
+
+    @Test
+    void unreachableNodes()
+    {
+        // expected degree 1.5: many small components
+        Graph graph = GraphGenerator.randomGeometric(2000, 1.5, 4);
+        Dijkstra dijkstra = new Dijkstra(graph);
+        check(graph, dijkstra.shortestPathTree(5), dijkstra.deltaSteppingTree(5, 10, new ForkJoinPool(2)));
+    }
+
+    @Test
+    void largeCosts()
+    {
+        // with delta 1, costs near 1e9 would take 1e9 buckets, nearly all of them empty
+        CityNode[] nodes = new CityNode[6];
+        for (int i = 0; i < nodes.length; i++) nodes[i] = new CityNode("n" + i, i, i);
+        int[][] edges = { {0, 1, 1_000_000_003}, {0, 2, 999_999_999}, {2, 1, 2}, {1, 3, 7}, {0, 4, 1}, {4, 3, 1_000_000_010} };
+        int[] from = new int[2 * edges.length], to = new int[2 * edges.length], cost = new int[2 * edges.length];
+        for (int i = 0; i < edges.length; i++)
+        {
+            from[2 * i] = to[2 * i + 1] = edges[i][0];
+            to[2 * i] = from[2 * i + 1] = edges[i][1];
+            cost[2 * i] = cost[2 * i + 1] = edges[i][2];
+        }
+        Graph graph = Graph.of(nodes, from, to, cost, from.length, true);
+        Dijkstra dijkstra = new Dijkstra(graph);
+        for (int origin : new int[] {0, 3, 5})
+            check(graph, dijkstra.shortestPathTree(origin), dijkstra.deltaSteppingTree(origin, 1, new ForkJoinPool(2)));
+        assertEquals(1_000_000_008, dijkstra.deltaSteppingTree(0, 1).distance(3));
+    }
+
+    @Test
+    void deltaMustBePositive()
+    {
+        Dijkstra dijkstra = new Dijkstra(GraphGenerator.randomGeometric(100, 5.0, 5));
+        assertThrows(IllegalArgumentException.class, () -> dijkstra.deltaSteppingTree(0, 0));
+    }
+
+    private static void check(Graph graph, ShortestPathTree expected, ShortestPathTree tree)
+    {
+        assertEquals(expected.origin(), tree.origin());
+        for (int v = 0; v < graph.numNodes(); v++)
+        {
+            assertEquals(expected.distance(v), tree.distance(v), "distance of " + v);
+            int u = tree.parent(v);
+            if (v == tree.origin() || !tree.isReachable(v)) assertEquals(-1, u, "parent of " + v);
+            else assertEquals(tree.distance(v), tree.distance(u) + Paths.edgeCost(graph, u, v), "parent of " + v);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistanceMatrixTest
+{
+    @Test
+    void dijkstra()
+    {
+        Graph graph = GraphGenerator.withRandomCosts(GraphGenerator.randomGeometric(2000, 5.0, 1), 100, 2);
+        int[] sources = nodes(graph, 30, 3), targets = nodes(graph, 40, 4);
+        check(graph, new Dijkstra(graph).distanceMatrix(sources, targets), sources, targets);
+    }
+
+    @Test
+    void contractionHierarchy()
+    {
+        Graph graph = GraphGenerator.withRandomCosts(GraphGenerator.randomGeometric(2000, 5.0, 5), 100, 6);
+        int[] sources = nodes(graph, 30, 7), targets = nodes(graph, 40, 8);
+        check(graph, ContractionHierarchy.build(graph).distanceMatrix(sources, targets), sources, targets);
+    }
+
+    @Test
+    void repeatedAndUnreachableTargets()
+    {
+        // expected degree 1.5: many small components
+        Graph graph = GraphGenerator.randomGeometric(1000, 1.5, 9);
+        int[] sources = { 0, 5, 5, 17 };
+        int[] targets = { 3, 3, 0, 999, 17, 3 };
+        DistanceMatrix matrix = new Dijkstra(graph).distanceMatrix(sources, targets);
+        check(graph, matrix, sources, targets);
+        assertEquals(0, matrix.get(0, 2));
+        assertEquals(0, matrix.get(3, 4));
+    }
+
+    @Test
+    void rowsAreIndependent()
+    {
+        // consecutive rows on one thread reuse its workspaces; a row must not see the targets of another call
+        Graph graph = GraphGenerator.randomGeometric(1500, 5.0, 10);
+        Dijkstra dijkstra = new Dijkstra(graph);
+        int[] sources = nodes(graph, 10, 11);
+        dijkstra.distanceMatrix(sources, nodes(graph, 200, 12), new ForkJoinPool(1));
+        int[] targets = nodes(graph, 3, 13);
+        check(graph, dijkstra.distanceMatrix(sources, targets, new ForkJoinPool(1)), sources, targets);
+    }
+
+    private static void check(Graph graph, DistanceMatrix matrix, int[] sources, int[] targets)
+    {
+        assertEquals(sources.length, matrix.rows());
+        assertEquals(targets.length, matrix.columns());
+        Dijkstra dijkstra = new Dijkstra(graph);
+        for (int i = 0; i < sources.length; i++)
+        {
+            ShortestPathTree tree = dijkstra.shortestPathTree(sources[i]);
+            for (int j = 0; j < targets.length; j++)
+                assertEquals(tree.distance(targets[j]), matrix.get(i, j), sources[i] + " -> " + targets[j]);
+        }
+    }
+
+    private static int[] nodes(Graph graph, int count, long seed)
+    {
+        Random rnd = new Random(seed);
+        int[] nodes = new int[count];
+        for (int i = 0; i < count; i++) nodes[i] = rnd.nextInt(graph.numNodes());
+        return nodes;
+    }
+}
@@ -0,0 +1,115 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DynamicShortestPathTreeTest
+{
+    @Test
+    void symmetricGraph()
+    {
+        Graph graph = GraphGenerator.randomGeometric(1500, 5.0, 1);
+        DynamicShortestPathTree tree = new DynamicShortestPathTree(graph, 0);
+        Random rnd = new Random(2);
+        for (int i = 0; i < 300; i++)
+        {
+            int[] edge = change(graph, rnd);
+            tree.edgeCostChanged(edge[0], edge[1]);
+            check(graph, tree);
+        }
+    }
+
+    @Test
+    void directedGraph()
+    {
+        Graph graph = GraphGenerator.withRandomCosts(GraphGenerator.randomGeometric(1500, 5.0, 3), 100, 4);
+        DynamicShortestPathTree tree = new DynamicShortestPathTree(graph, 7);
+        Random rnd = new Random(5);
+        for (int i = 0; i < 300; i++)
+        {
+            int[] edge = change(graph, rnd);
+            tree.edgeCostChanged(edge[0], edge[1]);
+            check(graph, tree);
+        }
+    }
+
+    @Test
+    void batches()
+    {
+        Graph graph = GraphGenerator.withRandomCosts(GraphGenerator.randomGeometric(1500, 5.0, 6), 100, 7);
+        DynamicShortestPathTree tree = new DynamicShortestPathTree(graph, 11);
+        Random rnd = new Random(8);
+        for (int round = 0; round < 30; round++)
+        {
+            int[] from = new int[20], to = new int[20];
+            for (int i = 0; i < from.length; i++)
+            {
+                int[] edge = change(graph, rnd);
+                from[i] = edge[0];
+                to[i] = edge[1];
+            }
+            tree.edgeCostsChanged(from, to);
+            check(graph, tree);
+        }
+    }
+
+    @Test
+    void treeEdgesOnly()
+    {
+        // raising and lowering the edges of the tree itself moves whole subtrees
+        Graph graph = GraphGenerator.randomGeometric(1500, 5.0, 9);
+        DynamicShortestPathTree tree = new DynamicShortestPathTree(graph, 3);
+        Random rnd = new Random(10);
+        for (int i = 0; i < 200; i++)
+        {
+            int v = rnd.nextInt(graph.numNodes());
+            int u = tree.parent(v);
+            if (u < 0) continue;
+            int cost = Paths.edgeCost(graph, u, v);
+            graph.setEdgeCost(u, v, rnd.nextBoolean() ? cost * 4 + 10 : cost / 3);
+            tree.edgeCostChanged(u, v);
+            check(graph, tree);
+        }
+    }
+
+    @Test
+    void unchangedEdgeCostsNothing()
+    {
+        Graph graph = GraphGenerator.randomGeometric(500, 5.0, 12);
+        DynamicShortestPathTree tree = new DynamicShortestPathTree(graph, 0);
+        int v = graph.edgeTarget(graph.edgeBegin(0));
+        assertEquals(0, tree.edgeCostChanged(0, v));
+        check(graph, tree);
+    }
+
+    /** Give a random edge a new cost, higher or lower than before */
+    private static int[] change(Graph graph, Random rnd)
+    {
+        while (true)
+        {
+            int u = rnd.nextInt(graph.numNodes());
+            int degree = graph.edgeEnd(u) - graph.edgeBegin(u);
+            if (degree == 0) continue;
+            int e = graph.edgeBegin(u) + rnd.nextInt(degree);
+            int v = graph.edgeTarget(e), cost = graph.edgeCost(e);
+            graph.setEdgeCost(u, v, rnd.nextBoolean() ? cost * 3 + rnd.nextInt(50) : rnd.nextInt(cost + 1));
+            return new int[] {u, v};
+        }
+    }
+
+    /** Distances must match a search from scratch, and each parent must be on a shortest path */
+    private static void check(Graph graph, DynamicShortestPathTree tree)
+    {
+        ShortestPathTree expected = new Dijkstra(graph).shortestPathTree(tree.origin());
+        for (int v = 0; v < graph.numNodes(); v++)
+        {
+            assertEquals(expected.distance(v), tree.distance(v), "distance of " + v);
+            int u = tree.parent(v);
+            if (v == tree.origin() || !tree.isReachable(v)) assertEquals(-1, u, "parent of " + v);
+            else assertEquals(tree.distance(v), tree.distance(u) + Paths.edgeCost(graph, u, v), "parent of " + v);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphAnalyticsTest
+{
+    @Test
+    void spanningTreesOfSmallGraphs()
+    {
+        // every forest of n - components edges is tried
+        for (long seed = 1; seed <= 40; seed++)
+        {
+            Graph graph = GraphGenerator.randomGeometric(8, 3.0, seed);
+            if (seed % 2 == 0) graph = GraphGenerator.withRandomCosts(graph, 20, seed);
+            long best = bruteForceTree(graph);
+            assertEquals(best, checkForest(graph, GraphAnalytics.primMinimumSpanningTree(graph)), "Prim, seed " + seed);
+            assertEquals(best, checkForest(graph, GraphAnalytics.kruskalMinimumSpanningTree(graph)), "Kruskal, seed " + seed);
+            assertEquals(best, checkForest(graph, GraphAnalytics.boruvkaMinimumSpanningTree(graph)), "Boruvka, seed " + seed);
+        }
+    }
+
+    @Test
+    void spanningTreesAgree()
+    {
+        Graph[] graphs = {
+                GraphGenerator.randomGeometric(20_000, 5.0, 1),
+                GraphGenerator.withRandomCosts(GraphGenerator.randomGeometric(20_000, 2.0, 2), 10, 3),  //many equal costs
+                GraphGenerator.grid(100, 100, 4) };
+        for (Graph graph : graphs)
+        {
+            long prim = checkForest(graph, GraphAnalytics.primMinimumSpanningTree(graph));
+            assertEquals(prim, checkForest(graph, GraphAnalytics.kruskalMinimumSpanningTree(graph)));
+            assertEquals(prim, checkForest(graph, GraphAnalytics.boruvkaMinimumSpanningTree(graph, new ForkJoinPool(3))));
+        }
+    }
+
+    @Test
+    void components()
+    {
+        Graph graph = GraphGenerator.withRandomCosts(GraphGenerator.randomGeometric(2000, 1.5, 5), 100, 6);
+        int[] component = GraphAnalytics.connectedComponents(graph);
+        int[] expected = components(graph, -1, -1, -1);
+        assertArrayEquals(expected, component);
+    }
+
+    @Test
+    void bridgesAndArticulationPoints()
+    {
+        int bridgesSeen = 0, cutsSeen = 0;
+        for (long seed = 1; seed <= 10; seed++)
+        {
+            Graph graph = GraphGenerator.randomGeometric(300, 2.5, seed);
+            if (seed % 2 == 0) graph = GraphGenerator.withRandomCosts(graph, 100, seed);
+            Map<Long, Integer> pairs = pairs(graph);
+            int count = count(components(graph, -1, -1, -1));
+
+            List<Long> expectedBridges = new ArrayList<>();
+            for (Map.Entry<Long, Integer> pair : pairs.entrySet())
+            {
+                int a = (int) (pair.getKey() >>> 32), b = (int) (long) pair.getKey();
+                if (count(components(graph, -1, a, b)) > count) expectedBridges.add(pair.getKey());
+            }
+            EdgeList bridges = GraphAnalytics.bridges(graph);
+            List<Long> actual = new ArrayList<>();
+            for (int i = 0; i < bridges.size(); i++)
+            {
+                long key = key(bridges.from(i), bridges.to(i));
+                assertEquals((int) pairs.get(key), bridges.cost(i), "cost of bridge " + bridges.from(i) + " - " + bridges.to(i));
+                actual.add(key);
+            }
+            actual.sort(null);
+            assertEquals(expectedBridges, actual, "seed " + seed);
+
+            List<Integer> expectedCuts = new ArrayList<>();
+            int[] degree = new int[graph.numNodes()];
+            for (long key : pairs.keySet())
+            {
+                degree[(int) (key >>> 32)]++;
+                degree[(int) key]++;
+            }
+            for (int v = 0; v < graph.numNodes(); v++)
+            {
+                // without v, its component is gone if v was alone in it
+                if (count(components(graph, v, -1, -1)) - 1 > count - (degree[v] == 0 ? 1 : 0)) expectedCuts.add(v);
+            }
+            int[] cuts = GraphAnalytics.articulationPoints(graph);
+            assertEquals(expectedCuts.toString(), Arrays.toString(cuts), "seed " + seed);
+            bridgesSeen += actual.size();
+            cutsSeen += cuts.length;
+        }
+        assertTrue(bridgesSeen > 50 && cutsSeen > 50, bridgesSeen + " bridges and " + cutsSeen + " cut nodes are too few to compare");
+    }
+
+    @Test
+    void parallelEdgesAreOneBridge()
+    {
+        // a path 0 - 1 - 2 whose first edge is doubled: both are still bridges, 1 is a cut node
+        CityNode[] nodes = { new CityNode("a", 0, 0), new CityNode("b", 1, 0), new CityNode("c", 2, 0) };
+        Graph graph = Graph.of(nodes, new int[] {0, 1, 0, 1, 1, 2}, new int[] {1, 0, 1, 0, 2, 1}, new int[] {5, 5, 3, 3, 4, 4}, 6, true);
+        EdgeList bridges = GraphAnalytics.bridges(graph);
+        assertEquals(2, bridges.size());
+        assertEquals(7, bridges.totalCost());
+        assertArrayEquals(new int[] {1}, GraphAnalytics.articulationPoints(graph));
+        assertEquals(7, GraphAnalytics.kruskalMinimumSpanningTree(graph).totalCost());
+    }
+
+    /**
+     * Check that the edges are a spanning forest of the graph, one tree per
+     * component, over edges of the graph at their cheapest cost; returns its cost.
+     */
+    private static long checkForest(Graph graph, EdgeList tree)
+    {
+        Map<Long, Integer> pairs = pairs(graph);
+        int n = graph.numNodes();
+        assertEquals(n - count(components(graph, -1, -1, -1)), tree.size());
+        int[] set = new int[n];
+        for (int v = 0; v < n; v++) set[v] = v;
+        for (int i = 0; i < tree.size(); i++)
+        {
+            Integer cost = pairs.get(key(tree.from(i), tree.to(i)));
+            assertNotNull(cost, "no edge " + tree.from(i) + " - " + tree.to(i));
+            assertEquals((int) cost, tree.cost(i));
+            int a = find(set, tree.from(i)), b = find(set, tree.to(i));
+            assertNotEquals(a, b, "cycle through " + tree.from(i) + " - " + tree.to(i));
+            set[a] = b;
+        }
+        return tree.totalCost();
+    }
+
+    /** Cheapest forest of n - components edges, by trying every subset of the edges */
+    private static long bruteForceTree(Graph graph)
+    {
+        Map<Long, Integer> pairs = pairs(graph);
+        long[] keys = new long[pairs.size()];
+        int k = 0;
+        for (long key : pairs.keySet()) keys[k++] = key;
+        int n = graph.numNodes(), size = n - count(components(graph, -1, -1, -1));
+        assertTrue(keys.length <= 20, keys.length + " edges are too many to try every subset");
+
+        long best = Long.MAX_VALUE;
+        for (int subset = 0; subset < 1 << keys.length; subset++)
+        {
+            if (Integer.bitCount(subset) != size) continue;
+            int[] set = new int[n];
+            for (int v = 0; v < n; v++) set[v] = v;
+            long cost = 0;
+            boolean forest = true;
+            for (int i = 0; i < keys.length && forest; i++)
+            {
+                if ((subset & 1 << i) == 0) continue;
+                int a = find(set, (int) (keys[i] >>> 32)), b = find(set, (int) keys[i]);
+                forest = a != b;
+                set[a] = b;
+                cost += pairs.get(keys[i]);
+            }
+            if (forest) best = Math.min(best, cost);
+        }
+        return best;
+    }
+
+    /** Cheapest cost between every two joined nodes, either direction, keyed by key(a, b); loops are left out */
+    private static Map<Long, Integer> pairs(Graph graph)
+    {
+        Map<Long, Integer> pairs = new TreeMap<>();
+        for (int v = 0; v < graph.numNodes(); v++)
+            for (int e = graph.edgeBegin(v); e < graph.edgeEnd(v); e++)
+                if (graph.edgeTarget(e) != v) pairs.merge(key(v, graph.edgeTarget(e)), graph.edgeCost(e), Math::min);
+        return pairs;
+    }
+
+    private static long key(int a, int b) { return ((long) Math.min(a, b) << 32) | Math.max(a, b); }
+
+    /**
+     * Components by breadth first search ignoring direction, numbered in
+     * order of their lowest node, without node skip (-1: none) and without
+     * the edges between a and b; a skipped node is a component of its own.
+     */
+    private static int[] components(Graph graph, int skip, int a, int b)
+    {
+        Map<Long, Integer> pairs = pairs(graph);
+        int n = graph.numNodes();
+        List<List<Integer>> neighbours = new ArrayList<>();
+        for (int v = 0; v < n; v++) neighbours.add(new ArrayList<>());
+        for (long key : pairs.keySet())
+        {
+            int u = (int) (key >>> 32), v = (int) key;
+            if (u == skip || v == skip || key == key(a, b)) continue;
+            neighbours.get(u).add(v);
+            neighbours.get(v).add(u);
+        }
+        int[] component = new int[n];
+        Arrays.fill(component, -1);
+        int count = 0;
+        for (int s = 0; s < n; s++)
+        {
+            if (component[s] >= 0) continue;
+            List<Integer> queue = new ArrayList<>();
+            queue.add(s);
+            component[s] = count;
+            for (int i = 0; i < queue.size(); i++)
+                for (int t : neighbours.get(queue.get(i)))
+                    if (component[t] < 0)
+                    {
+                        component[t] = count;
+                        queue.add(t);
+                    }
+            count++;
+        }
+        return component;
+    }
+
+    private static int count(int[] component)
+    {
+        int max = -1;
+        for (int c : component) max = Math.max(max, c);
+        return max + 1;
+    }
+
+    private static int find(int[] set, int v)
+    {
+        while (set[v] != v) v = set[v];
+        return v;
+    }
+}
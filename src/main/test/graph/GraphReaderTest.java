@@ -0,0 +1,120 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphReaderTest
+{
+    private static final String NODES = "NODES\n3\nA 0.5 1.0\nB 1.5 2.0\nC 3 3.5\nARCS\n";
+
+    @Test
+    void wellFormed() throws IOException
+    {
+        for (boolean offHeap : new boolean[] { false, true })
+        {
+            Graph graph = GraphReader.read(write(NODES + "A B 5\nB C 7\n\nA C 20\n"), offHeap);
+            assertEquals(3, graph.numNodes());
+            assertEquals(6, graph.numEdges());
+            assertEquals(5, Paths.edgeCost(graph, 0, 1));
+            assertEquals(5, Paths.edgeCost(graph, 1, 0));
+            assertEquals(7, Paths.edgeCost(graph, 2, 1));
+            assertEquals(20, Paths.edgeCost(graph, 0, 2));
+            assertEquals("B", graph.getNode(1).getCity());
+        }
+    }
+
+    @Test
+    void spacesAndLineEndings() throws IOException
+    {
+        Graph graph = GraphReader.read(write("NODES\r\n3 \r\nA 0.5 1.0\r\nB 1.5 2.0\r\nC 3 3.5\r\nARCS\r\n  A\tB  5 \r\nB C 7"), false);
+        assertEquals(4, graph.numEdges());
+        assertEquals(7, Paths.edgeCost(graph, 1, 2));
+    }
+
+    @Test
+    void offHeapLocations() throws IOException
+    {
+        // 507 * 9.4714f rounds differently in float than in double
+        String small = write("NODES\n2\nA 9.4714 1.0\nB 263.57 2.31\nARCS\nA B 1\n");
+        for (String file : new String[] { "input/USA.txt", small })
+        {
+            Graph heap = GraphReader.read(file, false), offHeap = GraphReader.read(file, true);
+            for (int v = 0; v < heap.numNodes(); v++)
+                assertEquals(heap.getNode(v).getLocation(), offHeap.getNode(v).getLocation(), "location of " + heap.getNode(v).getCity());
+        }
+    }
+
+    @Test
+    void negativeCost() throws IOException
+    {
+        assertError("line 8", "negative cost -5", NODES + "A B 5\nB C -5\n");
+    }
+
+    @Test
+    void decimalCost() throws IOException
+    {
+        assertError("line 7", "5.5", NODES + "A B 5.5\n");
+    }
+
+    @Test
+    void trailingToken() throws IOException
+    {
+        assertError("line 9", "unexpected x after the cost", NODES + "A B 5\nB C 7\nA C 1 x\n");
+    }
+
+    @Test
+    void missingCost() throws IOException
+    {
+        assertError("line 7", "cost expected", NODES + "A B\n");
+    }
+
+    @Test
+    void costTooLarge() throws IOException
+    {
+        assertError("line 7", "too large", NODES + "A B 2147483648\n");
+    }
+
+    @Test
+    void unknownLabel() throws IOException
+    {
+        assertError("line 8", "unknown label D", NODES + "A B 5\nA D 5\n");
+    }
+
+    @Test
+    void duplicateLabel() throws IOException
+    {
+        assertError("line 4", "duplicate label A", "NODES\n3\nA 0.5 1.0\nA 1.5 2.0\nC 3 3.5\nARCS\n");
+    }
+
+    @Test
+    void badNodeCount() throws IOException
+    {
+        assertError("line 2", "node count", "NODES\n-3\nA 0.5 1.0\nARCS\n");
+        assertError("line 2", "unexpected 4 after the node count", "NODES\n3 4\nA 0.5 1.0\nARCS\n");
+    }
+
+    private static void assertError(String line, String message, String contents) throws IOException
+    {
+        String filename = write(contents);
+        for (boolean offHeap : new boolean[] { false, true })
+        {
+            IOException e = assertThrows(IOException.class, () -> GraphReader.read(filename, offHeap));
+            assertTrue(e.getMessage().contains(line), e.getMessage());
+            assertTrue(e.getMessage().contains(message), e.getMessage());
+        }
+    }
+
+    private static String write(String contents) throws IOException
+    {
+        File file = File.createTempFile("graph", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+        return file.getPath();
+    }
+}
@@ -0,0 +1,96 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexedPriorityQueueTest
+{
+    static final int N = 200;
+
+    /** Dijkstra-like monotone workload, checked against a TreeSet of (key, id) */
+    void monotone(IntFunction<IndexedPriorityQueue> factory)
+    {
+        Random rnd = new Random(7);
+        IndexedPriorityQueue pq = factory.apply(N);
+        int[] keys = new int[N];
+        TreeSet<Long> reference = new TreeSet<>();
+
+        for (int round = 0; round < 3; round++)
+        {
+            int last = 0;
+            for (int step = 0; step < 2000; step++)
+            {
+                int id = rnd.nextInt(N);
+                int key = last + rnd.nextInt(50);
+                if (pq.contains(id))
+                {
+                    if (key < keys[id])
+                    {
+                        reference.remove(((long) keys[id] << 32) | id);
+                        keys[id] = key;
+                        reference.add(((long) key << 32) | id);
+                    }
+                    pq.decreaseKey(id, key);
+                }
+                else
+                {
+                    keys[id] = key;
+                    reference.add(((long) key << 32) | id);
+                    pq.insert(id, key);
+                }
+
+                if (rnd.nextInt(3) == 0)
+                {
+                    long min = reference.pollFirst();
+                    assertEquals((int) (min >>> 32), pq.minKey());
+                    int removed = pq.removeMin();
+                    assertEquals((int) (min >>> 32), keys[removed]);
+                    if (removed != (int) min)
+                    {
+                        // equal keys may come out in any order
+                        reference.add(min);
+                        reference.remove(((long) keys[removed] << 32) | removed);
+                    }
+                    last = keys[removed];
+                }
+                assertEquals(reference.size(), pq.size());
+            }
+            pq.clear();
+            reference.clear();
+            assertTrue(pq.isEmpty());
+            for (int i = 0; i < N; i++) assertFalse(pq.contains(i));
+        }
+    }
+
+    @Test
+    void binaryHeap() { monotone(PriorityQueue::new); }
+
+    @Test
+    void fourAryHeap() { monotone(DaryHeap::new); }
+
+    @Test
+    void ternaryHeap() { monotone(c -> new DaryHeap(c, 3)); }
+
+    @Test
+    void radixHeap() { monotone(RadixHeap::new); }
+
+    @Test
+    void radixHeapRejectsKeysBelowMinimum()
+    {
+        RadixHeap pq = new RadixHeap(4);
+        pq.insert(0, 10);
+        pq.insert(1, 20);
+        pq.removeMin();
+        try
+        {
+            pq.insert(2, 5);
+            fail("key below the last minimum was accepted");
+        }
+        catch (IllegalArgumentException e) { }
+    }
+}
@@ -0,0 +1,78 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Point;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IsochroneTest
+{
+    @Test
+    void matchesShortestPathTree()
+    {
+        Graph graph = GraphGenerator.withRandomCosts(GraphGenerator.randomGeometric(3000, 5.0, 1), 100, 2);
+        Dijkstra dijkstra = new Dijkstra(graph);
+        for (int origin : new int[] {0, 777, 2999})
+        {
+            ShortestPathTree tree = dijkstra.shortestPathTree(origin);
+            for (int budget : new int[] {0, 1, 50, 300, 1000, Integer.MAX_VALUE})
+                check(graph, tree, dijkstra.isochrone(origin, budget));
+        }
+    }
+
+    @Test
+    void smallComponents()
+    {
+        // expected degree 1.5: a large budget still only covers the origin's component
+        Graph graph = GraphGenerator.randomGeometric(2000, 1.5, 3);
+        Dijkstra dijkstra = new Dijkstra(graph);
+        for (int origin = 0; origin < 20; origin++)
+            check(graph, dijkstra.shortestPathTree(origin), dijkstra.isochrone(origin, 1_000_000));
+    }
+
+    @Test
+    void negativeBudget()
+    {
+        Dijkstra dijkstra = new Dijkstra(GraphGenerator.randomGeometric(100, 5.0, 4));
+        assertThrows(IllegalArgumentException.class, () -> dijkstra.isochrone(0, -1));
+    }
+
+    private static void check(Graph graph, ShortestPathTree tree, Isochrone iso)
+    {
+        int budget = iso.budget(), origin = iso.origin();
+        int within = 0;
+        for (int v = 0; v < graph.numNodes(); v++)
+        {
+            boolean expected = tree.isReachable(v) && tree.distance(v) <= budget;
+            assertEquals(expected, iso.contains(v), "node " + v + " at " + tree.distance(v) + ", budget " + budget);
+            if (expected) within++;
+        }
+        assertEquals(within, iso.size());
+
+        int[] nodes = iso.nodes(), dist = iso.distances(), parents = iso.parents();
+        assertEquals(origin, nodes[0]);
+        assertEquals(0, dist[0]);
+        assertEquals(-1, parents[0]);
+        for (int i = 1; i < nodes.length; i++)
+        {
+            assertEquals(tree.distance(nodes[i]), dist[i], "distance of " + nodes[i]);
+            assertTrue(dist[i - 1] <= dist[i], "nodes out of cost order");
+            assertTrue(iso.contains(parents[i]), "parent of " + nodes[i] + " outside");
+            assertEquals(dist[i], tree.distance(parents[i]) + Paths.edgeCost(graph, parents[i], nodes[i]), "parent of " + nodes[i]);
+        }
+
+        int edges = 0;
+        for (int v : nodes)
+            for (int e = graph.edgeBegin(v); e < graph.edgeEnd(v); e++)
+                if (iso.contains(graph.edgeTarget(e))) edges++;
+        Set<Point> locations = new HashSet<>();
+        for (int v : nodes) locations.add(graph.getNode(v).getLocation());
+        Point[][] points = iso.getEdges(graph);
+        assertEquals(edges, points.length);
+        for (Point[] edge : points)
+            assertTrue(locations.contains(edge[0]) && locations.contains(edge[1]), "edge leaves the isochrone");
+    }
+}
@@ -0,0 +1,66 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LandmarksTest
+{
+    @Test
+    void farthest()
+    {
+        Graph graph = GraphGenerator.withRandomCosts(GraphGenerator.randomGeometric(2000, 5.0, 1), 100, 2);
+        check(graph, Landmarks.select(graph, 8, Landmarks.Selection.FARTHEST, 3), 4);
+    }
+
+    @Test
+    void avoid()
+    {
+        Graph graph = GraphGenerator.randomGeometric(2000, 5.0, 5);
+        check(graph, Landmarks.select(graph, 8, Landmarks.Selection.AVOID, 6), 7);
+    }
+
+    @Test
+    void admissible()
+    {
+        Graph graph = GraphGenerator.withRandomCosts(GraphGenerator.grid(20, 20, 8), 50, 9);
+        Landmarks landmarks = Landmarks.select(graph, 4, Landmarks.Selection.AVOID, 10);
+        for (int t : new int[] { 0, 57, 399 })
+        {
+            ShortestPathTree tree = new Dijkstra(graph.reverse()).shortestPathTree(t);
+            for (int v = 0; v < graph.numNodes(); v++)
+                assertTrue(landmarks.estimate(v, t) <= tree.distance(v), "estimate too high from " + v + " to " + t);
+        }
+    }
+
+    @Test
+    void saveAndLoad() throws IOException
+    {
+        Graph graph = GraphGenerator.randomGeometric(500, 5.0, 11);
+        Landmarks landmarks = Landmarks.select(graph, 4, Landmarks.Selection.FARTHEST, 12);
+        File file = File.createTempFile("landmarks", ".bin");
+        file.deleteOnExit();
+        landmarks.save(file.getPath());
+        Landmarks loaded = Landmarks.load(file.getPath(), graph);
+        assertArrayEquals(landmarks.landmarks(), loaded.landmarks());
+        for (int v = 0; v < graph.numNodes(); v += 7)
+            assertEquals(landmarks.estimate(v, 3), loaded.estimate(v, 3));
+    }
+
+    private static void check(Graph graph, Landmarks landmarks, long seed)
+    {
+        Dijkstra dijkstra = new Dijkstra(graph);
+        Random rnd = new Random(seed);
+        for (int i = 0; i < 200; i++)
+        {
+            int origin = rnd.nextInt(graph.numNodes()), destination = rnd.nextInt(graph.numNodes());
+            assertEquals(Paths.cost(graph, dijkstra.computeShortestPath(origin, destination, null), origin, destination),
+                         Paths.cost(graph, dijkstra.computeShortestPath(origin, destination, landmarks, null), origin, destination),
+                         origin + " -> " + destination);
+        }
+    }
+}
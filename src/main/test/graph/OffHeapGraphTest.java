@@ -0,0 +1,61 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapGraphTest
+{
+    @Test
+    void usaRoundTrip() throws IOException
+    {
+        Graph graph = Graph.load("input/USA.txt");
+        Graph offHeap = Graph.loadOffHeap("input/USA.txt");
+        assertTrue(offHeap.isOffHeap());
+        assertNull(offHeap.labelIndex().array(), "label index on the heap");
+        BinaryGraphTest.assertSameGraph(graph, offHeap);
+        assertSame(offHeap, offHeap.reverse());
+
+        // saved off the heap, the file is the one the heap graph writes
+        String file = BinaryGraphTest.temp(), second = BinaryGraphTest.temp();
+        graph.save(file);
+        offHeap.save(second);
+        assertArrayEquals(Files.readAllBytes(new File(file).toPath()), Files.readAllBytes(new File(second).toPath()));
+    }
+
+    @Test
+    void toOffHeap()
+    {
+        Graph graph = GraphGenerator.withRandomCosts(GraphGenerator.randomGeometric(3000, 5.0, 1), 100, 2);
+        Graph offHeap = graph.toOffHeap();
+        assertTrue(offHeap.isOffHeap());
+        assertNull(offHeap.labelIndex().array(), "label index on the heap");
+        BinaryGraphTest.assertSameGraph(graph, offHeap);
+        BinaryGraphTest.assertSameGraph(graph.reverse(), offHeap.reverse());
+        assertSame(offHeap.labelIndex(), offHeap.reverse().labelIndex());
+
+        ShortestPathTree expected = new Dijkstra(graph).shortestPathTree(0), tree = new Dijkstra(offHeap).shortestPathTree(0);
+        for (int v = 0; v < graph.numNodes(); v++) assertEquals(expected.distance(v), tree.distance(v));
+    }
+
+    @Test
+    void costsCanChange()
+    {
+        Graph offHeap = GraphGenerator.randomGeometric(500, 5.0, 3).toOffHeap();
+        int v = offHeap.edgeTarget(offHeap.edgeBegin(0));
+        offHeap.setEdgeCost(0, v, 4321);
+        assertEquals(4321, Paths.edgeCost(offHeap, 0, v));
+        assertEquals(4321, Paths.edgeCost(offHeap, v, 0));
+    }
+
+    @Test
+    void unknownLabel()
+    {
+        Graph offHeap = GraphGenerator.randomGeometric(100, 4.0, 4).toOffHeap();
+        assertThrows(IllegalArgumentException.class, () -> offHeap.getId(new CityNode("nowhere", 1, 1)));
+    }
+}
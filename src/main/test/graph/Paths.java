@@ -0,0 +1,42 @@
+package graph;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Checks on the paths returned by the queries, shared by the tests */
+final class Paths
+{
+    private Paths() { }
+
+    /**
+     * Cost of a path given from destination back to origin, as the queries
+     * return it, failing if it does not join origin to destination over
+     * edges of the graph; -1 for an empty path.
+     */
+    static long cost(Graph graph, List<Integer> path, int origin, int destination)
+    {
+        if (path.isEmpty()) return -1;
+        assertEquals(destination, (int) path.get(0), "path does not end at the destination");
+        assertEquals(origin, (int) path.get(path.size() - 1), "path does not start at the origin");
+        long cost = 0;
+        for (int i = path.size() - 1; i > 0; i--) cost += edgeCost(graph, path.get(i), path.get(i - 1));
+        return cost;
+    }
+
+    /** Cost of the cheapest edge from -> to, failing if there is none */
+    static int edgeCost(Graph graph, int from, int to)
+    {
+        int best = Integer.MAX_VALUE;
+        for (int e = graph.edgeBegin(from); e < graph.edgeEnd(from); e++)
+            if (graph.edgeTarget(e) == to) best = Math.min(best, graph.edgeCost(e));
+        assertNotEquals(Integer.MAX_VALUE, best, "no edge " + from + " -> " + to);
+        return best;
+    }
+
+    /** Cost of the shortest path by a plain Dijkstra search; -1 if there is none */
+    static long expected(ShortestPathTree tree, int destination)
+    {
+        return tree.isReachable(destination) ? tree.distance(destination) : -1;
+    }
+}
@@ -3,8 +3,6 @@ package graph;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-import java.util.Arrays;
-
 import static org.junit.jupiter.api.Assertions.*;
 
 class PriorityQueueTest
@@ -15,7 +13,7 @@ class PriorityQueueTest
     void before()
     {
         pq = new PriorityQueue(16);
-        for (int i = 0; i < 12; i++) pq.insert(i, i*10, 0);
+        for (int i = 0; i < 12; i++) pq.insert(i, i*10);
         System.out.print("Initial ");
         System.out.println(pq);
     }
@@ -23,9 +21,13 @@ class PriorityQueueTest
     @Test
     void insert()
     {
-        for (int i = 0; i < 4; i++) pq.insert(i, i*10, 0);
+        for (int i = 12; i < 16; i++) pq.insert(i, -i);
         System.out.print("4 Inserted into ");
         System.out.println(pq);
+        assertEquals(16, pq.size());
+        assertEquals(15, pq.minId());
+        pq.removeMin();
+        assertEquals(14, pq.minId());
     }
 
     @Test
@@ -38,36 +40,43 @@ class PriorityQueueTest
         for (int i = 0; i < 4; i++) pq.removeMin();
         System.out.print("5 Total Removed ");
         System.out.println(pq);
+        assertEquals(5, pq.minId());
         for (int i = 0; i < 8; i++) pq.removeMin();
         System.out.println("no fail on more removes than size");
+        assertTrue(pq.isEmpty());
+        assertEquals(-1, pq.removeMin());
     }
 
     @Test
-    void reduceKey()
+    void decreaseKey()
     {
-        for (int i = 0; i < 16; i++) System.out.print("locs[" + i + "]::" + pq.locs()[i] + ", ");
-        System.out.println();
-        System.out.println("Reduce key on nodeID 4, from locs[] = " + pq.locs()[4]);
-        pq.reduceKey(4, 1, 0);
-        for (int i = 0; i < 16; i++) System.out.print("locs[" + i + "]::" + pq.locs()[i] + ", ");
-        System.out.print("4th Reduced ");
+        System.out.println("Decrease key on nodeID 4");
+        pq.decreaseKey(4, 1);
+        System.out.print("4th Decreased ");
         System.out.println(pq);
-        pq.reduceKey(11, 3, 0);
-        for (int i = 0; i < 16; i++) System.out.print("locs[" + i + "]::" + pq.locs()[i] + ", ");
-        System.out.print("11th Reduced ");
+        pq.decreaseKey(11, 3);
+        System.out.print("11th Decreased ");
         System.out.println(pq);
-        pq.reduceKey(13, 5, 0);
-        for (int i = 0; i < 16; i++) System.out.print("locs[" + i + "]::" + pq.locs()[i] + ", ");
-        System.out.print("13th Reduced ");
+        pq.decreaseKey(13, 5);
+        System.out.print("13th (absent) Decreased ");
         System.out.println(pq);
+        assertFalse(pq.contains(13));
+
+        int[] order = { 0, 4, 11, 1, 2 };
+        for (int id : order) assertEquals(id, pq.removeMin());
     }
 
     @Test
-    void swap()
+    void clear()
     {
-        System.out.println(Arrays.toString(pq.heap()));
+        pq.removeMin();
+        pq.clear();
+        assertTrue(pq.isEmpty());
+        for (int i = 0; i < 16; i++) assertFalse(pq.contains(i));
 
-        pq.swap(0, 1);
-        System.out.println(Arrays.toString(pq.heap()));
+        pq.insert(7, 3);
+        pq.insert(2, 1);
+        assertEquals(2, pq.removeMin());
+        assertEquals(7, pq.removeMin());
     }
-}
\ No newline at end of file
+}
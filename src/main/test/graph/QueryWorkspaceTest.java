@@ -0,0 +1,73 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryWorkspaceTest
+{
+    @Test
+    void resetForgetsEverything()
+    {
+        QueryWorkspace ws = new QueryWorkspace(10, PriorityQueue::new);
+        ws.reset();
+        ws.reach(3, 7, 2);
+        ws.setEstimate(3, 5);
+        ws.settle(3);
+        ws.queue().insert(3, 12);
+        assertTrue(ws.isReached(3));
+        assertTrue(ws.isSettled(3));
+        assertEquals(7, ws.dist(3));
+        assertEquals(2, ws.parent(3));
+
+        ws.reset();
+        assertFalse(ws.isReached(3));
+        assertFalse(ws.isSettled(3));
+        assertEquals(Integer.MAX_VALUE, ws.dist(3));
+        assertTrue(ws.queue().isEmpty());
+
+        ws.reach(3, 9, 4);
+        assertEquals(0, ws.estimate(3), "estimate of an earlier query leaked");
+        assertEquals(9, ws.dist(3));
+    }
+
+    @Test
+    void reachKeepsEstimate()
+    {
+        QueryWorkspace ws = new QueryWorkspace(4, PriorityQueue::new);
+        ws.reset();
+        ws.reach(1, 10, 0);
+        ws.setEstimate(1, 6);
+        ws.reach(1, 8, 2);
+        assertEquals(6, ws.estimate(1));
+        assertEquals(8, ws.dist(1));
+        assertEquals(2, ws.parent(1));
+    }
+
+    @Test
+    void reusedAcrossQueries()
+    {
+        // every query type shares the thread's workspaces; none may see what the last one left
+        Graph graph = GraphGenerator.withRandomCosts(GraphGenerator.randomGeometric(1500, 5.0, 1), 100, 2);
+        Dijkstra dijkstra = new Dijkstra(graph);
+        Heuristic euclidean = new EuclideanHeuristic(graph);
+        Random rnd = new Random(3);
+        for (int i = 0; i < 100; i++)
+        {
+            int origin = rnd.nextInt(graph.numNodes()), destination = rnd.nextInt(graph.numNodes());
+            long expected = Paths.expected(new Dijkstra(graph).shortestPathTree(origin), destination);
+            List<Integer> path;
+            switch (i % 4)
+            {
+                case 0: path = dijkstra.computeShortestPath(origin, destination, null); break;
+                case 1: path = dijkstra.computeShortestPathBidirectional(origin, destination, null); break;
+                case 2: path = dijkstra.computeShortestPath(origin, destination, euclidean, null); break;
+                default: path = dijkstra.shortestPathTree(origin).pathTo(destination); break;
+            }
+            assertEquals(expected, Paths.cost(graph, path, origin, destination), "query " + i);
+        }
+    }
+}
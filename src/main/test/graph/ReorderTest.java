@@ -0,0 +1,109 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReorderTest
+{
+    @Test
+    void hilbert()
+    {
+        Graph graph = GraphGenerator.withRandomCosts(GraphGenerator.randomGeometric(3000, 5.0, 1), 100, 2);
+        check(graph, graph.reorder(Graph.NodeOrder.HILBERT));
+    }
+
+    @Test
+    void reverseCuthillMcKee()
+    {
+        // expected degree 1.5: many components, each numbered on its own
+        Graph graph = GraphGenerator.randomGeometric(3000, 1.5, 3);
+        check(graph, graph.reorder(Graph.NodeOrder.REVERSE_CUTHILL_MCKEE));
+    }
+
+    @Test
+    void twice()
+    {
+        // originalId goes back to the first graph, not the intermediate one
+        Graph graph = GraphGenerator.grid(50, 40, 4);
+        Graph once = graph.reorder(Graph.NodeOrder.REVERSE_CUTHILL_MCKEE);
+        check(graph, once.reorder(Graph.NodeOrder.HILBERT));
+    }
+
+    @Test
+    void offHeapStaysOffHeap()
+    {
+        Graph graph = GraphGenerator.withRandomCosts(GraphGenerator.randomGeometric(2000, 5.0, 5), 100, 6);
+        Graph reordered = graph.reorder(Graph.NodeOrder.HILBERT);
+        Graph offHeap = graph.toOffHeap().reorder(Graph.NodeOrder.HILBERT);
+        assertFalse(reordered.isOffHeap());
+        assertTrue(offHeap.isOffHeap());
+        assertNull(offHeap.labelIndex().array(), "label index on the heap");
+        check(graph, offHeap);
+        BinaryGraphTest.assertSameGraph(reordered, offHeap);
+    }
+
+    @Test
+    void mappedGoesOffHeap() throws IOException
+    {
+        Graph graph = GraphGenerator.randomGeometric(2000, 5.0, 7);
+        String file = BinaryGraphTest.temp();
+        graph.save(file);
+        Graph reordered = Graph.map(file).reorder(Graph.NodeOrder.REVERSE_CUTHILL_MCKEE);
+        assertTrue(reordered.isOffHeap());
+        check(graph, reordered);
+
+        // unlike the mapping, the copy can be changed
+        int v = reordered.edgeTarget(reordered.edgeBegin(0));
+        reordered.setEdgeCost(0, v, 12345);
+        assertEquals(12345, Paths.edgeCost(reordered, 0, v));
+    }
+
+    /** The reordered graph must be the same graph with other ids, and give the same distances */
+    private static void check(Graph graph, Graph reordered)
+    {
+        int n = graph.numNodes();
+        assertEquals(n, reordered.numNodes());
+        assertEquals(graph.numEdges(), reordered.numEdges());
+        int[] newIds = new int[n];
+        Arrays.fill(newIds, -1);
+        for (int i = 0; i < n; i++)
+        {
+            int old = reordered.originalId(i);
+            assertEquals(-1, newIds[old], "two nodes come from " + old);
+            newIds[old] = i;
+        }
+
+        for (int v = 0; v < n; v++)
+        {
+            int i = newIds[v];
+            assertEquals(graph.getNode(v).getCity(), reordered.getNode(i).getCity());
+            assertEquals(graph.getNode(v).getLocation(), reordered.getNode(i).getLocation());
+            assertEquals(i, reordered.getId(graph.getNode(v)));
+            assertArrayEquals(edges(graph, v, null), edges(reordered, i, reordered), "edges of " + v);
+        }
+
+        Dijkstra before = new Dijkstra(graph), after = new Dijkstra(reordered);
+        for (int origin = 0; origin < n; origin += n / 5)
+        {
+            ShortestPathTree expected = before.shortestPathTree(origin), tree = after.shortestPathTree(newIds[origin]);
+            for (int v = 0; v < n; v++) assertEquals(expected.distance(v), tree.distance(newIds[v]));
+        }
+    }
+
+    /** Edges of a node as sorted (original target, cost) pairs */
+    private static long[] edges(Graph graph, int v, Graph reordered)
+    {
+        long[] edges = new long[graph.edgeEnd(v) - graph.edgeBegin(v)];
+        for (int e = graph.edgeBegin(v), k = 0; e < graph.edgeEnd(v); e++, k++)
+        {
+            int target = reordered != null ? reordered.originalId(graph.edgeTarget(e)) : graph.edgeTarget(e);
+            edges[k] = ((long) target << 32) | graph.edgeCost(e);
+        }
+        Arrays.sort(edges);
+        return edges;
+    }
+}
@@ -0,0 +1,70 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteCacheTest
+{
+    @Test
+    void hitsMissesAndEvictions()
+    {
+        Graph graph = GraphGenerator.randomGeometric(1000, 5.0, 1);
+        RouteCache cache = new RouteCache(new Dijkstra(graph), 2);
+        cache.computeShortestPath(1, 2);
+        cache.computeShortestPath(3, 4);
+        cache.computeShortestPath(1, 2);
+        cache.computeShortestPath(5, 6);  //evicts 3 -> 4, the least recently used
+        cache.computeShortestPath(3, 4);
+        assertEquals(1, cache.hits());
+        assertEquals(4, cache.misses());
+        assertEquals(2, cache.evictions());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void pathsAreDroppedWhenCostsChange()
+    {
+        Graph graph = GraphGenerator.randomGeometric(2000, 5.0, 2);
+        check(graph, new RouteCache(new Dijkstra(graph), 100));
+    }
+
+    @Test
+    void treesAreDroppedWhenCostsChange()
+    {
+        Graph graph = GraphGenerator.randomGeometric(2000, 5.0, 3);
+        RouteCache cache = new RouteCache(new Dijkstra(graph), 100, 4, 1);
+        check(graph, cache);
+        assertEquals(1, cache.trees());
+        assertTrue(cache.treeHits() > 0);
+    }
+
+    /** Make the cached path to the farthest node expensive; the cache must serve the new shortest path */
+    private static void check(Graph graph, RouteCache cache)
+    {
+        int origin = 0, destination = farthest(graph, origin);
+        List<Integer> before = cache.computeShortestPath(origin, destination);
+        assertEquals(before, cache.computeShortestPath(origin, destination));
+
+        long version = graph.version();
+        for (int i = before.size() - 1; i > 0; i--)
+            graph.setEdgeCost(before.get(i), before.get(i - 1), 1_000_000);
+        assertEquals(version + before.size() - 1, graph.version());
+
+        long expected = Paths.expected(new Dijkstra(graph).shortestPathTree(origin), destination);
+        List<Integer> after = cache.computeShortestPath(origin, destination);
+        assertEquals(expected, Paths.cost(graph, after, origin, destination));
+        assertNotEquals(before, after);
+    }
+
+    private static int farthest(Graph graph, int origin)
+    {
+        ShortestPathTree tree = new Dijkstra(graph).shortestPathTree(origin);
+        int best = origin;
+        for (int v = 0; v < graph.numNodes(); v++)
+            if (tree.isReachable(v) && tree.distance(v) > tree.distance(best)) best = v;
+        return best;
+    }
+}
@@ -0,0 +1,141 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchMetricsTest
+{
+    @Test
+    void histogramBuckets()
+    {
+        Random rnd = new Random(1);
+        for (int i = 0; i < 100_000; i++)
+        {
+            long v = i < 1000 ? i : i == 1000 ? Long.MAX_VALUE : (rnd.nextLong() >>> 1) >>> rnd.nextInt(63);
+            long low = Histogram.lowerBound(Histogram.bucket(v));
+            assertTrue(low <= v, v + " below its bucket " + low);
+            if (v >= 8) assertTrue(v - low <= low / 8, v + " more than 12.5% above its bucket " + low);
+            assertEquals(Histogram.bucket(v), Histogram.bucket(low));
+            if (v > 0) assertTrue(Histogram.bucket(v - 1) <= Histogram.bucket(v));
+        }
+    }
+
+    @Test
+    void histogramPercentiles()
+    {
+        Histogram h = new Histogram();
+        assertEquals(0, h.percentile(0.5));
+        for (int v = 1; v <= 100; v++) h.record(v);
+        assertEquals(100, h.count());
+        assertEquals(100, h.max());
+        assertEquals(50.5, h.mean(), 1e-9);
+        assertEquals(Histogram.lowerBound(Histogram.bucket(50)), h.percentile(0.5));
+        assertEquals(Histogram.lowerBound(Histogram.bucket(99)), h.percentile(0.99));
+        assertEquals(1, h.percentile(0));
+        h.reset();
+        assertEquals(0, h.count());
+        assertEquals(0, h.max());
+    }
+
+    @Test
+    void exactCountersWhenEverythingReachableIsSettled()
+    {
+        // expected degree 1.5: many small components, so most destinations are unreachable
+        Graph graph = GraphGenerator.randomGeometric(3000, 1.5, 2);
+        Dijkstra dijkstra = new Dijkstra(graph);
+        for (int origin = 0; origin < 50; origin++)
+        {
+            ShortestPathTree tree = dijkstra.shortestPathTree(origin);
+            int destination = 0;
+            while (tree.isReachable(destination)) destination++;
+
+            int reachable = 0, edges = 0;
+            for (int v = 0; v < graph.numNodes(); v++)
+            {
+                if (!tree.isReachable(v)) continue;
+                reachable++;
+                edges += graph.edgeEnd(v) - graph.edgeBegin(v);
+            }
+            SearchStats stats = new SearchStats();
+            assertTrue(dijkstra.computeShortestPath(origin, destination, stats).isEmpty());
+            assertEquals(reachable, stats.settledNodes());
+            assertEquals(edges, stats.relaxedEdges());
+            assertEquals(reachable, stats.pushes());
+            assertTrue(stats.decreaseKeys() >= 0);
+        }
+    }
+
+    @Test
+    void sameNode()
+    {
+        Dijkstra dijkstra = new Dijkstra(GraphGenerator.randomGeometric(100, 5.0, 3));
+        SearchStats stats = new SearchStats();
+        dijkstra.computeShortestPath(7, 7, stats);
+        assertEquals(1, stats.settledNodes());
+        assertEquals(0, stats.relaxedEdges());
+        assertEquals(1, stats.pushes());
+        assertEquals(0, stats.decreaseKeys());
+    }
+
+    @Test
+    void metricsAggregateEveryQuery()
+    {
+        Graph graph = GraphGenerator.randomGeometric(5000, 5.0, 4);
+        Dijkstra dijkstra = new Dijkstra(graph);
+        SearchMetrics metrics = new SearchMetrics();
+        dijkstra.setMetrics(metrics);
+        Random rnd = new Random(5);
+        long settled = 0, maxSettled = 0;
+        for (int i = 0; i < 200; i++)
+        {
+            SearchStats stats = new SearchStats();
+            int origin = rnd.nextInt(graph.numNodes()), destination = rnd.nextInt(graph.numNodes());
+            if (i % 2 == 0) dijkstra.computeShortestPath(origin, destination, stats);
+            else dijkstra.computeShortestPathBidirectional(origin, destination, stats);
+            settled += stats.settledNodes();
+            maxSettled = Math.max(maxSettled, stats.settledNodes());
+        }
+        dijkstra.computeShortestPath(0, 1, null);  //recorded without stats of its own
+
+        assertEquals(201, metrics.getQueries());
+        assertTrue(metrics.getMeanSettledNodes() * 201 >= settled);
+        assertTrue(metrics.getMaxSettledNodes() >= maxSettled);
+        assertTrue(metrics.getSettledNodesP50() <= metrics.getSettledNodesP99());
+        assertTrue(metrics.getSettledNodesP99() <= metrics.getMaxSettledNodes());
+        assertTrue(metrics.getLatencyP50Micros() <= metrics.getMaxLatencyMicros());
+        assertNotEquals("none", metrics.getSlowestQuery());
+
+        metrics.reset();
+        assertEquals(0, metrics.getQueries());
+        assertEquals("none", metrics.getSlowestQuery());
+        dijkstra.setMetrics(null);
+        dijkstra.computeShortestPath(0, 1, null);
+        assertEquals(0, metrics.getQueries());
+    }
+
+    @Test
+    void jmx() throws Exception
+    {
+        Dijkstra dijkstra = new Dijkstra(GraphGenerator.randomGeometric(1000, 5.0, 6));
+        SearchMetrics metrics = new SearchMetrics();
+        dijkstra.setMetrics(metrics);
+        ObjectName name = metrics.register("SearchMetricsTest");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try
+        {
+            for (int i = 0; i < 10; i++) dijkstra.computeShortestPath(i, 999 - i, null);
+            assertEquals(10L, server.getAttribute(name, "Queries"));
+            assertEquals(metrics.getMaxSettledNodes(), server.getAttribute(name, "MaxSettledNodes"));
+            assertThrows(IllegalStateException.class, () -> new SearchMetrics().register("SearchMetricsTest"));
+            server.invoke(name, "reset", null, null);
+            assertEquals(0L, server.getAttribute(name, "Queries"));
+        }
+        finally { server.unregisterMBean(name); }
+    }
+}
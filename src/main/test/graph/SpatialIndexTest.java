@@ -0,0 +1,88 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Point;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpatialIndexTest
+{
+    private final Graph graph = GraphGenerator.randomGeometric(3000, 4.0, 1);
+    private final Point[] points = graph.getNodes();
+    private final SpatialIndex index = graph.spatialIndex();
+
+    @Test
+    void nearestMatchesScan()
+    {
+        Random rnd = new Random(2);
+        for (int q = 0; q < 500; q++)
+        {
+            // points inside, on the border and well outside the box of the nodes
+            int x = rnd.nextInt(700) - 100, y = rnd.nextInt(500) - 100;
+            int best = -1;
+            long bestDistance = Long.MAX_VALUE;
+            for (int v = 0; v < points.length; v++)
+            {
+                long dx = points[v].x - x, dy = points[v].y - y, d = dx * dx + dy * dy;
+                if (d < bestDistance)
+                {
+                    bestDistance = d;
+                    best = v;
+                }
+            }
+            assertEquals(best, index.nearest(x, y), "nearest to " + x + ", " + y);
+        }
+    }
+
+    @Test
+    void withinRadiusMatchesScan()
+    {
+        Random rnd = new Random(3);
+        for (int q = 0; q < 200; q++)
+        {
+            int x = rnd.nextInt(600), y = rnd.nextInt(400), radius = rnd.nextInt(40);
+            int[] expected = IntStream.range(0, points.length)
+                    .filter(v -> points[v].distanceSq(x, y) <= (double) radius * radius).toArray();
+            assertArrayEquals(expected, index.withinRadius(x, y, radius), "within " + radius + " of " + x + ", " + y);
+        }
+    }
+
+    @Test
+    void firstWithinMatchesScan()
+    {
+        Random rnd = new Random(4);
+        for (int q = 0; q < 500; q++)
+        {
+            int x = rnd.nextInt(520), y = rnd.nextInt(300);
+            int expected = -1;
+            for (int v = 0; v < points.length && expected < 0; v++)
+                if (Math.abs(points[v].x - x) < graph.EPS_DIST && Math.abs(points[v].y - y) < graph.EPS_DIST) expected = v;
+            assertEquals(expected, index.firstWithin(x, y, graph.EPS_DIST));
+            CityNode node = graph.getNode(new Point(x, y));
+            assertEquals(expected, node == null ? -1 : graph.getId(node));
+        }
+    }
+
+    @Test
+    void everyNodeFindsItself()
+    {
+        for (int v = 0; v < points.length; v++)
+        {
+            int found = index.nearest(points[v].x, points[v].y);
+            assertEquals(points[v], points[found]);
+            assertTrue(found <= v, "ties go to the lowest id");
+        }
+    }
+
+    @Test
+    void emptyGraph()
+    {
+        Graph empty = Graph.of(new CityNode[0], new int[0], new int[0], new int[0], 0, true);
+        assertEquals(-1, empty.spatialIndex().nearest(10, 10));
+        assertEquals(0, empty.spatialIndex().withinRadius(10, 10, 5).length);
+        assertNull(empty.getNode(new Point(10, 10)));
+    }
+}
@@ -314,6 +314,16 @@ public class Project4Test
         Assert.assertEquals(errorMessage, expected, actual);
     }
 
+    @Test
+    public void testClosedHashingLPWrapsAround()
+    {
+        // enough keys that some probe sequence runs off the end of the table
+        Map map = new HashTableClosedHashingLP(11);
+        for (int i = 0; i < 1000; i++) map.put("key" + i, i);
+        for (int i = 0; i < 1000; i++)
+            Assert.assertEquals("The get method does not return the correct value for key \"key" + i + "\"", i, map.get("key" + i));
+    }
+
     @Test
     public void testClosedHashingDHContainsKey()
     {